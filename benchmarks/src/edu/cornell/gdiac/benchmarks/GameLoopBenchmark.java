@@ -0,0 +1,72 @@
+package edu.cornell.gdiac.benchmarks;
+
+import edu.cornell.gdiac.main.GameController;
+import edu.cornell.gdiac.main.LevelBlueprint;
+import edu.cornell.gdiac.main.ScriptedInput;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the whole gameplay loop of a level played headless: reading the input, moving the
+ * player and the NPC, stepping the world and applying wind and air resistance.
+ *
+ * <p>Each operation plays the first ten seconds of a freshly built level (or until it is lost, as
+ * the NPC may reach the exit sooner), with the player standing still. Building the level is not
+ * measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameLoopBenchmark {
+
+  /**
+   * The level to play
+   */
+  @Param({"level0", "level1", "level2", "synthetic-400x300-merge"})
+  public String level;
+
+  /**
+   * The number of physics steps played per operation
+   */
+  private static final int STEPS = 600;
+
+  private LevelBlueprint blueprint;
+  private GameController controller;
+
+  @Setup(Level.Trial)
+  public void load() {
+    blueprint = LevelBlueprint.build(level, HeadlessEnvironment.loadLevel(level));
+  }
+
+  @Setup(Level.Invocation)
+  public void setUp() {
+    controller = new GameController();
+    controller.setInputSource(new ScriptedInput());
+    controller.simulate(HeadlessEnvironment.getDirectory(), blueprint, 0);
+  }
+
+  @TearDown(Level.Invocation)
+  public void dispose() {
+    controller.dispose();
+  }
+
+  @Benchmark
+  public int play() {
+    return controller.simulate(STEPS);
+  }
+}
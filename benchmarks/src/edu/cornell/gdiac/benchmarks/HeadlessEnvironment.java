@@ -0,0 +1,208 @@
+package edu.cornell.gdiac.benchmarks;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.physics.box2d.Box2D;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.JsonValue.ValueType;
+import edu.cornell.gdiac.assets.AssetDirectory;
+import edu.cornell.gdiac.util.LevelData;
+import java.lang.reflect.Proxy;
+
+/**
+ * Runs the game code without a display, for the benchmarks.
+ *
+ * <p>The headless backend has no OpenGL, so every GL call goes to a stub that does nothing. The
+ * levels only need textures to exist, not to hold any pixels, so they all get the same blank
+ * texture from {@link #getDirectory}.
+ *
+ * <p>Levels are either read from the Tiled JSON files (the benchmarks run from the assets
+ * directory) or generated. A generated level is named {@code synthetic-<columns>x<rows>-<mode>},
+ * where the mode is the collision mode of the terrain layer (merge, chain or tiles).
+ */
+public class HeadlessEnvironment {
+
+  /**
+   * The prefix of generated level names
+   */
+  public static final String SYNTHETIC = "synthetic-";
+
+  /**
+   * The headless application, or null if not yet started
+   */
+  private static HeadlessApplication application;
+  /**
+   * The asset directory handing out blank textures
+   */
+  private static AssetDirectory directory;
+
+  /**
+   * Starts the headless application, if not already started
+   */
+  public static synchronized void start() {
+    if (application != null) {
+      return;
+    }
+    HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+    config.updatesPerSecond = -1;
+    application = new HeadlessApplication(new ApplicationAdapter() {
+    }, config);
+    Gdx.gl = Gdx.gl20 = (GL20) Proxy.newProxyInstance(GL20.class.getClassLoader(),
+        new Class<?>[]{GL20.class}, (proxy, method, args) -> defaultValue(method.getReturnType()));
+    Box2D.init();
+
+    Texture blank = new Texture(1, 1, Pixmap.Format.RGBA8888);
+    TextureRegion blankRegion = new TextureRegion(blank);
+    directory = new AssetDirectory("jsons/assets.json") {
+      @Override
+      public <T> T getEntry(String key, Class<T> type) {
+        if (type == Texture.class) {
+          return type.cast(blank);
+        } else if (type == TextureRegion.class) {
+          return type.cast(blankRegion);
+        }
+        return super.getEntry(key, type);
+      }
+    };
+  }
+
+  /**
+   * Returns an asset directory whose every texture is the same blank texture
+   *
+   * @return an asset directory whose every texture is the same blank texture
+   */
+  public static AssetDirectory getDirectory() {
+    start();
+    return directory;
+  }
+
+  /**
+   * Returns the data of the given level, read from its JSON file or generated
+   *
+   * @param name a level asset key or a generated level name
+   * @return the level data
+   */
+  public static LevelData loadLevel(String name) {
+    start();
+    if (!name.startsWith(SYNTHETIC)) {
+      return LevelData.fromJson(new JsonReader().parse(Gdx.files.internal(
+          "jsons/" + name + ".json")));
+    }
+    String[] parts = name.substring(SYNTHETIC.length()).split("[x-]");
+    return generateLevel(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), parts[2]);
+  }
+
+  /**
+   * Generates a large level: solid ground, rows of floating platforms, pass-through ledges,
+   * decorations and a player, at the same scale as the real levels.
+   *
+   * @param cols      the number of tile columns
+   * @param rows      the number of tile rows
+   * @param collision the collision mode of the terrain layer
+   * @return the level data
+   */
+  public static LevelData generateLevel(int cols, int rows, String collision) {
+    LevelData data = new LevelData();
+    data.width = cols;
+    data.height = rows;
+    data.tileWidth = 16;
+    data.tileHeight = 16;
+    data.properties = properties("gravity", -15, "pwidth", cols * 0.4f, "pheight", rows * 0.4f)
+        .child();
+
+    int[] terrain = new int[cols * rows];
+    int[] ledges = new int[cols * rows];
+    int[] decorations = new int[cols * rows];
+    for (int row = 0; row < rows; row++) {
+      for (int col = 0; col < cols; col++) {
+        int cell = row * cols + col;
+        int fromBottom = rows - 1 - row;
+        if (fromBottom < 2 || col == 0 || col == cols - 1) {
+          terrain[cell] = 1;
+        } else if (fromBottom % 6 == 0 && (col + fromBottom) % 12 < 7) {
+          terrain[cell] = 2;
+        } else if (fromBottom % 6 == 3 && (col + fromBottom) % 16 < 4) {
+          ledges[cell] = 3;
+        } else if (fromBottom % 6 == 1 && col % 9 == 0) {
+          decorations[cell] = 4;
+        }
+      }
+    }
+    JsonValue terrainProperties = properties("collision", collision, "friction", 0.4f);
+    data.layers.add(layer("deco", decorations, null));
+    data.layers.add(layer("level", terrain, terrainProperties.child()));
+    data.layers.add(layer("pass", ledges, null));
+
+    LevelData.Layer objects = new LevelData.Layer();
+    objects.name = "objects";
+    JsonValue player = new JsonValue(ValueType.object);
+    player.addChild("name", new JsonValue("player"));
+    player.addChild("type", new JsonValue("Player"));
+    player.addChild("x", new JsonValue(64));
+    player.addChild("y", new JsonValue(rows * 16 - 64));
+    player.addChild("width", new JsonValue(16));
+    player.addChild("height", new JsonValue(32));
+    player.addChild("rotation", new JsonValue(0));
+    player.addChild("properties", properties("force", 10, "maxspeed", 5, "jumpvelocity", 10));
+    JsonValue list = new JsonValue(ValueType.array);
+    list.addChild(player);
+    objects.objects = list.child();
+    data.layers.add(objects);
+    return data;
+  }
+
+  /**
+   * Returns a layer of the given tiles
+   */
+  static LevelData.Layer layer(String name, int[] tiles, JsonValue properties) {
+    LevelData.Layer layer = new LevelData.Layer();
+    layer.name = name;
+    layer.tiles = tiles;
+    layer.properties = properties;
+    return layer;
+  }
+
+  /**
+   * Returns a Tiled property list from alternating names and values
+   */
+  static JsonValue properties(Object... entries) {
+    JsonValue list = new JsonValue(ValueType.array);
+    for (int ii = 0; ii < entries.length; ii += 2) {
+      JsonValue property = new JsonValue(ValueType.object);
+      property.addChild("name", new JsonValue((String) entries[ii]));
+      Object value = entries[ii + 1];
+      if (value instanceof String) {
+        property.addChild("value", new JsonValue((String) value));
+      } else {
+        property.addChild("value", new JsonValue(((Number) value).doubleValue()));
+      }
+      list.addChild(property);
+    }
+    return list;
+  }
+
+  /**
+   * Returns the value a stubbed GL call returns
+   */
+  private static Object defaultValue(Class<?> type) {
+    if (type == boolean.class) {
+      return false;
+    } else if (type == int.class) {
+      return 0;
+    } else if (type == float.class) {
+      return 0f;
+    } else if (type == long.class) {
+      return 0L;
+    } else if (type == String.class) {
+      return "";
+    }
+    return null;
+  }
+}
@@ -0,0 +1,69 @@
+package edu.cornell.gdiac.benchmarks;
+
+import com.badlogic.gdx.physics.box2d.World;
+import edu.cornell.gdiac.main.CollisionController;
+import edu.cornell.gdiac.main.GameController;
+import edu.cornell.gdiac.main.LevelModel;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the per-frame physics work of a populated level: one world step with the game's
+ * contact listener, and applying air resistance to every object.
+ *
+ * <p>The level is rebuilt for every iteration, as a level left to run for long enough comes to
+ * rest (or falls out of the world) and stops costing anything to step.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PhysicsStepBenchmark {
+
+  /**
+   * The level to simulate
+   */
+  @Param({"level0", "level1", "level2", "synthetic-400x300-merge"})
+  public String level;
+
+  private LevelModel model;
+  private World world;
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    model = new LevelModel();
+    model.populate(HeadlessEnvironment.getDirectory(), HeadlessEnvironment.loadLevel(level));
+    world = model.getWorld();
+    world.setContactListener(new CollisionController(model));
+  }
+
+  @TearDown(Level.Iteration)
+  public void dispose() {
+    model.dispose();
+  }
+
+  @Benchmark
+  public void step() {
+    world.step(GameController.WORLD_STEP, GameController.WORLD_VELOC,
+        GameController.WORLD_POSIT);
+  }
+
+  @Benchmark
+  public void applyAirResistance() {
+    model.applyAirResistance();
+  }
+}
@@ -0,0 +1,257 @@
+package edu.cornell.gdiac.benchmarks;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.JsonValue.ValueType;
+import edu.cornell.gdiac.main.GameController;
+import edu.cornell.gdiac.main.LevelBlueprint;
+import edu.cornell.gdiac.main.PlayerModel;
+import edu.cornell.gdiac.main.ScriptedInput;
+import edu.cornell.gdiac.util.LevelData;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plays short scripted scenes headless and checks that the player behaves as it should.
+ *
+ * <p>Each check builds a small level made for it, drives the player with a {@link ScriptedInput}
+ * one physics step at a time and records every step where the player is not where it should be.
+ * The failures are printed, and the program exits with a non-zero status if there are any, so the
+ * {@code checks} task fails the build.
+ */
+public class PlayChecks {
+
+  /**
+   * A scripted scene
+   */
+  private interface Check {
+
+    /**
+     * Plays the scene, adding a message for every failure
+     *
+     * @param failures the list to add the failures to
+     */
+    void run(List<String> failures);
+  }
+
+  /**
+   * Runs every check
+   *
+   * @param args unused
+   */
+  public static void main(String[] args) {
+    HeadlessEnvironment.start();
+    int failed = 0;
+    failed += run("dropThroughPlatform", PlayChecks::dropThroughPlatform);
+    failed += run("fanPush", PlayChecks::fanPush);
+    failed += run("resetAfterFall", PlayChecks::resetAfterFall);
+    System.exit(failed == 0 ? 0 : 1);
+  }
+
+  /**
+   * Runs a check and prints how it went
+   *
+   * @return 1 if the check failed, 0 otherwise
+   */
+  private static int run(String name, Check check) {
+    List<String> failures = new ArrayList<>();
+    check.run(failures);
+    if (failures.isEmpty()) {
+      System.out.println(name + ": ok");
+      return 0;
+    }
+    System.out.println(name + ": FAILED");
+    for (String failure : failures) {
+      System.out.println("  " + failure);
+    }
+    return 1;
+  }
+
+  /**
+   * Drops the player through a pass-through ledge onto the ground, then jumps.
+   *
+   * <p>The player must not be grounded while falling from the ledge, and must not be grounded in
+   * the air after the jump either, or it could jump again mid-air.
+   */
+  private static void dropThroughPlatform(List<String> failures) {
+    GameController controller = new GameController();
+    ScriptedInput input = new ScriptedInput();
+    controller.setInputSource(input);
+    controller.simulate(HeadlessEnvironment.getDirectory(),
+        LevelBlueprint.build("drop-check", ledgeLevel()), 0);
+    PlayerModel player = controller.getLevel().getAvatar();
+
+    // Land on the ledge
+    controller.simulate(120);
+    float ledgeY = player.getY();
+    if (!player.isGrounded() || ledgeY < LEDGE_TOP) {
+      failures.add("player did not land on the ledge (y=" + ledgeY + ")");
+      controller.dispose();
+      return;
+    }
+
+    // Drop through it onto the ground
+    boolean landed = false;
+    for (int step = 0; step < 180 && !landed; step++) {
+      input.setVertical(step < 10 ? -1 : 0);
+      controller.simulate(1);
+      boolean falling = player.getY() < ledgeY - 0.5f && player.getVY() < -0.1f;
+      if (falling && player.isGrounded()) {
+        failures.add("grounded while falling from the ledge (step " + step + ", y="
+            + player.getY() + ")");
+      }
+      landed = player.getY() < LEDGE_TOP - 1 && player.isGrounded() && player.getVY() == 0;
+    }
+    if (!landed) {
+      failures.add("player did not land on the ground (y=" + player.getY() + ")");
+      controller.dispose();
+      return;
+    }
+
+    // Jump from the ground
+    float groundY = player.getY();
+    for (int step = 0; step < 60; step++) {
+      input.setVertical(step < 5 ? 1 : 0);
+      controller.simulate(1);
+      if (player.getY() > groundY + 0.5f && player.getVY() > 0.1f && player.isGrounded()) {
+        failures.add("grounded in the air after jumping (step " + step + ", y=" + player.getY()
+            + ")");
+      }
+    }
+    controller.dispose();
+  }
+
+  /**
+   * Lets the fans of level 2 push the player, standing still in front of each of them.
+   *
+   * <p>The player must be pushed about as far as when the wind pushed once per wind particle
+   * entered, which the fans were tuned for: these distances were measured that way. The third fan
+   * blows the player back down into the second one, so only the furthest push counts.
+   */
+  private static void fanPush(List<String> failures) {
+    checkPush(failures, "first fan", 4.4f, 5.4f, 2.79f);
+    checkPush(failures, "second fan", 12.8f, 5.4f, 1.29f);
+    checkPush(failures, "third fan", 14.4f, 8.6f, 1.09f);
+  }
+
+  /**
+   * Places the player at a position in level 2 and checks how far the wind pushes it
+   *
+   * @param failures the list to add the failures to
+   * @param fan      the name of the fan, for the failures
+   * @param x        the x-coordinate of the player, in world coordinates
+   * @param y        the y-coordinate of the player, in world coordinates
+   * @param expected how far the player should be pushed along x at most, within 20%
+   */
+  private static void checkPush(List<String> failures, String fan, float x, float y,
+      float expected) {
+    GameController controller = new GameController();
+    controller.setInputSource(new ScriptedInput());
+    controller.simulate(HeadlessEnvironment.getDirectory(),
+        LevelBlueprint.build("level2", HeadlessEnvironment.loadLevel("level2")), 0);
+    PlayerModel player = controller.getLevel().getAvatar();
+    player.setPosition(x, y);
+    player.setLinearVelocity(Vector2.Zero);
+    float pushed = 0;
+    for (int step = 0; step < 90; step++) {
+      controller.simulate(1);
+      pushed = Math.max(pushed, Math.abs(player.getX() - x));
+    }
+    if (Math.abs(pushed - expected) > expected * 0.2f) {
+      failures.add("the " + fan + " pushed the player " + pushed + " instead of about " + expected);
+    }
+    controller.dispose();
+  }
+
+  /**
+   * Resets level 0 after the player fell out of it, through the reset input.
+   *
+   * <p>The rebuilt level must not start out failed, as nothing of the old level may be looked at
+   * once it is reset.
+   */
+  private static void resetAfterFall(List<String> failures) {
+    boolean[] reset = {false};
+    GameController controller = new GameController();
+    controller.setInputSource(new ScriptedInput() {
+      @Override
+      public boolean didReset() {
+        boolean value = reset[0];
+        reset[0] = false;
+        return value;
+      }
+    });
+    controller.simulate(HeadlessEnvironment.getDirectory(),
+        LevelBlueprint.build("level0", HeadlessEnvironment.loadLevel("level0")), 0);
+    // Without a screen listener, the game does not handle its reset input
+    controller.setScreenListener((screen, exitCode) -> {
+    });
+    controller.getLevel().getAvatar().setPosition(2, -10);
+
+    reset[0] = true;
+    for (int frame = 0; frame < 120 && !controller.preUpdate(GameController.WORLD_STEP);
+        frame++) {
+      // Let the level build
+    }
+    if (controller.isFailure()) {
+      failures.add("the level was failed after a reset (player y="
+          + controller.getLevel().getAvatar().getY() + ")");
+    }
+    controller.dispose();
+  }
+
+  /**
+   * The top of the pass-through ledge of {@link #ledgeLevel}, in world units
+   */
+  private static final float LEDGE_TOP = 3.2f;
+
+  /**
+   * Returns a small level with solid ground, a pass-through ledge across the middle and the
+   * player above the ledge
+   */
+  private static LevelData ledgeLevel() {
+    int cols = 12;
+    int rows = 14;
+    LevelData data = new LevelData();
+    data.width = cols;
+    data.height = rows;
+    data.tileWidth = 16;
+    data.tileHeight = 16;
+    data.properties = HeadlessEnvironment.properties("gravity", -15, "pwidth", cols * 0.4f,
+        "pheight", rows * 0.4f).child();
+
+    int[] terrain = new int[cols * rows];
+    int[] ledges = new int[cols * rows];
+    for (int row = 0; row < rows; row++) {
+      for (int col = 0; col < cols; col++) {
+        int cell = row * cols + col;
+        int fromBottom = rows - 1 - row;
+        if (fromBottom < 2 || col == 0 || col == cols - 1) {
+          terrain[cell] = 1;
+        } else if (fromBottom == 7) {
+          ledges[cell] = 3;
+        }
+      }
+    }
+    data.layers.add(HeadlessEnvironment.layer("level", terrain,
+        HeadlessEnvironment.properties("collision", "tiles", "friction", 0.4f).child()));
+    data.layers.add(HeadlessEnvironment.layer("pass", ledges, null));
+
+    LevelData.Layer objects = new LevelData.Layer();
+    objects.name = "objects";
+    JsonValue player = new JsonValue(ValueType.object);
+    player.addChild("name", new JsonValue("player"));
+    player.addChild("type", new JsonValue("Player"));
+    player.addChild("x", new JsonValue(72));
+    player.addChild("y", new JsonValue(64));
+    player.addChild("width", new JsonValue(16));
+    player.addChild("height", new JsonValue(32));
+    player.addChild("rotation", new JsonValue(0));
+    player.addChild("properties", HeadlessEnvironment.properties("force", 10, "maxspeed", 5,
+        "jumpvelocity", 10));
+    JsonValue list = new JsonValue(ValueType.array);
+    list.addChild(player);
+    objects.objects = list.child();
+    data.layers.add(objects);
+    return data;
+  }
+}
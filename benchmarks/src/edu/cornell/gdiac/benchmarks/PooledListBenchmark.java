@@ -0,0 +1,72 @@
+package edu.cornell.gdiac.benchmarks;
+
+import edu.cornell.gdiac.util.PooledList;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the list every level keeps its objects in: a full iteration (as done several times
+ * per frame), and removing objects while iterating (as done when platforms break).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PooledListBenchmark {
+
+  /**
+   * The number of elements in the list
+   */
+  @Param({"100", "1000", "10000"})
+  public int size;
+
+  private PooledList<Integer> list;
+
+  @Setup
+  public void setUp() {
+    list = new PooledList<>();
+    for (int ii = 0; ii < size; ii++) {
+      list.add(ii);
+    }
+  }
+
+  @Benchmark
+  public int iterate() {
+    int sum = 0;
+    for (Integer value : list) {
+      sum += value;
+    }
+    return sum;
+  }
+
+  /**
+   * Removes every other element while iterating, then adds them back so the list keeps its size
+   */
+  @Benchmark
+  public int removeWhileIterating() {
+    int removed = 0;
+    for (Iterator<Integer> it = list.iterator(); it.hasNext(); ) {
+      if ((it.next() & 1) == 1) {
+        it.remove();
+        removed++;
+      }
+    }
+    for (int ii = 0; ii < removed; ii++) {
+      list.add(2 * ii + 1);
+    }
+    return removed;
+  }
+}
@@ -0,0 +1,77 @@
+package edu.cornell.gdiac.benchmarks;
+
+import edu.cornell.gdiac.assets.AssetDirectory;
+import edu.cornell.gdiac.main.LevelBlueprint;
+import edu.cornell.gdiac.main.LevelModel;
+import edu.cornell.gdiac.util.LevelData;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures building a level, from its level data to a populated world.
+ *
+ * <p>{@link #populate} is the whole of what a level switch costs once the level is read, while
+ * {@link #populateBlueprint} only measures creating the models and bodies from a blueprint, which
+ * is what a reset costs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PopulateBenchmark {
+
+  /**
+   * The level to build
+   */
+  @Param({"level0", "level1", "level2", "synthetic-200x150-merge", "synthetic-400x300-merge",
+      "synthetic-400x300-chain", "synthetic-400x300-tiles"})
+  public String level;
+
+  private AssetDirectory directory;
+  private LevelData data;
+  private LevelBlueprint blueprint;
+  private LevelModel model;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    directory = HeadlessEnvironment.getDirectory();
+    data = HeadlessEnvironment.loadLevel(level);
+    blueprint = LevelBlueprint.build(level, data);
+    model = new LevelModel();
+  }
+
+  /**
+   * Empties the level again, so every invocation starts from the same state
+   */
+  @TearDown(Level.Invocation)
+  public void dispose() {
+    model.dispose();
+  }
+
+  @Benchmark
+  public LevelModel populate() {
+    model.populate(directory, data);
+    return model;
+  }
+
+  @Benchmark
+  public LevelModel populateBlueprint() {
+    model.beginPopulate(directory, blueprint);
+    model.populateStep(Long.MAX_VALUE);
+    return model;
+  }
+}
@@ -0,0 +1,205 @@
+package edu.cornell.gdiac.benchmarks;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.TimeUtils;
+import edu.cornell.gdiac.main.GameController;
+import edu.cornell.gdiac.main.InputTrace;
+import edu.cornell.gdiac.main.LevelBlueprint;
+import edu.cornell.gdiac.main.PlayerModel;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Plays many variants of the levels headless, in parallel, and writes how each run went to a CSV
+ * file. This is for tuning: a sweep over hundreds of parameter values takes minutes instead of an
+ * afternoon of editing the levels in Tiled.
+ *
+ * <p>The runs are read from a CSV file with a header line and one line per run. The columns are
+ *
+ * <ul>
+ *   <li>{@code level}: the level asset key, or a generated level (see
+ *   {@link HeadlessEnvironment#loadLevel})</li>
+ *   <li>{@code trace}: the file of the input trace to play (see {@link InputTrace}), or empty to
+ *   stand still</li>
+ *   <li>{@code steps}: the most physics steps to play, {@link #DEFAULT_STEPS} if empty</li>
+ *   <li>{@code <Type>.<property>}: the value of a Tiled property of every object of a type, for
+ *   example {@code Player.force}, {@code Player.fallMultiplier}, {@code Fan.WindStrength} or
+ *   {@code Slope.frozenimpulse}. An empty value keeps the value of the level.</li>
+ * </ul>
+ *
+ * <p>The results have the columns of the runs followed by the number of steps played, the game
+ * time, the outcome (won, lost, fell, or running if the steps ran out), the top speed of the
+ * player, where the player ended up and how long the run took. Values cannot contain commas.
+ *
+ * <p>Every run has its own game controller, level and Box2D world, so the runs are independent
+ * and are spread across all cores. Pass the CSV files (and optionally the number of threads) to
+ * the {@code sweep} task, for example {@code -Psweep="sweeps/runs.csv sweeps/results.csv"}.
+ */
+public class SweepRunner {
+
+  /**
+   * The number of physics steps played if a run does not say (one minute of game time)
+   */
+  public static final int DEFAULT_STEPS = 3600;
+  /**
+   * The columns added to the results
+   */
+  private static final String RESULT_COLUMNS = "played,time,outcome,maxspeed,x,y,ms";
+
+  /**
+   * The blueprint of every level played so far, by name
+   */
+  private final ConcurrentHashMap<String, LevelBlueprint> blueprints = new ConcurrentHashMap<>();
+  /**
+   * The column names of the runs
+   */
+  private final String[] header;
+
+  /**
+   * Creates a runner for runs with the given columns
+   *
+   * @param header the column names of the runs
+   */
+  public SweepRunner(String[] header) {
+    this.header = header;
+  }
+
+  /**
+   * Plays the runs of a CSV file and writes the results to another
+   *
+   * @param args the runs file, the results file and optionally the number of threads
+   */
+  public static void main(String[] args) throws Exception {
+    if (args.length < 2) {
+      System.err.println("Usage: SweepRunner <runs.csv> <results.csv> [threads]");
+      System.exit(1);
+    }
+    List<String> lines = Files.readAllLines(Paths.get(args[0]), StandardCharsets.UTF_8);
+    lines.removeIf(line -> line.trim().isEmpty());
+    int threads = args.length > 2 ? Integer.parseInt(args[2])
+        : Runtime.getRuntime().availableProcessors();
+
+    HeadlessEnvironment.start();
+    SweepRunner runner = new SweepRunner(split(lines.get(0)));
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    long start = TimeUtils.millis();
+    List<Future<String>> results = new ArrayList<>();
+    for (String line : lines.subList(1, lines.size())) {
+      String[] run = split(line);
+      results.add(pool.submit(() -> runner.play(run)));
+    }
+
+    try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(args[1]),
+        StandardCharsets.UTF_8))) {
+      out.println(String.join(",", runner.header) + "," + RESULT_COLUMNS);
+      for (int ii = 0; ii < results.size(); ii++) {
+        out.println(lines.get(ii + 1).trim() + "," + results.get(ii).get());
+      }
+    }
+    pool.shutdown();
+    System.out.println("Played " + results.size() + " runs on " + threads + " threads in "
+        + TimeUtils.timeSinceMillis(start) + " ms");
+    Gdx.app.exit();
+  }
+
+  /**
+   * Plays a run and returns its results
+   *
+   * @param run the values of the run, by column
+   * @return the result columns of the run
+   */
+  public String play(String[] run) {
+    long start = TimeUtils.millis();
+    GameController controller = new GameController();
+    try {
+      String level = null;
+      InputTrace trace = new InputTrace();
+      int steps = DEFAULT_STEPS;
+      ObjectMap<String, ObjectMap<String, String>> properties = new ObjectMap<>();
+      for (int ii = 0; ii < header.length && ii < run.length; ii++) {
+        String value = run[ii];
+        if (value.isEmpty()) {
+          continue;
+        }
+        switch (header[ii]) {
+          case "level":
+            level = value;
+            break;
+          case "trace":
+            trace = InputTrace.parse(new String(Files.readAllBytes(Paths.get(value)),
+                StandardCharsets.UTF_8));
+            break;
+          case "steps":
+            steps = Integer.parseInt(value);
+            break;
+          default:
+            int dot = header[ii].indexOf('.');
+            if (dot < 0) {
+              throw new IllegalArgumentException("Unknown column " + header[ii]);
+            }
+            String type = header[ii].substring(0, dot);
+            if (!properties.containsKey(type)) {
+              properties.put(type, new ObjectMap<>());
+            }
+            properties.get(type).put(header[ii].substring(dot + 1), value);
+        }
+      }
+      if (level == null) {
+        throw new IllegalArgumentException("No level");
+      }
+
+      LevelBlueprint blueprint = blueprints.computeIfAbsent(level,
+          name -> LevelBlueprint.build(name, HeadlessEnvironment.loadLevel(name)));
+      for (ObjectMap.Entry<String, ObjectMap<String, String>> entry : properties) {
+        blueprint = blueprint.withProperties(entry.key, entry.value);
+      }
+
+      controller.setInputSource(trace);
+      controller.simulate(HeadlessEnvironment.getDirectory(), blueprint, 0);
+      PlayerModel avatar = controller.getLevel().getAvatar();
+      float maxSpeed = 0;
+      int played = 0;
+      while (played < steps && controller.simulate(1) > 0) {
+        played++;
+        maxSpeed = Math.max(maxSpeed, avatar.getLinearVelocity().len());
+      }
+
+      String outcome = "running";
+      if (controller.isComplete()) {
+        outcome = "won";
+      } else if (controller.isFailure()) {
+        outcome = avatar.getY() < -1 ? "fell" : "lost";
+      }
+      Vector2 position = avatar.getPosition();
+      return played + "," + played * GameController.WORLD_STEP + "," + outcome + "," + maxSpeed
+          + "," + position.x + "," + position.y + "," + TimeUtils.timeSinceMillis(start);
+    } catch (IOException | RuntimeException e) {
+      System.err.println("Run " + String.join(",", run) + " failed: " + e);
+      return ",,error,,,," + TimeUtils.timeSinceMillis(start);
+    } finally {
+      controller.dispose();
+    }
+  }
+
+  /**
+   * Returns the trimmed values of a CSV line
+   */
+  private static String[] split(String line) {
+    String[] values = line.split(",", -1);
+    for (int ii = 0; ii < values.length; ii++) {
+      values[ii] = values[ii].trim();
+    }
+    return values;
+  }
+}
@@ -0,0 +1,76 @@
+package edu.cornell.gdiac.benchmarks;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import edu.cornell.gdiac.main.FanModel;
+import edu.cornell.gdiac.main.LevelModel;
+import edu.cornell.gdiac.main.WindModel;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the wind force computation, for the wind of every fan of level2 at a spread of
+ * positions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WindForceBenchmark {
+
+  /**
+   * The number of positions per wind
+   */
+  private static final int POINTS = 16;
+
+  private LevelModel model;
+  private final Array<WindModel> winds = new Array<>();
+  private final float[] points = new float[2 * POINTS];
+
+  @Setup
+  public void setUp() {
+    model = new LevelModel();
+    model.populate(HeadlessEnvironment.getDirectory(), HeadlessEnvironment.loadLevel("level2"));
+    for (FanModel fan : model.getFans()) {
+      // A fan without a period blows all the time
+      fan.update(0);
+      winds.add(fan.getWind());
+    }
+    for (int ii = 0; ii < POINTS; ii++) {
+      points[2 * ii] = model.getBounds().width * ii / POINTS;
+      points[2 * ii + 1] = model.getBounds().height * ((ii * 7) % POINTS) / POINTS;
+    }
+  }
+
+  @TearDown
+  public void dispose() {
+    model.dispose();
+  }
+
+  /**
+   * Computes the force of every wind at every position (the time is for all of them)
+   */
+  @Benchmark
+  public float getForce() {
+    float total = 0;
+    for (WindModel wind : winds) {
+      for (int ii = 0; ii < points.length; ii += 2) {
+        Vector2 force = wind.getForce(points[ii], points[ii + 1]);
+        total += force.x + force.y;
+      }
+    }
+    return total;
+  }
+}
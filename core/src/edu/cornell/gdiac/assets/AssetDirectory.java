@@ -57,8 +57,12 @@ import edu.cornell.gdiac.util.FilmStrip;
  * As with any {@link AssetManager}, this class loads assets via {@link AssetLoader} objects.
  * However, it also requires {@link AssetParser} objects.  An asset parser takes an JSON entry in
  * the directory and instructs the appropriate loader how to load that file.  This class has built
- * in parsers for the classes {@link Texture}, {@link TextureRegion},  {@link BitmapFont},
- * {@link SoundEffect}, {@link MusicQueue}, and {@link JsonValue}.
+ * in parsers for the classes {@link Texture}, {@link TextureRegion},  {@link TextureAtlas},
+ * {@link BitmapFont}, {@link SoundEffect}, {@link MusicQueue}, and {@link JsonValue}.
+ * <p>
+ * Texture regions are also looked up in the atlases by name, so code asking for a
+ * {@link TextureRegion} gets the packed region when the texture has been packed into an atlas, and
+ * the whole texture otherwise.
  * <p>
  * If you wish to add custom assets, you need to add BOTH a custom {@link AssetLoader} and a custom
  * {@link AssetParser} to this manager.  While a type can only have one loader per file suffix,
@@ -163,6 +167,7 @@ public class AssetDirectory extends AssetManager {
     topLoader.addParser(new JsonValueParser());
     topLoader.addParser(new TextureParser());
     topLoader.addParser(new TextureRegionParser());
+    topLoader.addParser(new TextureAtlasParser());
     topLoader.addParser(new FilmStripParser());
     topLoader.addParser(new FreetypeFontParser());
     topLoader.addParser(new SoundParser());
@@ -197,8 +202,8 @@ public class AssetDirectory extends AssetManager {
    * Loads all assets defined by the asset directory
    * <p>
    * Each asset must have an associated {@link AssetParser} for this to work. There are default
-   * parsers for the classes {@link Texture}, {@link TextureRegion}, {@link BitmapFont},
-   * {@link SoundEffect}, {@link MusicQueue}, {@link JsonValue}.
+   * parsers for the classes {@link Texture}, {@link TextureRegion}, {@link TextureAtlas},
+   * {@link BitmapFont}, {@link SoundEffect}, {@link MusicQueue}, {@link JsonValue}.
    * <p>
    * Any additional asset parsers should be added with the {@link #addParser} method.
    */
@@ -272,6 +277,11 @@ public class AssetDirectory extends AssetManager {
    * Returns the asset associated with the given directory key
    * <p>
    * The method {@link #loadAssets} must have been called for this method to return a value.
+   * <p>
+   * A {@link TextureRegion} that is not in the directory is looked up in the atlases, as the
+   * region of that name, and then as the whole texture of that key. This way the same key draws
+   * from an atlas once its texture is packed. The atlas regions are shared, so they must not be
+   * modified.
    *
    * @param key  the asset directory key
    * @param type the asset type
@@ -279,14 +289,42 @@ public class AssetDirectory extends AssetManager {
    */
   public <T> T getEntry(String key, Class<T> type) {
     ObjectMap<String, String> keys = contents.keymap.get(type, null);
-    if (keys == null) {
-      return null;
+    String filename = keys == null ? null : keys.get(key, null);
+    if (filename != null) {
+      return get(filename, type);
+    }
+    if (type == TextureRegion.class) {
+      TextureRegion region = findRegion(key);
+      if (region == null) {
+        Texture texture = getEntry(key, Texture.class);
+        region = texture == null ? null : new TextureRegion(texture);
+      }
+      return type.cast(region);
     }
-    String filename = keys.get(key, null);
-    if (filename == null) {
-      return null;
+    return null;
+  }
+
+  /**
+   * Returns the region with the given name in the loaded atlases, or null if there is none
+   * <p>
+   * If several atlases have a region of that name, any one of them may be returned.
+   *
+   * @param key the region name
+   * @return the region with the given name in the loaded atlases, or null if there is none
+   */
+  private TextureRegion findRegion(String key) {
+    ObjectMap<String, String> atlases = contents.keymap.get(TextureAtlas.class, null);
+    if (atlases != null) {
+      // Not values(), whose iterator is shared by every caller
+      for (String file : new ObjectMap.Values<String>(atlases)) {
+        TextureRegion region = isLoaded(file, TextureAtlas.class)
+            ? get(file, TextureAtlas.class).findRegion(key) : null;
+        if (region != null) {
+          return region;
+        }
+      }
     }
-    return get(filename, type);
+    return null;
   }
 
   /**
@@ -301,14 +339,12 @@ public class AssetDirectory extends AssetManager {
    */
   public <T> boolean hasEntry(String key, Class<T> type) {
     ObjectMap<String, String> keys = contents.keymap.get(type, null);
-    if (keys == null) {
-      return false;
-    }
-    String filename = keys.get(key, null);
-    if (filename == null) {
-      return false;
+    String filename = keys == null ? null : keys.get(key, null);
+    if (filename != null) {
+      return contains(filename, type);
     }
-    return contains(filename, type);
+    return type == TextureRegion.class
+        && (findRegion(key) != null || hasEntry(key, Texture.class));
   }
 
   /**
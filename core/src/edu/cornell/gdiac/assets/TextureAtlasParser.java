@@ -0,0 +1,102 @@
+/*
+ * TextureAtlasParser.java
+ *
+ * This is an interface for parsing a JSON entry into a TextureAtlas asset. The atlases are
+ * packed at build time (see the packTextures task of the tools project), so an atlas entry
+ * only needs the atlas file.
+ */
+package edu.cornell.gdiac.assets;
+
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.TextureAtlasLoader;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * This class parses a JSON entry into a {@link TextureAtlas}.
+ * <p>
+ * An atlas is specified either by the name of its file, or by an object with a file entry and
+ * an optional flip entry (see {@link TextureAtlasLoader.TextureAtlasParameter}). The object may
+ * also list the texture keys packed into the atlas, but that list is only read by the packer.
+ * <p>
+ * Atlases are generated by the build, so an atlas whose file does not exist is skipped. The
+ * regions of the atlases are found by {@link AssetDirectory#getEntry} when looking up a
+ * {@link com.badlogic.gdx.graphics.g2d.TextureRegion}, which falls back to the texture of the
+ * same key if no atlas has that region.
+ */
+public class TextureAtlasParser implements AssetParser<TextureAtlas> {
+
+  /**
+   * The current atlas entry in the JSON directory
+   */
+  private JsonValue root;
+
+  /**
+   * Returns the asset type generated by this parser
+   *
+   * @return the asset type generated by this parser
+   */
+  public Class<TextureAtlas> getType() {
+    return TextureAtlas.class;
+  }
+
+  /**
+   * Resets the parser iterator for the given directory.
+   * <p>
+   * The value directory is assumed to be the root of a larger JSON structure. The individual assets
+   * are defined by subtrees in this structure.
+   *
+   * @param directory The JSON representation of the asset directory
+   */
+  public void reset(JsonValue directory) {
+    root = directory;
+    root = root.getChild("atlases");
+  }
+
+  /**
+   * Returns true if there are still assets left to generate
+   *
+   * @return true if there are still assets left to generate
+   */
+  public boolean hasNext() {
+    return root != null;
+  }
+
+  /**
+   * Processes the next available atlas, loading it into the asset manager
+   * <p>
+   * The key will be the name of the atlas object. Atlases that have not been packed yet are
+   * skipped.
+   * <p>
+   * This method fails silently if there are no available assets to process.
+   *
+   * @param manager The asset manager to load an asset
+   * @param keymap  The mapping of JSON keys to asset file names
+   */
+  public void processNext(AssetManager manager, ObjectMap<String, String> keymap) {
+    TextureAtlasLoader.TextureAtlasParameter params = new TextureAtlasLoader.TextureAtlasParameter();
+    String file;
+    if (root.isString()) {
+      file = root.asString();
+    } else {
+      file = root.getString("file", null);
+      params.flip = root.getBoolean("flip", false);
+    }
+    if (file != null && manager.getFileHandleResolver().resolve(file).exists()) {
+      keymap.put(root.name(), file);
+      manager.load(file, TextureAtlas.class, params);
+    }
+    root = root.next();
+  }
+
+  /**
+   * Returns true if o is another TextureAtlasParser
+   *
+   * @return true if o is another TextureAtlasParser
+   */
+  public boolean equals(Object o) {
+    return o instanceof TextureAtlasParser;
+  }
+
+}
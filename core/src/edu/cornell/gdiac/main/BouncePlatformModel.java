@@ -5,9 +5,23 @@ import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.utils.JsonValue;
 import edu.cornell.gdiac.assets.AssetDirectory;
+import edu.cornell.gdiac.util.PropertyBinder;
+import edu.cornell.gdiac.util.TiledJsonParser;
 
 public class BouncePlatformModel extends PlatformModel {
 
+  /**
+   * The Tiled properties of a bounce pad
+   */
+  public static final PropertyBinder<BouncePlatformModel> PROPERTIES =
+      new PropertyBinder<BouncePlatformModel>(TiledJsonParser.OBSTACLE_PROPERTIES)
+          .bindFloat("max_speed", (bounce, value) -> {
+            bounce.setMaxSpeed(value);
+            bounce.defaultMaxSpeed = value;
+          })
+          .bindFloat("coefficient", BouncePlatformModel::setCoefficient)
+          .bindBoolean("vertical", BouncePlatformModel::setVertical);
+
   /**
    * The vertical force to be applied to the player when the player bounces on the platform while
    * frozen.
@@ -20,6 +34,7 @@ public class BouncePlatformModel extends PlatformModel {
 
   public BouncePlatformModel() {
     super();
+    setContactTag(ContactTag.BOUNCE);
     region = null;
     bounceCoefficient = 0.0f;
     maxSpeed = 0;
@@ -48,37 +63,24 @@ public class BouncePlatformModel extends PlatformModel {
   public boolean isVertical(){return vertical;}
   public void setVertical(boolean verticalOrNot){vertical=verticalOrNot;}
 
+  /**
+   * Sets the texture of the bounce pad from its tile and builds its region, once its properties
+   * are set (see {@link #PROPERTIES})
+   *
+   * @param directory the asset manager
+   * @param json      the JSON subtree defining the bounce pad
+   */
   public void initialize(AssetDirectory directory, JsonValue json) {
-    JsonValue properties = json.get("properties").child();
-
-    // Pretty sure we want to remove the code below to prevent code reuse
     String key = json.getString("gid");
-    System.out.println("key = " + key);
     TextureRegion texture = new TextureRegion(directory.getEntry(key, Texture.class));
     setTexture(texture);
-
-    while (properties != null) {
-      switch (properties.getString("name")) {
-        case "max_speed":
-          setMaxSpeed(properties.getFloat("value"));
-          defaultMaxSpeed = properties.getFloat("value");
-          break;
-        case "coefficient":
-          setCoefficient(properties.getFloat("value"));
-          break;
-        case "vertical":
-          setVertical(properties.getBoolean("value"));
-        default:
-          break;
-      }
-      properties = properties.next();
-    }
+    initRegion();
   }
 
   public void draw(GameCanvas canvas) {
     if (region != null) {
-      canvas.draw(region, Color.RED, 0, 0, (getX() - anchor.x) * drawScale.x,
-          (getY() - anchor.y) * drawScale.y, getAngle(), 1, 1);
+      canvas.draw(region, Color.RED, 0, 0, (getDrawX() - anchor.x) * drawScale.x,
+          (getDrawY() - anchor.y) * drawScale.y, getDrawAngle(), 1, 1);
     }
   }
 }
\ No newline at end of file
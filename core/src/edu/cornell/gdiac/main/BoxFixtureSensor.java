@@ -5,11 +5,16 @@ import com.badlogic.gdx.physics.box2d.Fixture;
 import com.badlogic.gdx.physics.box2d.FixtureDef;
 import com.badlogic.gdx.physics.box2d.PolygonShape;
 import edu.cornell.gdiac.physics.obstacle.Obstacle;
+import edu.cornell.gdiac.util.CollisionCategory;
+import edu.cornell.gdiac.util.ContactDispatcher;
 
 /**
  * A wrapper class for creating sensor fixtures that are boxes (rectangular)
+ *
+ * <p>Each kind of sensor has its own contact tag (see {@link ContactTag}), so that only the
+ * contacts it handles reach its callbacks.
  */
-public abstract class BoxFixtureSensor<T extends Obstacle> {
+public abstract class BoxFixtureSensor<T extends Obstacle> implements ContactDispatcher.Tagged {
 
   protected T obstacle; // Contains the fixture-owning body
   protected FixtureDef sensorFixtureDef;
@@ -25,14 +30,25 @@ public abstract class BoxFixtureSensor<T extends Obstacle> {
     this.obstacle = obstacle;
 
     // Initialize shape and fixture definition
-    PolygonShape sensorShape = new PolygonShape();
-    center = new Vector2(x, y);
-    this.dimensions = new Vector2(width2, height2);
-    sensorShape.setAsBox(dimensions.x, dimensions.y, center, 0);
-
+    center = new Vector2();
+    dimensions = new Vector2();
     sensorFixtureDef = new FixtureDef();
     sensorFixtureDef.isSensor = true;
-    sensorFixtureDef.shape = sensorShape;
+    CollisionCategory.SENSOR.applyTo(sensorFixtureDef.filter);
+    sensorFixtureDef.shape = new PolygonShape();
+    setBox(x, y, width2, height2);
+  }
+
+  /**
+   * Moves and resizes this sensor, reusing its shape. Only affects fixtures created afterwards.
+   *
+   * @param (x,y)            The relative position of this fixture to the body center
+   * @param (width2,height2) The half-dimensions of this fixture
+   */
+  public void setBox(float x, float y, float width2, float height2) {
+    center.set(x, y);
+    dimensions.set(width2, height2);
+    ((PolygonShape) sensorFixtureDef.shape).setAsBox(dimensions.x, dimensions.y, center, 0);
   }
 
   public FixtureDef getFixtureDef() {
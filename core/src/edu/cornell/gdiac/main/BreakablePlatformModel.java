@@ -1,13 +1,28 @@
 package edu.cornell.gdiac.main;
 
-import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.utils.JsonValue;
 import edu.cornell.gdiac.assets.AssetDirectory;
+import edu.cornell.gdiac.util.PropertyBinder;
+import edu.cornell.gdiac.util.TiledJsonParser;
 
 public class BreakablePlatformModel extends PlatformModel {
 
+  /**
+   * The Tiled properties of a breakable platform
+   */
+  public static final PropertyBinder<BreakablePlatformModel> PROPERTIES =
+      new PropertyBinder<BreakablePlatformModel>(TiledJsonParser.OBSTACLE_PROPERTIES)
+          .bindFloat("breakminvelocity", BreakablePlatformModel::setBreakMinVelocity)
+          .bindInt("debris", BreakablePlatformModel::setDebrisPieces)
+          .bindFloat("debrislifetime", BreakablePlatformModel::setDebrisLifetime);
+
+  /**
+   * How long the debris of a broken platform lasts by default, in seconds
+   */
+  public static final float DEFAULT_DEBRIS_LIFETIME = 1.5f;
+
   /**
    * Min force required to break breakable platform
    */
@@ -15,11 +30,23 @@ public class BreakablePlatformModel extends PlatformModel {
 
   private boolean broken;
 
+  /**
+   * The number of pieces along each side the platform shatters into (0 for no debris)
+   */
+  private int debrisPieces;
+  /**
+   * How long the debris of this platform lasts, in seconds
+   */
+  private float debrisLifetime;
+
   public BreakablePlatformModel() {
     super();
+    setContactTag(ContactTag.BREAKABLE);
     region = null;
     this.breakMinVelocity = 0f;
     this.broken = false;
+    this.debrisPieces = 0;
+    this.debrisLifetime = DEFAULT_DEBRIS_LIFETIME;
   }
 
   public float getBreakMinVelocity() {
@@ -43,24 +70,53 @@ public class BreakablePlatformModel extends PlatformModel {
     broken = bool;
   }
 
+  /**
+   * Returns the number of pieces along each side the platform shatters into
+   *
+   * @return the number of pieces along each side, or 0 if the platform leaves no debris
+   */
+  public int getDebrisPieces() {
+    return debrisPieces;
+  }
+
+  /**
+   * Sets the number of pieces along each side the platform shatters into
+   *
+   * @param value the number of pieces along each side, or 0 if the platform leaves no debris
+   */
+  public void setDebrisPieces(int value) {
+    debrisPieces = value;
+  }
+
+  /**
+   * Returns how long the debris of this platform lasts, in seconds
+   *
+   * @return how long the debris of this platform lasts, in seconds
+   */
+  public float getDebrisLifetime() {
+    return debrisLifetime;
+  }
+
+  /**
+   * Sets how long the debris of this platform lasts, in seconds
+   *
+   * @param value how long the debris of this platform lasts, in seconds
+   */
+  public void setDebrisLifetime(float value) {
+    debrisLifetime = value;
+  }
+
+  /**
+   * Sets the texture of the platform from its tile, once its properties are set (see
+   * {@link #PROPERTIES})
+   *
+   * @param directory the asset manager
+   * @param json      the JSON subtree defining the platform
+   */
   public void initialize(AssetDirectory directory, JsonValue json) {
-    // Pretty sure we want to remove the code below to prevent code reuse
     String key = json.getString("gid");
     TextureRegion texture = new TextureRegion(directory.getEntry(key, Texture.class));
     setTexture(texture);
-
-    JsonValue properties = json.get("properties").child();
-    Color debugColor = null;
-    int debugOpacity = -1;
-    while (properties != null) {
-      switch (properties.getString("name")) {
-        case "breakminvelocity":
-          setBreakMinVelocity(properties.getFloat("value"));
-          break;
-        default:
-          break;
-      }
-      properties = properties.next();
-    }
   }
+
 }
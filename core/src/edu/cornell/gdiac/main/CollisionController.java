@@ -1,29 +1,36 @@
 package edu.cornell.gdiac.main;
 
 import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.physics.box2d.Body;
 import com.badlogic.gdx.physics.box2d.BodyDef.BodyType;
 import com.badlogic.gdx.physics.box2d.Contact;
-import com.badlogic.gdx.physics.box2d.ContactImpulse;
-import com.badlogic.gdx.physics.box2d.ContactListener;
 import com.badlogic.gdx.physics.box2d.Fixture;
-import com.badlogic.gdx.physics.box2d.Manifold;
-import com.badlogic.gdx.utils.ObjectSet;
-import edu.cornell.gdiac.main.WindModel.WindParticleModel;
-import edu.cornell.gdiac.physics.obstacle.BoxObstacle;
+import com.badlogic.gdx.utils.ObjectIntMap;
 import edu.cornell.gdiac.physics.obstacle.Obstacle;
+import edu.cornell.gdiac.util.CollisionCategory;
+import edu.cornell.gdiac.util.ContactDispatcher;
 import edu.cornell.gdiac.util.MathUtil;
 
-public class CollisionController implements ContactListener {
+/**
+ * Handles the contacts between the objects of a level.
+ *
+ * <p>Every handler is registered for the pairs of contact tags it cares about (see
+ * {@link ContactTag}), so a contact only reaches the handlers for its kind of fixtures, and adding
+ * a mechanic does not slow down the others. Pairs of fixtures that never interact do not even
+ * make contacts, as their collision categories filter them out (see {@link CollisionCategory}).
+ */
+public class CollisionController extends ContactDispatcher {
 
   /**
    * A cache vector for calculations and applying forces
    */
   private final Vector2 v2Cache;
   /**
-   * Mark set to handle more sophisticated collision callbacks
+   * Number of active ground sensor contacts per fixture.
+   *
+   * <p>A chain fixture makes a separate contact for each of its edges, so the sensor may touch the
+   * same fixture several times at once (e.g. while crossing a vertex).
    */
-  protected ObjectSet<Fixture> sensorFixtures;
+  protected ObjectIntMap<Fixture> sensorFixtures;
   private LevelModel level;
 
   /**
@@ -32,9 +39,29 @@ public class CollisionController implements ContactListener {
    * @param levelModel The level model passed down from game controller
    */
   public CollisionController(LevelModel levelModel) {
+    super(ContactTag.COUNT);
     this.level = levelModel;
-    this.sensorFixtures = new ObjectSet<Fixture>();
+    this.sensorFixtures = new ObjectIntMap<Fixture>();
     v2Cache = new Vector2();
+
+    register(Phase.BEGIN, ContactTag.PLAYER_GROUND, ContactTag.GROUND, this::beginGround);
+    register(Phase.END, ContactTag.PLAYER_GROUND, ContactTag.GROUND, this::endGround);
+    register(Phase.BEGIN, ContactTag.NPC, ContactTag.PLAYER_PARTS, this::reachNPC);
+    register(Phase.BEGIN, ContactTag.NPC, ContactTag.EXIT, this::reachExit);
+    registerAny(Phase.BEGIN, ContactTag.WIND, this::beginWind);
+    registerAny(Phase.END, ContactTag.WIND, this::endWind);
+    register(Phase.BEGIN, ContactTag.PASS_THROUGH_BODY, ContactTag.PLAYER_BODY,
+        this::beginSensor);
+    register(Phase.END, ContactTag.PASS_THROUGH_BODY, ContactTag.PLAYER_BODY, this::endSensor);
+    register(Phase.BEGIN, ContactTag.PASS_THROUGH_BOTTOM, ContactTag.PLAYER_BODY,
+        this::beginSensor);
+    register(Phase.END, ContactTag.PASS_THROUGH_BOTTOM, ContactTag.PLAYER_BODY,
+        this::endSensor);
+
+    register(Phase.PRE_SOLVE, ContactTag.PLAYER, ContactTag.BOUNCE, this::preSolveBounce);
+    register(Phase.PRE_SOLVE, ContactTag.PLAYER, ContactTag.SLOPE, this::preSolveSlope);
+    registerAny(Phase.PRE_SOLVE, ContactTag.BREAKABLE, this::preSolveBreak);
+    register(Phase.POST_SOLVE, ContactTag.PLAYER, ContactTag.BOUNCE, this::postSolveBounce);
   }
 
   /**
@@ -60,333 +87,181 @@ public class CollisionController implements ContactListener {
   }
 
   /**
-   * Called when two fixtures begin to touch. This method is triggered during the simulation step at
-   * the start of a contact between two fixtures
-   *
-   * @param contact The contact point containing information about the two fixtures that have come
-   *                into contact
+   * Grounds the player when its ground sensor touches something solid
    */
-  public void beginContact(Contact contact) {
-    Fixture fix1 = contact.getFixtureA();
-    Fixture fix2 = contact.getFixtureB();
-
-    Body body1 = fix1.getBody();
-    Body body2 = fix2.getBody();
-    Object fd1 = fix1.getUserData();
-    Object fd2 = fix2.getUserData();
-
-    try {
-      Obstacle bd1 = (Obstacle) body1.getUserData();
-      Obstacle bd2 = (Obstacle) body2.getUserData();
-
-      PlayerModel avatar = level.getAvatar();
-      BoxObstacle door = level.getExit();
-      NPCModel npc = level.getNPC();
-
-      // Handle beginning of fixture sensor contact
-      onBoxFixtureSensorContact(true, fix1, fix2);
-
-      // Handle possible wind contact
-      boolean isWindContact = handleWindContact(contact, fix1, fix2, bd2, bd1);
-
-      // See if we have landed on the ground
-      if (!isWindContact &&
-          (fd2 instanceof PlayerModel.GroundSensor && bd1 != avatar && !fix1.isSensor()) ||
-          (fd1 instanceof PlayerModel.GroundSensor && bd2 != avatar && !fix2.isSensor())) {
-        avatar.setGrounded(true);
-        sensorFixtures.add(avatar == bd1 ? fix2 : fix1);
-      }
-
-      // Check for win condition
-      if ((bd1 == avatar && bd2 == npc) ||
-          (bd1 == npc && bd2 == avatar)) {
-        if (!level.getFailure()) {
-          level.setComplete(true);
-        }
-        npc.setStop(true);
-      }
-
-      // Check for lose condition
-      if ((bd1 == door && bd2 == npc) ||
-          (bd1 == npc && bd2 == door)) {
-        level.setFailure(true);
-        npc.setStop(true);
-      }
-
-
-    } catch (Exception e) {
-      e.printStackTrace();
+  private void beginGround(Contact contact, Fixture sensor, Obstacle player, Fixture ground,
+      Obstacle obj) {
+    if (ground.isSensor()) {
+      return;
     }
+    ((BoxFixtureSensor<?>) sensor.getUserData()).beginContact(obj, ground);
+    ((PlayerModel) player).setGrounded(true);
+    sensorFixtures.getAndIncrement(ground, 0, 1);
   }
 
   /**
-   * Handles potential wind contact, returning whether we indeed had contact
+   * Lifts the player off the ground when its ground sensor no longer touches anything solid
+   *
+   * <p>This goes by the fixtures counted when the contact began rather than by whether they are
+   * solid now, as a pass-through platform becomes a sensor while the player drops through it.
    */
-  private boolean handleWindContact(Contact contact, Fixture fix1, Fixture fix2, Obstacle bd2,
-      Obstacle bd1) {
-    boolean is1WindFixture = fix1.getUserData() instanceof WindParticleModel;
-    boolean is2WindFixture = fix2.getUserData() instanceof WindParticleModel;
-    WindParticleModel windParticle = null;
-    Obstacle obj = null;
-
-    if (is1WindFixture) {
-      windParticle = (WindParticleModel) fix1.getUserData();
-      obj = bd2;
-    } else if (is2WindFixture) {
-      windParticle = (WindParticleModel) fix2.getUserData();
-      obj = bd1;
+  private void endGround(Contact contact, Fixture sensor, Obstacle player, Fixture ground,
+      Obstacle obj) {
+    if (!sensorFixtures.containsKey(ground)) {
+      return;
     }
-
-    // On wind contact callback
-    if (windParticle != null && obj != null) {
-      // Should not continue detection with static body
-      if (obj.getBodyType() == BodyType.StaticBody) {
-        contact.setEnabled(false);
-      } else {
-        // Apply wind force
-        Vector2 windForce = windParticle.getForce(obj.getX(), obj.getY());
-        obj.getBody().applyForce(windForce, obj.getPosition(), true);
-      }
+    ((BoxFixtureSensor<?>) sensor.getUserData()).endContact(obj, ground);
+    if (sensorFixtures.getAndIncrement(ground, 0, -1) <= 1) {
+      sensorFixtures.remove(ground, 0);
+    }
+    if (sensorFixtures.size == 0) {
+      ((PlayerModel) player).setGrounded(false);
     }
-
-    return is1WindFixture || is2WindFixture || fix1.getUserData() instanceof WindModel
-        || fix2.getUserData() instanceof WindModel;
   }
 
   /**
-   * Called when two fixtures cease to touch. This method is invoked during the simulation step when
-   * a contact between two fixtures ends. Useful for detecting when entities separate after a
-   * collision and can be used to reset states or properties
-   *
-   * @param contact The contact point that contains information about the two fixtures that have
-   *                ceased to be in contact
+   * Wins the level when the player reaches the NPC
    */
-  public void endContact(Contact contact) {
-    Fixture fix1 = contact.getFixtureA();
-    Fixture fix2 = contact.getFixtureB();
-
-    Body body1 = fix1.getBody();
-    Body body2 = fix2.getBody();
-    Object fd1 = fix1.getUserData();
-    Object fd2 = fix2.getUserData();
-
-    Object bd1 = body1.getUserData();
-    Object bd2 = body2.getUserData();
-
-    PlayerModel avatar = level.getAvatar();
-    if ((fd2 instanceof PlayerModel.GroundSensor && avatar != bd1) ||
-        (fd1 instanceof PlayerModel.GroundSensor && avatar != bd2)) {
-      sensorFixtures.remove(avatar == bd1 ? fix2 : fix1);
-      if (sensorFixtures.size == 0) {
-        avatar.setGrounded(false);
-      }
+  private void reachNPC(Contact contact, Fixture npcFixture, Obstacle npc, Fixture playerFixture,
+      Obstacle player) {
+    if (!level.getFailure()) {
+      level.setComplete(true);
     }
-
-    // Handle end of fixture sensor contact
-    onBoxFixtureSensorContact(false, fix1, fix2);
+    ((NPCModel) npc).setStop(true);
   }
 
   /**
-   * Called before the physics engine solves a contact
-   *
-   * @param contact     The contact about to be solved
-   * @param oldManifold The manifold for the contact before it is solved, containing information
-   *                    about how the two shapes are touching
+   * Loses the level when the NPC reaches the exit
    */
-  public void preSolve(Contact contact, Manifold oldManifold) {
-    // Pre-solve collision handling
-    Fixture fix1 = contact.getFixtureA();
-    Fixture fix2 = contact.getFixtureB();
-    Body body1 = fix1.getBody();
-    Body body2 = fix2.getBody();
-    PlayerModel plyr = level.getAvatar();
-    preSolveBounce(contact, plyr, body1, body2);
-    preSolveSlope(contact, plyr, body1, body2);
-    preSolveBreak(contact, plyr, body1, body2);
+  private void reachExit(Contact contact, Fixture npcFixture, Obstacle npc, Fixture exitFixture,
+      Obstacle exit) {
+    level.setFailure(true);
+    ((NPCModel) npc).setStop(true);
   }
 
   /**
-   * Called after the physics engine has solved a contact
+   * Starts pushing an object with the wind
    *
-   * @param contact The contact that was solved
-   * @param impulse The impulse generated by the physics engine to resolve the contact
+   * <p>The wind only tracks the solid fixtures of dynamic objects overlapping it, and pushes them
+   * every step until they leave (see {@link WindModel#applyForces}).
    */
-  public void postSolve(Contact contact, ContactImpulse impulse) {
-    Fixture fix1 = contact.getFixtureA();
-    Fixture fix2 = contact.getFixtureB();
-    Body body1 = fix1.getBody();
-    Body body2 = fix2.getBody();
-    PlayerModel plyr = level.getAvatar();
-    postSolveBounce(contact, plyr, body1, body2);
+  private void beginWind(Contact contact, Fixture windFixture, Obstacle fan, Fixture fixture,
+      Obstacle obj) {
+    if (obj.getBodyType() == BodyType.DynamicBody && !fixture.isSensor()) {
+      ((WindModel) windFixture.getUserData()).beginOverlap(obj);
+    }
   }
 
-  public void preSolveBounce(Contact contact, PlayerModel plyr, Body body1, Body body2) {
-    try {
-      Obstacle bd1 = (Obstacle) body1.getUserData();
-      Obstacle bd2 = (Obstacle) body2.getUserData();
-      setUpBounce(contact, plyr, bd2, bd1);
-      setUpBounce(contact, plyr, bd1, bd2);
-    } catch (Exception e) {
-      e.printStackTrace();
+  /**
+   * Stops pushing an object with the wind
+   */
+  private void endWind(Contact contact, Fixture windFixture, Obstacle fan, Fixture fixture,
+      Obstacle obj) {
+    if (obj.getBodyType() == BodyType.DynamicBody && !fixture.isSensor()) {
+      ((WindModel) windFixture.getUserData()).endOverlap(obj);
     }
   }
 
-  private void setUpBounce(Contact contact, PlayerModel plyr, Obstacle bd1, Obstacle bd2) {
-    if (bd2.equals(plyr)) {
-      if (bd1 instanceof BouncePlatformModel) {
-        BouncePlatformModel bplt = (BouncePlatformModel) bd1;
-        float c = bplt.getCoefficient();
-        // See if the platform is a vertical bounce platform
-        boolean vertical=bplt.isVertical();
-        // If yes, then it should only be bouncy when the player is on top/bottom
-        if (vertical&&(Math.abs(plyr.getPosition().x-bplt.getPosition().x)-(plyr.getWidth()+bplt.getWidth())/2f)+.1f<0){
-        if (plyr.getIsFrozen()) {
-          contact.setRestitution(c);
-          bplt.setMaxSpeed(
-              Math.max(bplt.getDefaultMaxSpeed(),
-                  Math.max(Math.abs(plyr.getVX()), Math.abs(plyr.getVY())))
-          );
-        }
-        }
-        // If not, the player should only be bounced sideways.
-        else if (!vertical&&(Math.abs(plyr.getPosition().y-bplt.getPosition().y)-(plyr.getHeight()+bplt.getHeight())/2f)+.03f<0){
-          if (plyr.getIsFrozen()) {
-            contact.setRestitution(c);
-            bplt.setMaxSpeed(
-                Math.max(bplt.getDefaultMaxSpeed(),
-                    Math.max(Math.abs(plyr.getVX()), Math.abs(plyr.getVY())))
-            );
-          }
-        }
-      }
-    }
+  /**
+   * Passes the beginning of a contact on to a box sensor
+   */
+  private void beginSensor(Contact contact, Fixture sensor, Obstacle owner, Fixture fixture,
+      Obstacle obj) {
+    ((BoxFixtureSensor<?>) sensor.getUserData()).beginContact(obj, fixture);
   }
 
-  public void preSolveBreak(Contact contact, PlayerModel plyr, Body body1, Body body2) {
-    try {
-      Obstacle bd1 = (Obstacle) body1.getUserData();
-      Obstacle bd2 = (Obstacle) body2.getUserData();
-      if (bd1.equals(plyr)) {
-        if (bd1 instanceof BreakablePlatformModel) {
-          BreakablePlatformModel breakablePlatform = (BreakablePlatformModel) bd1;
-          if ((MathUtil.getMagnitude(plyr.getLinearVelocity())
-              > breakablePlatform.getBreakMinVelocity() && plyr.getIsFrozen())
-              || breakablePlatform.isBroken()
-          ) {
-            breakablePlatform.setBroken(true);
-            contact.setEnabled(false);
-          }
-        }
-      }
-      if (bd2.equals(plyr)) {
-        if (bd1 instanceof BreakablePlatformModel) {
-          BreakablePlatformModel breakablePlatform = (BreakablePlatformModel) bd1;
-          if ((MathUtil.getMagnitude(plyr.getLinearVelocity())
-              > breakablePlatform.getBreakMinVelocity() && plyr.getIsFrozen())
-              || breakablePlatform.isBroken()
-          ) {
-            breakablePlatform.setBroken(true);
-            contact.setEnabled(false);
-          }
-        }
-      }
-    } catch (Exception e) {
-      e.printStackTrace();
-    }
+  /**
+   * Passes the end of a contact on to a box sensor
+   */
+  private void endSensor(Contact contact, Fixture sensor, Obstacle owner, Fixture fixture,
+      Obstacle obj) {
+    ((BoxFixtureSensor<?>) sensor.getUserData()).endContact(obj, fixture);
   }
 
-  private void postSolveBounce(Contact contact, PlayerModel plyr, Body body1, Body body2) {
-    try {
-      Obstacle bd1 = (Obstacle) body1.getUserData();
-      Obstacle bd2 = (Obstacle) body2.getUserData();
-      applyBounceVelocity(plyr, bd1, bd2);
-      applyBounceVelocity(plyr, bd2, bd1);
-    } catch (Exception e) {
-      e.printStackTrace();
+  /**
+   * Makes a bounce pad bouncy for the frozen player, on the sides it bounces from
+   */
+  private void preSolveBounce(Contact contact, Fixture playerFixture, Obstacle player,
+      Fixture bounceFixture, Obstacle bounce) {
+    PlayerModel plyr = (PlayerModel) player;
+    BouncePlatformModel bplt = (BouncePlatformModel) bounce;
+    if (!plyr.getIsFrozen()) {
+      return;
+    }
+    boolean bouncy;
+    if (bplt.isVertical()) {
+      // A vertical bounce platform is only bouncy when the player is on top/bottom
+      bouncy = Math.abs(plyr.getPosition().x - bplt.getPosition().x)
+          - (plyr.getWidth() + bplt.getWidth()) / 2f + .1f < 0;
+    } else {
+      // If not, the player should only be bounced sideways.
+      bouncy = Math.abs(plyr.getPosition().y - bplt.getPosition().y)
+          - (plyr.getHeight() + bplt.getHeight()) / 2f + .03f < 0;
+    }
+    if (bouncy) {
+      contact.setRestitution(bplt.getCoefficient());
+      bplt.setMaxSpeed(
+          Math.max(bplt.getDefaultMaxSpeed(),
+              Math.max(Math.abs(plyr.getVX()), Math.abs(plyr.getVY())))
+      );
     }
   }
 
-  private void applyBounceVelocity(PlayerModel playerModel, Obstacle bd1, Obstacle bd2) {
-    if (bd1.equals(playerModel)) {
-      if (bd2 instanceof BouncePlatformModel) {
-        if (playerModel.getIsFrozen()) {
-          BouncePlatformModel bplt = (BouncePlatformModel) bd2;
-          float maxSpeed = bplt.getMaxSpeed();
-          float xSpeed = playerModel.getLinearVelocity().x;
-          float ySpeed = playerModel.getLinearVelocity().y;
-          if (xSpeed > maxSpeed) {
-            playerModel.setVX(maxSpeed);
-          } else if (xSpeed < -maxSpeed) {
-            playerModel.setVX(-maxSpeed);
-          }
-          if (ySpeed > maxSpeed) {
-            playerModel.setVY(maxSpeed);
-          } else if (ySpeed < -maxSpeed) {
-            playerModel.setVY(-maxSpeed);
-          }
-          bplt.setMaxSpeed(bplt.getDefaultMaxSpeed());
-        }
-      }
+  /**
+   * Breaks a breakable platform hit hard enough by the frozen player.
+   *
+   * <p>The platform cannot be removed while the world is stepping, so it is queued for removal
+   * (see {@link LevelModel#queueBreak}). Until then, it no longer stops anything.
+   */
+  private void preSolveBreak(Contact contact, Fixture platformFixture, Obstacle platform,
+      Fixture fixture, Obstacle obj) {
+    BreakablePlatformModel breakablePlatform = (BreakablePlatformModel) platform;
+    PlayerModel plyr = level.getAvatar();
+    if (breakablePlatform.isBroken()) {
+      contact.setEnabled(false);
+    } else if (obj == plyr && plyr.getIsFrozen()
+        && MathUtil.getMagnitude(plyr.getLinearVelocity())
+        > breakablePlatform.getBreakMinVelocity()) {
+      level.queueBreak(breakablePlatform);
+      contact.setEnabled(false);
     }
   }
 
-  private void preSolveSlope(Contact contact, PlayerModel plyr, Body body1, Body body2) {
-    try {
-      Obstacle bd1 = (Obstacle) body1.getUserData();
-      Obstacle bd2 = (Obstacle) body2.getUserData();
-
-      if ((bd1.equals(plyr) && bd2 instanceof SlopeModel) || (bd2.equals(plyr)
-          && bd1 instanceof SlopeModel)) {
-        SlopeModel slope = (bd1 instanceof SlopeModel) ? (SlopeModel) bd1 : (SlopeModel) bd2;
-
-        // Only add extra force when player is frozen
-        if (plyr.getIsFrozen()) {
-          prepareImpulse(slope);
-          plyr.getBody().applyLinearImpulse(v2Cache, plyr.getPosition(), true);
-        }
+  /**
+   * Caps the speed of the frozen player bouncing off a bounce pad
+   */
+  private void postSolveBounce(Contact contact, Fixture playerFixture, Obstacle player,
+      Fixture bounceFixture, Obstacle bounce) {
+    PlayerModel playerModel = (PlayerModel) player;
+    if (playerModel.getIsFrozen()) {
+      BouncePlatformModel bplt = (BouncePlatformModel) bounce;
+      float maxSpeed = bplt.getMaxSpeed();
+      float xSpeed = playerModel.getLinearVelocity().x;
+      float ySpeed = playerModel.getLinearVelocity().y;
+      if (xSpeed > maxSpeed) {
+        playerModel.setVX(maxSpeed);
+      } else if (xSpeed < -maxSpeed) {
+        playerModel.setVX(-maxSpeed);
+      }
+      if (ySpeed > maxSpeed) {
+        playerModel.setVY(maxSpeed);
+      } else if (ySpeed < -maxSpeed) {
+        playerModel.setVY(-maxSpeed);
       }
-    } catch (Exception e) {
-      e.printStackTrace();
+      bplt.setMaxSpeed(bplt.getDefaultMaxSpeed());
     }
   }
 
   /**
-   * Handles the execution of appropriate fixture sensor callbacks
+   * Applies the extra push of a slope to the frozen player
    */
-  private void onBoxFixtureSensorContact(boolean isBeginContact, Fixture fix1, Fixture fix2) {
-    try {
-      Object data1 = fix1.getUserData();
-      Object data2 = fix2.getUserData();
-
-      boolean isPass1 = data1 instanceof BoxFixtureSensor;
-      boolean isPass2 = data2 instanceof BoxFixtureSensor;
-
-      Body body1 = fix1.getBody();
-      Body body2 = fix2.getBody();
-      Obstacle obs1 = (Obstacle) body1.getUserData();
-      Obstacle obs2 = (Obstacle) body2.getUserData();
-
-      BoxFixtureSensor<?> sensorFixture;
-
-      // Execute callback
-      if (isPass1) {
-        sensorFixture = (BoxFixtureSensor<?>) data1;
-        if (isBeginContact) {
-          sensorFixture.beginContact(obs2, fix2);
-        } else {
-          sensorFixture.endContact(obs2, fix2);
-        }
-      }
-      if (isPass2) {
-        sensorFixture = (BoxFixtureSensor<?>) data2;
-        if (isBeginContact) {
-          sensorFixture.beginContact(obs1, fix1);
-        } else {
-          sensorFixture.endContact(obs1, fix1);
-        }
-      }
-    } catch (Exception e) {
-      e.printStackTrace();
+  private void preSolveSlope(Contact contact, Fixture playerFixture, Obstacle player,
+      Fixture slopeFixture, Obstacle slope) {
+    PlayerModel plyr = (PlayerModel) player;
+    // Only add extra force when player is frozen
+    if (plyr.getIsFrozen()) {
+      prepareImpulse((SlopeModel) slope);
+      plyr.getBody().applyLinearImpulse(v2Cache, plyr.getPosition(), true);
     }
   }
 }
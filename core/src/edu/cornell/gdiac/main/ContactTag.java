@@ -0,0 +1,79 @@
+package edu.cornell.gdiac.main;
+
+/**
+ * The contact tags of the game, naming the kinds of fixtures the collision handlers tell apart.
+ *
+ * <p>Obstacles set their tag in their constructor, and sensor fixtures through their user data
+ * (see {@link edu.cornell.gdiac.util.ContactDispatcher}). Anything else is {@link #DEFAULT}.
+ */
+public final class ContactTag {
+
+  /**
+   * Solid terrain and anything else without a tag of its own
+   */
+  public static final int DEFAULT = 0;
+  /**
+   * The solid body of the player
+   */
+  public static final int PLAYER = 1;
+  /**
+   * The ground sensor below the player
+   */
+  public static final int PLAYER_GROUND = 2;
+  /**
+   * The sensor around the body of the player
+   */
+  public static final int PLAYER_BODY = 3;
+  /**
+   * The NPC
+   */
+  public static final int NPC = 4;
+  /**
+   * The exit door
+   */
+  public static final int EXIT = 5;
+  /**
+   * A bounce pad
+   */
+  public static final int BOUNCE = 6;
+  /**
+   * A slope
+   */
+  public static final int SLOPE = 7;
+  /**
+   * A breakable platform
+   */
+  public static final int BREAKABLE = 8;
+  /**
+   * A piece of a broken platform
+   */
+  public static final int DEBRIS = 9;
+  /**
+   * The wind of a fan
+   */
+  public static final int WIND = 10;
+  /**
+   * The sensor inside a pass-through platform
+   */
+  public static final int PASS_THROUGH_BODY = 11;
+  /**
+   * The sensor below a pass-through platform
+   */
+  public static final int PASS_THROUGH_BOTTOM = 12;
+  /**
+   * The number of contact tags
+   */
+  public static final int COUNT = 13;
+
+  /**
+   * The tags of the fixtures the player can stand on
+   */
+  static final int[] GROUND = {DEFAULT, NPC, BOUNCE, SLOPE, BREAKABLE};
+  /**
+   * The tags of the fixtures of the player
+   */
+  static final int[] PLAYER_PARTS = {PLAYER, PLAYER_GROUND, PLAYER_BODY};
+
+  private ContactTag() {
+  }
+}
@@ -0,0 +1,104 @@
+package edu.cornell.gdiac.main;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import edu.cornell.gdiac.physics.obstacle.BoxObstacle;
+import edu.cornell.gdiac.util.CollisionCategory;
+
+/**
+ * A piece of a broken platform.
+ *
+ * <p>Debris is purely cosmetic: it falls and tumbles for a short while and is then removed. The
+ * pieces only collide with terrain (see {@link CollisionCategory#DEBRIS}), and are pooled by the
+ * level, so that breaking many platforms stays cheap.
+ */
+public class DebrisModel extends BoxObstacle {
+
+  /**
+   * The piece of the platform texture drawn by this debris
+   */
+  private final TextureRegion piece;
+  /**
+   * The time left before this debris is removed, in seconds
+   */
+  private float lifetime;
+
+  /**
+   * Creates a new piece of debris with degenerate settings
+   */
+  public DebrisModel() {
+    super(0, 0, 1, 1);
+    setContactTag(ContactTag.DEBRIS);
+    piece = new TextureRegion();
+    reset();
+  }
+
+  /**
+   * Resets this debris to its degenerate settings so that it can be reused
+   */
+  @Override
+  public void reset() {
+    super.reset();
+    lifetime = 0;
+    CollisionCategory.DEBRIS.applyTo(this);
+    setName("debris");
+  }
+
+  /**
+   * Returns the time left before this debris is removed, in seconds
+   *
+   * @return the time left before this debris is removed, in seconds
+   */
+  public float getLifetime() {
+    return lifetime;
+  }
+
+  /**
+   * Sets the time left before this debris is removed, in seconds
+   *
+   * @param value the time left before this debris is removed, in seconds
+   */
+  public void setLifetime(float value) {
+    lifetime = value;
+  }
+
+  /**
+   * Sets the texture of this debris to a part of the given texture
+   *
+   * @param region the whole texture
+   * @param x      the left of the part, in pixels from the left of the region
+   * @param y      the top of the part, in pixels from the top of the region
+   * @param width  the width of the part, in pixels
+   * @param height the height of the part, in pixels
+   */
+  public void setTexture(TextureRegion region, int x, int y, int width, int height) {
+    piece.setRegion(region, x, y, width, height);
+    setTexture(piece);
+  }
+
+  /**
+   * Ages this debris by one physics step
+   *
+   * @param dt the length of the step, in seconds
+   * @return true if this debris has expired and should be removed
+   */
+  public boolean age(float dt) {
+    lifetime -= dt;
+    return lifetime <= 0;
+  }
+
+  /**
+   * Draws the debris, stretching its piece of texture over its body
+   *
+   * @param canvas Drawing context
+   */
+  @Override
+  public void draw(GameCanvas canvas) {
+    if (texture != null && texture.getRegionWidth() > 0 && texture.getRegionHeight() > 0) {
+      canvas.draw(texture, Color.WHITE, origin.x, origin.y, getDrawX() * drawScale.x,
+          getDrawY() * drawScale.y, getDrawAngle(),
+          getWidth() * drawScale.x / texture.getRegionWidth(),
+          getHeight() * drawScale.y / texture.getRegionHeight());
+    }
+  }
+}
@@ -1,6 +1,6 @@
 package edu.cornell.gdiac.main;
 
-import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.PolygonRegion;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
@@ -8,7 +8,7 @@ import com.badlogic.gdx.physics.box2d.BodyDef.BodyType;
 import edu.cornell.gdiac.assets.AssetDirectory;
 import edu.cornell.gdiac.physics.obstacle.BoxObstacle;
 
-public class DecorationModel extends BoxObstacle {
+public class DecorationModel extends BoxObstacle implements StaticTile {
 
   /**
    * Texture information for this object
@@ -29,6 +29,15 @@ public class DecorationModel extends BoxObstacle {
     region = null;
   }
 
+  /**
+   * Resets this DecorationModel to its degenerate settings so that it can be reused
+   */
+  @Override
+  public void reset() {
+    super.reset();
+    region = null;
+  }
+
   /**
    * Reset the polygon vertices in the shape to match the dimension.
    */
@@ -127,7 +136,8 @@ public class DecorationModel extends BoxObstacle {
     setPosition(x * (1 / drawScale.x), y * (1 / drawScale.y));
     setDimension(tileSize * ((float) 1 / drawScale.x), tileSize * ((float) 1 / (drawScale.y)));
     setBodyType(BodyType.StaticBody);
-    TextureRegion textureRegion = new TextureRegion(directory.getEntry(tilekey, Texture.class));
+    TextureRegion textureRegion = new TextureRegion(
+        directory.getEntry(tilekey, TextureRegion.class));
     setTexture(textureRegion);
   }
 
@@ -149,10 +159,27 @@ public class DecorationModel extends BoxObstacle {
     }
     System.out.println("region initiated");
     short[] tris = {0, 1, 3, 3, 2, 1};
-    anchor = new Vector2(getX(), getY());
+    if (anchor == null) {
+      anchor = new Vector2();
+    }
+    anchor.set(getX(), getY());
     region = new PolygonRegion(texture, scaled, tris);
   }
 
+  /**
+   * Adds the texture of this decoration to a tile cache, covering the decoration
+   *
+   * @param cache the tile cache being built
+   */
+  @Override
+  public void cache(TileCache cache) {
+    if (texture != null) {
+      cache.add(texture, Color.WHITE, (getX() - getWidth() / 2) * drawScale.x,
+          (getY() - getHeight() / 2) * drawScale.y, getWidth() * drawScale.x,
+          getHeight() * drawScale.y);
+    }
+  }
+
   /**
    * Draws the decoration to the canvas.
    *
@@ -162,7 +189,7 @@ public class DecorationModel extends BoxObstacle {
     // draw must be offset by 8 both ways, not really sure why right now
     if (texture != null) {
       canvas.draw(
-          texture, (getX()) * drawScale.x - 8, (getY() * drawScale.y) - 8);
+          texture, (getDrawX()) * drawScale.x - 8, (getDrawY() * drawScale.y) - 8);
     }
   }
 }
@@ -0,0 +1,102 @@
+package edu.cornell.gdiac.main;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import edu.cornell.gdiac.physics.obstacle.Obstacle;
+import edu.cornell.gdiac.util.Registry;
+
+/**
+ * Applies air resistance to the moving objects of a level.
+ *
+ * <p>Only dynamic bodies are tracked, as nothing else can be pushed by a force. Of those, bodies
+ * that are asleep or barely moving are skipped, and the drag never wakes a body up, so that a
+ * level at rest costs next to nothing per step and its bodies can fall asleep.
+ *
+ * <p>The drag on each axis is opposite to the velocity and proportional to its square. The drag
+ * coefficient is the level air resistance, unless the object sets its own (see
+ * {@link Obstacle#getDragCoefficient}).
+ */
+public class DragSystem {
+
+  /**
+   * The speed below which a body gets no drag, in physics units per second
+   */
+  public static final float MIN_SPEED = 0.01f;
+
+  /**
+   * The dynamic objects of the level
+   */
+  private final Registry<Obstacle> objects;
+  /**
+   * The drag coefficient of objects that do not set their own
+   */
+  private float coefficient;
+  /**
+   * Cache for the force applied to each body
+   */
+  private final Vector2 forceCache = new Vector2();
+
+  /**
+   * Creates a drag system for the given objects
+   *
+   * @param objects the dynamic objects of the level, kept up to date by the level
+   */
+  public DragSystem(Registry<Obstacle> objects) {
+    this.objects = objects;
+  }
+
+  /**
+   * Returns the drag coefficient of objects that do not set their own
+   *
+   * @return the drag coefficient of objects that do not set their own
+   */
+  public float getCoefficient() {
+    return coefficient;
+  }
+
+  /**
+   * Sets the drag coefficient of objects that do not set their own
+   *
+   * @param value the drag coefficient of objects that do not set their own
+   */
+  public void setCoefficient(float value) {
+    coefficient = value;
+  }
+
+  /**
+   * Returns the number of objects drag is applied to
+   *
+   * @return the number of objects drag is applied to
+   */
+  public int size() {
+    return objects.size();
+  }
+
+  /**
+   * Applies drag to every awake and moving object, for the next physics step
+   */
+  public void apply() {
+    for (int ii = 0; ii < objects.size(); ii++) {
+      Obstacle obj = objects.get(ii);
+      Body body = obj.getBody();
+      if (body == null || !body.isAwake()) {
+        continue;
+      }
+      Vector2 velocity = body.getLinearVelocity();
+      float velX = velocity.x;
+      float velY = velocity.y;
+      if (velX * velX + velY * velY < MIN_SPEED * MIN_SPEED) {
+        continue;
+      }
+
+      float drag = obj.getDragCoefficient();
+      if (Float.isNaN(drag)) {
+        drag = coefficient;
+      }
+      // Apply air resistance force opposite of velocity
+      forceCache.set(-Math.signum(velX) * drag * velX * velX,
+          -Math.signum(velY) * drag * velY * velY);
+      body.applyForceToCenter(forceCache, false);
+    }
+  }
+}
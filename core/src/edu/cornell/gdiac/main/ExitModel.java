@@ -11,6 +11,7 @@
 package edu.cornell.gdiac.main;
 
 import edu.cornell.gdiac.physics.obstacle.BoxObstacle;
+import edu.cornell.gdiac.util.CollisionCategory;
 
 /**
  * A sensor obstacle representing the end of the level
@@ -25,6 +26,8 @@ public class ExitModel extends BoxObstacle {
    */
   public ExitModel() {
     super(0, 0, 1, 1);
+    setContactTag(ContactTag.EXIT);
+    CollisionCategory.SENSOR.applyTo(this);
     setSensor(true);
   }
 }
@@ -1,26 +1,56 @@
 package edu.cornell.gdiac.main;
 
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.physics.box2d.BodyDef;
 import com.badlogic.gdx.physics.box2d.Fixture;
 import com.badlogic.gdx.physics.box2d.FixtureDef;
+import com.badlogic.gdx.utils.FloatArray;
 import com.badlogic.gdx.utils.JsonValue;
-import edu.cornell.gdiac.assets.AssetDirectory;
-import edu.cornell.gdiac.main.WindModel.WindParticleModel;
 import edu.cornell.gdiac.main.WindModel.WindSide;
 import edu.cornell.gdiac.main.WindModel.WindType;
 import edu.cornell.gdiac.util.MathUtil;
-import java.lang.reflect.Field;
+import edu.cornell.gdiac.util.PropertyBinder;
+import edu.cornell.gdiac.util.TiledJsonParser;
 
 /**
  * Contains simple state for whether the fan is applying wind force. Creates and owns ephemeral wind
  * models to be created when the fan is on.
+ *
+ * <p>The wind of a fan is a single sensor fixture of its body (see {@link WindModel}).
  */
 public class FanModel extends PlatformModel {
 
+  /**
+   * The Tiled properties of a fan
+   */
+  public static final PropertyBinder<FanModel> PROPERTIES =
+      new PropertyBinder<FanModel>(TiledJsonParser.OBSTACLE_PROPERTIES)
+          .bindString("DebugColor",
+              (fan, value) -> fan.setDebugColor(TiledJsonParser.getColor(value)))
+          .bindInt("DebugOpacity", (fan, value) -> {
+            if (fan.debugColor != null) {
+              fan.setDebugColor(fan.debugColor.mul(value / 255.0f));
+            }
+          })
+          .bindString("Type", (fan, value) -> fan.windType = parseWindType(value))
+          .bindString("Falloff", (fan, value) -> fan.windFalloff = parseFalloff(value))
+          .bindString("Side", (fan, value) -> fan.fanSide =
+              value.toUpperCase().equals("LEFT") ? WindSide.LEFT : WindSide.RIGHT)
+          .bindFloat("WindStrength", (fan, value) -> fan.windStrength = value)
+          .bindFloat("WindBreadth", (fan, value) -> fan.windBreadth = value / fan.drawScale.x)
+          .bindFloat("WindLength", (fan, value) -> fan.windLength = value / fan.drawScale.y)
+          .bindFloat("Period", (fan, value) -> fan.period = value)
+          .bindFloat("PeriodOnRatio", (fan, value) -> fan.periodOnRatio = value)
+          .bindBoolean("Active", (fan, value) -> fan.isFanActive = value)
+          .bind("FanTexture", (fan, value, directory) -> fan.setTexture(
+              new TextureRegion(directory.getEntry(value.asString(), Texture.class))))
+          .bind("WindTexture", (fan, value, directory) -> fan.windTexture =
+              new TextureRegion(directory.getEntry(value.asString(), Texture.class)))
+          .fixed("DebugColor", "DebugOpacity");
+
   final private float DEFAULT_PERIOD = 10.0f;
   final private float DEFAULT_PERIOD_ON_RATIO = 1.0f;
   final private float DEFAULT_CURR_TIME = 0.0f;
@@ -48,7 +78,15 @@ public class FanModel extends PlatformModel {
    */
   private WindModel wind;
   private Fixture windFixture;
-  private Fixture[] windParticleFixtures;
+
+  // Wind settings read from Tiled, passed on to the wind model once all properties are set
+  private WindType windType;
+  private TextureRegion windTexture;
+  /**
+   * A custom falloff curve for the wind, or null to use the one of the wind type
+   */
+  private float[] windFalloff;
+  private float windStrength = -1, windBreadth = -1, windLength = -1;
 
   public FanModel() {
     // Degenerate settings
@@ -59,15 +97,76 @@ public class FanModel extends PlatformModel {
   }
 
   /**
-   * Initializes the fan platform via the given JSON value
+   * Resets this fan to its degenerate settings so that it can be reused. The wind model is kept,
+   * and reuses its shapes when the fan is initialized again.
+   */
+  @Override
+  public void reset() {
+    super.reset();
+    period = DEFAULT_PERIOD;
+    periodOnRatio = DEFAULT_PERIOD_ON_RATIO;
+    currentTime = DEFAULT_CURR_TIME;
+    fanRotation = DEFAULT_ROTATION;
+    isFanActive = false;
+    fanSide = null;
+    windFixture = null;
+    windType = null;
+    windFalloff = null;
+    windTexture = null;
+    windStrength = windBreadth = windLength = -1;
+    wind.turnWindOn(false);
+    wind.clearOverlaps();
+  }
+
+  /**
+   * Returns the wind type named by a Tiled property
+   */
+  private static WindType parseWindType(String name) {
+    switch (name.toUpperCase()) {
+      case "EXPONENTIAL":
+        return WindType.Exponential;
+      case "CONSTANT":
+        return WindType.Constant;
+      default:
+        return WindType.Default;
+    }
+  }
+
+  /**
+   * Returns the falloff curve given by a Tiled property.
+   *
+   * <p>The curve is a comma-separated list of wind strengths, as a ratio of the strength at the
+   * fan, spread evenly from the fan to the end of the wind. For example, "1, 1, 0" blows at full
+   * strength over the first half of the wind, then weakens to nothing at its end. Blank entries
+   * (such as after a trailing comma) are skipped, and entries that are not numbers are reported
+   * and skipped. A list with no strengths left keeps the falloff of the wind type.
+   */
+  private static float[] parseFalloff(String value) {
+    FloatArray curve = new FloatArray();
+    for (String entry : value.split(",")) {
+      entry = entry.trim();
+      if (entry.isEmpty()) {
+        continue;
+      }
+      try {
+        curve.add(Float.parseFloat(entry));
+      } catch (NumberFormatException e) {
+        Gdx.app.error("FanModel", "Skipping falloff value " + entry + " in " + value, e);
+      }
+    }
+    return curve.size == 0 ? null : curve.toArray();
+  }
+
+  /**
+   * Places the fan platform at the position of the given Tiled object
    *
    * <p>The JSON value has been parsed and is part of a bigger level file. However, this JSON value
    * is limited to the platform subtree
    *
-   * @param directory the asset manager
-   * @param json      the JSON subtree defining the platform
+   * @param json   the JSON subtree defining the platform
+   * @param gSizeY the height of the level in pixels
    */
-  public void initialize(AssetDirectory directory, JsonValue json, int gSizeY) {
+  public void place(JsonValue json, int gSizeY) {
     setName(json.getString("name"));
 
     float scaleFactorX = 1 / drawScale.x;
@@ -98,111 +197,14 @@ public class FanModel extends PlatformModel {
     Vector2 center = new Vector2();
     MathUtil.rotateAroundPivot(topLeft, center0, center, fanRotation);
     setPosition(center);
+  }
 
-    // Wind wrapper fields
+  /**
+   * Configures the wind of this fan, once the fan is placed and its properties are set (see
+   * {@link #PROPERTIES})
+   */
+  public void initWind() {
     Vector2 windSource = getPosition();
-    WindType windType = null;
-    TextureRegion windTexture = null;
-    TextureRegion windParticleTexture = null;
-    float windStrength = -1, windBreadth = -1, windLength = -1;
-    int numWindParticles = -1, windLengthParticleGrids = -1, windBreadthParticleGrids = -1;
-
-    JsonValue properties = json.get("properties").child();
-    while (properties != null) {
-      switch (properties.getString("name")) {
-        case "BodyType":
-          setBodyType(properties.getString("value").equals("static") ? BodyDef.BodyType.StaticBody
-              : BodyDef.BodyType.DynamicBody);
-          break;
-        case "DebugColor":
-          try {
-            String cname = properties.getString("value").toUpperCase();
-            Field field = Class.forName("com.badlogic.gdx.graphics.Color").getField(cname);
-            debugColor = new Color((Color) field.get(null));
-          } catch (Exception e) {
-            debugColor = null; // Not defined
-          }
-          break;
-        case "Type":
-          String type = properties.getString("value").toUpperCase();
-          switch (type) {
-            case "EXPONENTIAL":
-              windType = WindType.Exponential;
-              break;
-            case "CONSTANT":
-              windType = WindType.Constant;
-              break;
-            default:
-              windType = WindType.Default;
-              break;
-          }
-          break;
-        case "Side":
-          // Determine fan side and wind origin, default is to use center of side
-          String side = properties.getString("value").toUpperCase();
-          switch (side) {
-            case "LEFT":
-              fanSide = WindSide.LEFT;
-              break;
-            default:
-              fanSide = WindSide.RIGHT;
-              break;
-          }
-          break;
-        case "WindStrength":
-          windStrength = properties.getFloat("value");
-          break;
-        case "WindBreadth":
-          windBreadth = properties.getFloat("value") * scaleFactorX;
-          break;
-        case "WindLength":
-          windLength = properties.getFloat("value") * scaleFactorY;
-          break;
-        case "NumWindParticles":
-          numWindParticles = properties.getInt("value");
-          assert numWindParticles >= 0;
-          windParticleFixtures = new Fixture[numWindParticles];
-          break;
-        case "WindLengthParticleGrids":
-          windLengthParticleGrids = properties.getInt("value");
-          break;
-        case "WindBreadthParticleGrids":
-          windBreadthParticleGrids = properties.getInt("value");
-          break;
-        case "Period":
-          period = properties.getFloat("value");
-          break;
-        case "PeriodOnRatio":
-          periodOnRatio = properties.getFloat("value");
-          break;
-        case "Active":
-          isFanActive = properties.getBoolean("value");
-          break;
-        case "DebugOpacity":
-          int opacity = properties.getInt("value");
-          setDebugColor(debugColor.mul(opacity / 255.0f));
-          break;
-        case "FanTexture":
-          String key = properties.getString("value");
-          TextureRegion texture = new TextureRegion(directory.getEntry(key, Texture.class));
-          setTexture(texture);
-          break;
-        case "WindTexture":
-          key = properties.getString("value");
-          windTexture = new TextureRegion(directory.getEntry(key, Texture.class));
-          break;
-        case "WindParticleTexture":
-          key = properties.getString("value");
-          windParticleTexture = new TextureRegion(directory.getEntry(key, Texture.class));
-          break;
-        default:
-          break;
-      }
-
-      properties = properties.next();
-    }
-
-    // Configure shape and configure wind fixture
     wind.initialize(
         windSource.x,
         windSource.y,
@@ -210,13 +212,10 @@ public class FanModel extends PlatformModel {
         windLength,
         windStrength,
         fanRotation,
-        numWindParticles,
-        windLengthParticleGrids,
-        windBreadthParticleGrids,
         fanSide,
         windType,
+        windFalloff,
         windTexture,
-        windParticleTexture,
         drawScale
     );
   }
@@ -236,21 +235,6 @@ public class FanModel extends PlatformModel {
       // Sets the user data to instance of Wind
       windFixture.setUserData(wind);
     }
-
-    WindParticleModel[] windParticles = wind.getWindParticles();
-    if (windParticles == null) {
-      return;
-    }
-    assert windParticleFixtures != null;
-    for (int i = 0; i < windParticles.length; i++) {
-      WindParticleModel particle = windParticles[i];
-
-      assert particle != null;
-
-      Fixture windParticleFixture = body.createFixture(particle.getFixtureDef());
-      windParticleFixture.setUserData(particle);
-      windParticleFixtures[i] = windParticleFixture;
-    }
   }
 
   @Override
@@ -264,15 +248,9 @@ public class FanModel extends PlatformModel {
     // Destroy fixture
     if (windFixture != null) {
       body.destroyFixture(windFixture);
+      windFixture = null;
     }
-
-    if (windParticleFixtures != null) {
-      for (Fixture windParticleFixture : windParticleFixtures) {
-        if (windParticleFixture != null) {
-          body.destroyFixture(windParticleFixture);
-        }
-      }
-    }
+    wind.clearOverlaps();
   }
 
   /**
@@ -293,6 +271,15 @@ public class FanModel extends PlatformModel {
     }
   }
 
+  /**
+   * Returns the wind of this fan
+   *
+   * @return the wind of this fan
+   */
+  public WindModel getWind() {
+    return wind;
+  }
+
   /**
    * Updates the internal timer of fan model to keep track with the global game loop time
    *
@@ -320,8 +307,8 @@ public class FanModel extends PlatformModel {
     canvas.draw(
         region,
         Color.BLUE,
-        getX() * drawScale.x,
-        getY() * drawScale.y,
+        getDrawX() * drawScale.x,
+        getDrawY() * drawScale.y,
         0,
         0,
         fanRotation,
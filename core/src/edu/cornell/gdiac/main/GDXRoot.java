@@ -48,11 +48,26 @@ public class GDXRoot extends Game implements ScreenListener {
    * Player mode for the the game proper (CONTROLLER CLASS)
    */
   private GameController controller;
+  /**
+   * Whether the level is drawn at the resolution of its art (see
+   * {@link GameCanvas#setPixelScaling})
+   */
+  private final boolean pixelScaling;
 
   /**
    * Creates a new game from the configuration settings.
    */
   public GDXRoot() {
+    this(false);
+  }
+
+  /**
+   * Creates a new game from the configuration settings.
+   *
+   * @param pixelScaling whether the level is drawn at the resolution of its art and scaled up
+   */
+  public GDXRoot(boolean pixelScaling) {
+    this.pixelScaling = pixelScaling;
   }
 
   /**
@@ -63,6 +78,7 @@ public class GDXRoot extends Game implements ScreenListener {
    */
   public void create() {
     canvas = new GameCanvas();
+    canvas.setPixelScaling(pixelScaling);
     loading = new LoadingMode("jsons/assets.json", canvas, 1);
 
     // Initialize the three game worlds
@@ -21,18 +21,25 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.Texture.TextureFilter;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.GlyphLayout;
 import com.badlogic.gdx.graphics.g2d.PolygonRegion;
 import com.badlogic.gdx.graphics.g2d.PolygonSpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.Affine2;
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.ChainShape;
 import com.badlogic.gdx.physics.box2d.CircleShape;
 import com.badlogic.gdx.physics.box2d.PolygonShape;
+import com.badlogic.gdx.utils.FloatArray;
 
 /**
  * Primary view class for the game, abstracting the basic graphics calls.
@@ -90,9 +97,64 @@ public class GameCanvas {
    * Cache object to handle raw textures
    */
   private TextureRegion holder;
+  /**
+   * Cache object for the visible rectangle passed to tile caches
+   */
+  private Rectangle visible;
 
   private boolean levelOn = false;
 
+  /**
+   * Whether the level is drawn at the resolution of its art and then scaled up to the screen
+   */
+  private boolean pixelScaling;
+  /**
+   * The offscreen target the level is drawn into when pixel scaling, or null if none is needed
+   */
+  private FrameBuffer target;
+  /**
+   * The color texture of the offscreen target, flipped to be drawn upright
+   */
+  private TextureRegion targetRegion;
+  /**
+   * Whether the level is being drawn into the offscreen target
+   */
+  private boolean drawingWorld;
+  /**
+   * Projection for drawing in screen pixels
+   */
+  private Matrix4 screen;
+
+  /**
+   * The sprites of the current sorted pass (see {@link #beginSorted()})
+   */
+  private RenderQueue queue;
+  /**
+   * Whether the current pass is sorted, so that sprites are recorded rather than drawn
+   */
+  private boolean sorted;
+  /**
+   * The layer of the sprites drawn in the current sorted pass
+   */
+  private int layer;
+  /**
+   * The number of times the sprite batch flushed in the last sorted pass
+   */
+  private int flushes;
+  /**
+   * The number of batches the last sorted pass would have taken unsorted
+   */
+  private int unsortedFlushes;
+  /**
+   * Whether sorted passes count the batches they would have taken unsorted
+   */
+  private boolean countingUnsorted;
+  /**
+   * Cache objects for the transformed corners of a quad and vertices of a polygon
+   */
+  private float[] corners;
+  private FloatArray points;
+
   /**
    * Creates a new GameCanvas determined by the application configuration.
    * <p>
@@ -117,6 +179,11 @@ public class GameCanvas {
 
     // Initialize the cache objects
     holder = new TextureRegion();
+    visible = new Rectangle();
+    screen = new Matrix4();
+    queue = new RenderQueue();
+    corners = new float[8];
+    points = new FloatArray();
     local = new Affine2();
     global = new Matrix4();
     vertex = new Vector2();
@@ -128,6 +195,22 @@ public class GameCanvas {
     camera.update();
   }
 
+  /**
+   * Returns the rectangle of the level shown by the camera, in pixels
+   * <p>
+   * Nothing drawn outside of this rectangle is seen, so it can be used to skip drawing what is off
+   * screen.
+   *
+   * @param result the rectangle to store the visible area in
+   * @return the result rectangle, for chaining
+   */
+  public Rectangle getVisibleBounds(Rectangle result) {
+    float width = camera.viewportWidth * camera.zoom;
+    float height = camera.viewportHeight * camera.zoom;
+    return result.set(camera.position.x - width / 2, camera.position.y - height / 2, width,
+        height);
+  }
+
   /**
    * Eliminate any resources that should be garbage collected manually.
    */
@@ -139,6 +222,11 @@ public class GameCanvas {
     }
     spriteBatch.dispose();
     spriteBatch = null;
+    if (target != null) {
+      target.dispose();
+      target = null;
+      targetRegion = null;
+    }
     local = null;
     global = null;
     vertex = null;
@@ -287,6 +375,114 @@ public class GameCanvas {
     spriteBatch.getProjectionMatrix().setToOrtho2D(0, 0, getWidth(), getHeight());
   }
 
+  /**
+   * Returns whether the level is drawn at the resolution of its art and scaled up to the screen
+   *
+   * @return whether the level is drawn at the resolution of its art
+   */
+  public boolean isPixelScaling() {
+    return pixelScaling;
+  }
+
+  /**
+   * Sets whether the level is drawn at the resolution of its art and scaled up to the screen
+   * <p>
+   * When pixel scaling, everything drawn between {@link #beginWorld()} and {@link #endWorld()} is
+   * drawn into an offscreen target with one pixel per pixel of the level art, and then scaled up
+   * to the screen by the largest whole factor that fits, without filtering. This keeps the pixel
+   * art crisp, and the cost of drawing the level no longer grows with the size of the window.
+   * What is drawn after, like the HUD, is still drawn at the resolution of the screen.
+   * <p>
+   * This method raises an IllegalStateException if called while drawing is active (e.g. in-between
+   * a begin-end pair).
+   *
+   * @param value whether the level is drawn at the resolution of its art
+   */
+  public void setPixelScaling(boolean value) {
+    if (active != DrawPass.INACTIVE || drawingWorld) {
+      Gdx.app.error("GameCanvas", "Cannot alter property while drawing active",
+          new IllegalStateException());
+      return;
+    }
+    pixelScaling = value;
+    if (!value && target != null) {
+      target.dispose();
+      target = null;
+      targetRegion = null;
+    }
+  }
+
+  /**
+   * Starts drawing the level.
+   * <p>
+   * If pixel scaling (see {@link #setPixelScaling}), everything up to {@link #endWorld()} is
+   * drawn into an offscreen target the size of the area seen by the camera. Otherwise this does
+   * nothing, and the level is drawn straight to the screen.
+   */
+  public void beginWorld() {
+    if (active != DrawPass.INACTIVE || drawingWorld) {
+      Gdx.app.error("GameCanvas", "Cannot begin the level while drawing active",
+          new IllegalStateException());
+      return;
+    }
+    if (!pixelScaling) {
+      return;
+    }
+    getVisibleBounds(visible);
+    int width = Math.max(MathUtils.ceil(visible.width), 1);
+    int height = Math.max(MathUtils.ceil(visible.height), 1);
+    if (target == null || target.getWidth() != width || target.getHeight() != height) {
+      if (target != null) {
+        target.dispose();
+      }
+      target = new FrameBuffer(Pixmap.Format.RGBA8888, width, height, false);
+      Texture texture = target.getColorBufferTexture();
+      texture.setFilter(TextureFilter.Nearest, TextureFilter.Nearest);
+      targetRegion = new TextureRegion(texture);
+      targetRegion.flip(false, true);
+    }
+    target.begin();
+    drawingWorld = true;
+  }
+
+  /**
+   * Stops drawing the level.
+   * <p>
+   * If pixel scaling, the offscreen target is scaled up to the screen by the largest whole factor
+   * that fits, and centered with black bars around it. If the screen is smaller than the target,
+   * it is scaled down to fit instead.
+   */
+  public void endWorld() {
+    if (active != DrawPass.INACTIVE) {
+      Gdx.app.error("GameCanvas", "Cannot end the level while drawing active",
+          new IllegalStateException());
+      return;
+    }
+    if (!drawingWorld) {
+      return;
+    }
+    target.end();
+    drawingWorld = false;
+
+    int width = getWidth();
+    int height = getHeight();
+    float scale = Math.min(width / target.getWidth(), height / target.getHeight());
+    if (scale < 1) {
+      scale = Math.min((float) width / target.getWidth(), (float) height / target.getHeight());
+    }
+    float w = target.getWidth() * scale;
+    float h = target.getHeight() * scale;
+
+    Gdx.gl.glClearColor(0, 0, 0, 1);
+    Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+    spriteBatch.setProjectionMatrix(screen.setToOrtho2D(0, 0, width, height));
+    setBlendState(BlendState.OPAQUE);
+    spriteBatch.begin();
+    spriteBatch.draw(targetRegion, (int) ((width - w) / 2), (int) ((height - h) / 2), w, h);
+    spriteBatch.end();
+    setBlendState(BlendState.NO_PREMULT);
+  }
+
   /**
    * Returns the current color blending state for this canvas.
    * <p>
@@ -383,14 +579,103 @@ public class GameCanvas {
     active = DrawPass.STANDARD;
   }
 
+  /**
+   * Start a sorted drawing sequence.
+   * <p>
+   * The sprites are recorded rather than drawn, along with the layer set by {@link #setLayer} and
+   * the blend state. When the method end() is called, they are sorted by layer, then blend state,
+   * then texture (see {@link RenderQueue}), so that the sprite batch flushes as rarely as
+   * possible. Sprites of a lower layer are always drawn first, but sprites of the same layer with
+   * different textures may be drawn in any order. Text cannot be drawn in a sorted sequence.
+   */
+  public void beginSorted() {
+    spriteBatch.setProjectionMatrix(camera.combined);
+    sorted = true;
+    layer = 0;
+    active = DrawPass.STANDARD;
+  }
+
+  /**
+   * Sets the layer of the sprites drawn next in a sorted drawing sequence
+   * <p>
+   * Layers are drawn from the lowest to the highest. This has no effect outside of a sorted
+   * sequence.
+   *
+   * @param layer the layer, from 0 to {@link RenderQueue#MAX_LAYER}
+   */
+  public void setLayer(int layer) {
+    this.layer = layer;
+  }
+
+  /**
+   * Returns the number of times the sprite batch flushed in the last sorted drawing sequence
+   *
+   * @return the number of flushes of the last sorted drawing sequence
+   */
+  public int getFlushCount() {
+    return flushes;
+  }
+
+  /**
+   * Returns the number of flushes the last sorted drawing sequence would have taken unsorted
+   * <p>
+   * This is only counted while {@link #setCountingUnsorted counting} is on, and is 0 otherwise.
+   *
+   * @return the number of flushes of the last sorted drawing sequence, had it not been sorted
+   */
+  public int getUnsortedFlushCount() {
+    return unsortedFlushes;
+  }
+
+  /**
+   * Sets whether sorted drawing sequences count the flushes they would have taken unsorted
+   * <p>
+   * Counting them walks the whole sequence a second time, so it is off unless something (like
+   * the debug overlay) shows the count.
+   *
+   * @param value whether to count the flushes of sorted sequences had they not been sorted
+   */
+  public void setCountingUnsorted(boolean value) {
+    countingUnsorted = value;
+  }
+
   /**
    * Ends a drawing sequence, flushing textures to the graphics card.
    */
   public void end() {
-    spriteBatch.end();
+    if (sorted) {
+      unsortedFlushes = countingUnsorted ? queue.countUnsortedBatches() : 0;
+      spriteBatch.begin();
+      queue.flush(spriteBatch, this);
+      spriteBatch.end();
+      flushes = spriteBatch.renderCalls;
+      sorted = false;
+    } else {
+      spriteBatch.end();
+    }
     active = DrawPass.INACTIVE;
   }
 
+  /**
+   * Draws the tiles of a tile cache.
+   * <p>
+   * The tiles are already on the graphics card, so this must be called outside of a begin-end
+   * pair. They are blended as with {@link BlendState#NO_PREMULT}. Only the chunks of the cache
+   * seen by the camera are drawn.
+   *
+   * @param cache the tiles to draw
+   */
+  public void drawCache(TileCache cache) {
+    if (active != DrawPass.INACTIVE) {
+      Gdx.app.error("GameCanvas", "Cannot draw a tile cache while drawing active",
+          new IllegalStateException());
+      return;
+    }
+    Gdx.gl.glEnable(GL20.GL_BLEND);
+    Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+    cache.draw(camera.combined, getVisibleBounds(visible));
+  }
+
   /**
    * Draws the tinted texture at the given position.
    * <p>
@@ -412,6 +697,12 @@ public class GameCanvas {
       return;
     }
 
+    if (sorted) {
+      holder.setRegion(image);
+      queue(holder, Color.WHITE, local.setToTranslation(x, y), image.getWidth(), image.getHeight());
+      return;
+    }
+
     // Unlike Lab 1, we can shortcut without a master drawing method
     spriteBatch.setColor(Color.WHITE);
     spriteBatch.draw(image, x, y);
@@ -440,6 +731,12 @@ public class GameCanvas {
       return;
     }
 
+    if (sorted) {
+      holder.setRegion(image);
+      queue(holder, tint, local.setToTranslation(x, y), width, height);
+      return;
+    }
+
     // Unlike Lab 1, we can shortcut without a master drawing method
     spriteBatch.setColor(tint);
     spriteBatch.draw(image, x, y, width, height);
@@ -565,6 +862,12 @@ public class GameCanvas {
       return;
     }
 
+    if (sorted) {
+      queue(region, Color.WHITE, local.setToTranslation(x, y), region.getRegionWidth(),
+          region.getRegionHeight());
+      return;
+    }
+
     // Unlike Lab 1, we can shortcut without a master drawing method
     spriteBatch.setColor(Color.WHITE);
     spriteBatch.draw(region, x, y);
@@ -593,6 +896,11 @@ public class GameCanvas {
       return;
     }
 
+    if (sorted) {
+      queue(region, tint, local.setToTranslation(x, y), width, height);
+      return;
+    }
+
     // Unlike Lab 1, we can shortcut without a master drawing method
     spriteBatch.setColor(tint);
     spriteBatch.draw(region, x, y, width, height);
@@ -624,6 +932,11 @@ public class GameCanvas {
       return;
     }
 
+    if (sorted) {
+      queue(region, tint, local.setToTranslation(x - ox, y - oy), width, height);
+      return;
+    }
+
     // Unlike Lab 1, we can shortcut without a master drawing method
     spriteBatch.setColor(tint);
     spriteBatch.draw(region, x - ox, y - oy, width, height);
@@ -666,6 +979,10 @@ public class GameCanvas {
     // There is a workaround, but it will break if the bug is fixed.
     // For now, it is better to set the affine transform directly.
     computeTransform(ox, oy, x, y, angle, sx, sy);
+    if (sorted) {
+      queue(region, tint, local, region.getRegionWidth(), region.getRegionHeight());
+      return;
+    }
     spriteBatch.setColor(tint);
     spriteBatch.draw(region, region.getRegionWidth(), region.getRegionHeight(), local);
   }
@@ -697,6 +1014,10 @@ public class GameCanvas {
 
     local.set(affine);
     local.translate(-ox, -oy);
+    if (sorted) {
+      queue(region, tint, local, region.getRegionWidth(), region.getRegionHeight());
+      return;
+    }
     spriteBatch.setColor(tint);
     spriteBatch.draw(region, region.getRegionWidth(), region.getRegionHeight(), local);
   }
@@ -728,6 +1049,11 @@ public class GameCanvas {
       return;
     }
 
+    if (sorted) {
+      queue(region, Color.WHITE, local.setToTranslation(x, y), 1, 1);
+      return;
+    }
+
     // Unlike Lab 1, we can shortcut without a master drawing method
     spriteBatch.setColor(Color.WHITE);
     spriteBatch.draw(region, x, y);
@@ -762,6 +1088,13 @@ public class GameCanvas {
       return;
     }
 
+    if (sorted) {
+      TextureRegion bounds = region.getRegion();
+      queue(region, tint, local.setToTranslation(x, y), width / bounds.getRegionWidth(),
+          height / bounds.getRegionHeight());
+      return;
+    }
+
     // Unlike Lab 1, we can shortcut without a master drawing method
     spriteBatch.setColor(tint);
     spriteBatch.draw(region, x, y, width, height);
@@ -799,6 +1132,13 @@ public class GameCanvas {
       return;
     }
 
+    if (sorted) {
+      TextureRegion bounds = region.getRegion();
+      queue(region, tint, local.setToTranslation(x - ox, y - oy),
+          width / bounds.getRegionWidth(), height / bounds.getRegionHeight());
+      return;
+    }
+
     // Unlike Lab 1, we can shortcut without a master drawing method
     spriteBatch.setColor(tint);
     spriteBatch.draw(region, x - ox, y - oy, width, height);
@@ -837,6 +1177,16 @@ public class GameCanvas {
       return;
     }
 
+    if (sorted) {
+      // The same transform as the sprite batch, rotating and scaling about the origin
+      local.setToTranslation(x + ox, y + oy);
+      local.rotate(180.0f * angle / (float) Math.PI);
+      local.scale(sx, sy);
+      local.translate(-ox, -oy);
+      queue(region, tint, local, 1, 1);
+      return;
+    }
+
     TextureRegion bounds = region.getRegion();
     spriteBatch.setColor(tint);
     spriteBatch.draw(region, x, y, ox, oy,
@@ -874,6 +1224,10 @@ public class GameCanvas {
 
     local.set(affine);
     local.translate(-ox, -oy);
+    if (sorted) {
+      queue(region, tint, local, 1, 1);
+      return;
+    }
     computeVertices(local, region.getVertices());
 
     spriteBatch.setColor(tint);
@@ -884,6 +1238,60 @@ public class GameCanvas {
     computeVertices(local, region.getVertices());
   }
 
+  /**
+   * Records a texture region in the sorted drawing sequence
+   *
+   * @param region    the region to draw
+   * @param tint      the color tint
+   * @param transform the transform of the bottom left corner of the region
+   * @param width     the width of the region before the transform
+   * @param height    the height of the region before the transform
+   */
+  private void queue(TextureRegion region, Color tint, Affine2 transform, float width,
+      float height) {
+    float[] c = corners;
+    c[0] = transform.m02;
+    c[1] = transform.m12;
+    c[2] = transform.m00 * width + transform.m02;
+    c[3] = transform.m10 * width + transform.m12;
+    c[4] = transform.m00 * width + transform.m01 * height + transform.m02;
+    c[5] = transform.m10 * width + transform.m11 * height + transform.m12;
+    c[6] = transform.m01 * height + transform.m02;
+    c[7] = transform.m11 * height + transform.m12;
+    queue.addQuad(region.getTexture(), layer, getQueuedBlendState(), tint.toFloatBits(), c,
+        region.getU(), region.getV(), region.getU2(), region.getV2());
+  }
+
+  /**
+   * Records a polygon region in the sorted drawing sequence
+   *
+   * @param region    the polygon to draw
+   * @param tint      the color tint
+   * @param transform the transform of the polygon vertices, once scaled
+   * @param sx        the scale of the polygon vertices along the x-axis
+   * @param sy        the scale of the polygon vertices along the y-axis
+   */
+  private void queue(PolygonRegion region, Color tint, Affine2 transform, float sx, float sy) {
+    float[] vertices = region.getVertices();
+    float[] result = points.setSize(vertices.length);
+    for (int ii = 0; ii < vertices.length; ii += 2) {
+      float x = vertices[ii] * sx;
+      float y = vertices[ii + 1] * sy;
+      result[ii] = transform.m00 * x + transform.m01 * y + transform.m02;
+      result[ii + 1] = transform.m10 * x + transform.m11 * y + transform.m12;
+    }
+    queue.addPolygon(region.getRegion().getTexture(), layer, getQueuedBlendState(),
+        tint.toFloatBits(), result, region.getTextureCoords(), vertices.length,
+        region.getTriangles());
+  }
+
+  /**
+   * Returns the blend state to record sprites with, which is the default one if none was set
+   */
+  private BlendState getQueuedBlendState() {
+    return blend == null ? BlendState.NO_PREMULT : blend;
+  }
+
   /**
    * Transform the given vertices by the affine transform
    */
@@ -905,7 +1313,7 @@ public class GameCanvas {
    * @param y    The y-coordinate of the lower-left corner
    */
   public void drawText(String text, BitmapFont font, float x, float y) {
-    if (active != DrawPass.STANDARD) {
+    if (active != DrawPass.STANDARD || sorted) {
       Gdx.app.error("GameCanvas", "Cannot draw without active begin()",
           new IllegalStateException());
       return;
@@ -922,7 +1330,7 @@ public class GameCanvas {
    * @param offset The y-value offset from the center of the screen.
    */
   public void drawTextCentered(String text, BitmapFont font, float offset) {
-    if (active != DrawPass.STANDARD) {
+    if (active != DrawPass.STANDARD || sorted) {
       Gdx.app.error("GameCanvas", "Cannot draw without active begin()",
           new IllegalStateException());
       return;
@@ -1170,6 +1578,45 @@ public class GameCanvas {
     debugRender.ellipse(x0 - w, y0 - h, 2 * w, 2 * h, 12);
   }
 
+  /**
+   * Draws the outline of the given chain shape in the specified color
+   *
+   * @param shape The Box2d shape
+   * @param color The outline color
+   * @param x     The x-coordinate of the shape position
+   * @param y     The y-coordinate of the shape position
+   * @param sx    The amount to scale the x-axis
+   * @param sy    The amount to scale the y-axis
+   */
+  public void drawPhysics(ChainShape shape, Color color, float x, float y, float sx, float sy) {
+    if (active != DrawPass.DEBUG) {
+      Gdx.app.error("GameCanvas", "Cannot draw without active beginDebug()",
+          new IllegalStateException());
+      return;
+    }
+
+    float x0, y0, x1, y1;
+    debugRender.setColor(color);
+    for (int ii = 0; ii < shape.getVertexCount() - 1; ii++) {
+      shape.getVertex(ii, vertex);
+      x0 = (x + vertex.x) * sx;
+      y0 = (y + vertex.y) * sy;
+      shape.getVertex(ii + 1, vertex);
+      x1 = (x + vertex.x) * sx;
+      y1 = (y + vertex.y) * sy;
+      debugRender.line(x0, y0, x1, y1);
+    }
+    if (shape.isLooped()) {
+      shape.getVertex(shape.getVertexCount() - 1, vertex);
+      x0 = (x + vertex.x) * sx;
+      y0 = (y + vertex.y) * sy;
+      shape.getVertex(0, vertex);
+      x1 = (x + vertex.x) * sx;
+      y1 = (y + vertex.y) * sy;
+      debugRender.line(x0, y0, x1, y1);
+    }
+  }
+
   /**
    * Compute the affine transform (and store it in local) for this image.
    *
@@ -15,12 +15,13 @@
  */
 package edu.cornell.gdiac.main;
 
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.physics.box2d.Fixture;
-import com.badlogic.gdx.utils.JsonValue;
 import com.badlogic.gdx.utils.ObjectSet;
+import com.badlogic.gdx.utils.TimeUtils;
 import edu.cornell.gdiac.assets.AssetDirectory;
 import edu.cornell.gdiac.audio.SoundEffect;
 import edu.cornell.gdiac.util.ScreenListener;
@@ -44,13 +45,18 @@ public class GameController implements Screen {
    */
   public static final int EXIT_QUIT = 0;
   /**
-   * How many frames after winning/losing do we continue?
+   * How many physics steps after winning/losing do we continue?
    */
   public static final int EXIT_COUNT = 120;
   /**
    * The amount of time for a physics engine step.
    */
   public static final float WORLD_STEP = 1 / 60.0f;
+  /**
+   * The most physics steps to take in a single frame. If the game falls further behind than this
+   * (e.g. after a stall), it slows down rather than spending ever longer frames catching up.
+   */
+  public static final int MAX_SUBSTEPS = 5;
   /**
    * Number of velocity iterations for the constrain solvers
    */
@@ -64,6 +70,10 @@ public class GameController implements Screen {
    * Mute the game for convenience while testing
    */
   private final boolean IS_MUTED = true;
+  /**
+   * Apply edits to the Tiled levels to the running game (run with -Plivereload to turn this on)
+   */
+  private final boolean LIVE_RELOAD = Boolean.getBoolean("deal.livereload");
 
   // THESE ARE CONSTANTS BECAUSE WE NEED THEM BEFORE THE LEVEL IS LOADED
   /**
@@ -87,9 +97,21 @@ public class GameController implements Screen {
    */
   protected ObjectSet<Fixture> sensorFixtures;
   /**
-   * The JSON defining the level model
+   * The time budget for building the level each frame, in nanoseconds
    */
-  private JsonValue levelFormat;
+  public static final long POPULATE_BUDGET = 4000000L;
+  /**
+   * Builds level blueprints in the background
+   */
+  private LevelLoader levelLoader;
+  /**
+   * The blueprint defining the level model
+   */
+  private LevelBlueprint levelFormat;
+  /**
+   * Watches the Tiled levels for edits, or null if live reload is off
+   */
+  private LevelWatcher levelWatcher;
   /**
    * The jump sound.  We only want to play once.
    */
@@ -99,6 +121,10 @@ public class GameController implements Screen {
    * Listener that will update the player mode when we are done
    */
   private ScreenListener listener;
+  /**
+   * Where the player input comes from (the devices, unless set otherwise)
+   */
+  private InputSource input;
   /**
    * Collision controller
    */
@@ -127,6 +153,10 @@ public class GameController implements Screen {
    * Timer of the game
    */
   private float timer;
+  /**
+   * The time not yet simulated, always less than one physics step after an update
+   */
+  private float accumulator;
   private boolean isJumpPressedLastFrame = false;
   private boolean isJumpRelease = false;
   private float jumpTimer = 0f;
@@ -229,18 +259,60 @@ public class GameController implements Screen {
    * Sets the canvas associated with this controller
    * <p>
    * The canvas is shared across all controllers.  Setting this value will compute the drawing scale
-   * from the canvas size.
+   * from the canvas size. Without a canvas, the game runs headless: it is simulated but never
+   * drawn.
    *
-   * @param canvas the canvas associated with this controller
+   * @param canvas the canvas associated with this controller, or null to run headless
    */
   public void setCanvas(GameCanvas canvas) {
     this.canvas = canvas;
   }
 
+  /**
+   * Returns where the player input comes from
+   * <p>
+   * Unless set otherwise, this is the input controller reading the devices, which is only created
+   * the first time it is needed.
+   *
+   * @return where the player input comes from
+   */
+  public InputSource getInputSource() {
+    if (input == null) {
+      input = InputController.getInstance();
+    }
+    return input;
+  }
+
+  /**
+   * Sets where the player input comes from
+   *
+   * @param input where the player input comes from
+   */
+  public void setInputSource(InputSource input) {
+    this.input = input;
+  }
+
+  /**
+   * Returns the level being played
+   *
+   * @return the level being played
+   */
+  public LevelModel getLevel() {
+    return level;
+  }
+
   /**
    * Dispose of all (non-static) resources allocated to this mode.
    */
   public void dispose() {
+    if (levelLoader != null) {
+      levelLoader.dispose();
+      levelLoader = null;
+    }
+    if (levelWatcher != null) {
+      levelWatcher.dispose();
+      levelWatcher = null;
+    }
     level.dispose();
     level = null;
     canvas = null;
@@ -267,25 +339,91 @@ public class GameController implements Screen {
     jumpSound = directory.getEntry("jump", SoundEffect.class);
 
     // This represents the level but does not BUILD it
-    levelFormat = directory.getEntry(levels.get(1), JsonValue.class);
+    if (levelLoader != null) {
+      levelLoader.dispose();
+    }
+    levelLoader = new LevelLoader(directory);
+    if (LIVE_RELOAD && levelWatcher == null) {
+      levelWatcher = new LevelWatcher();
+    }
+    loadLevel(levelNumber);
+  }
+
+  /**
+   * Switches to the level with the given number, and prefetches its neighbours
+   *
+   * <p>The blueprint of the level is normally already built in the background, in which case this
+   * does not block.
+   *
+   * @param number the level number
+   */
+  private void loadLevel(int number) {
+    levelNumber = number;
+    levelFormat = levelLoader.get(levels.get(number));
+    if (number > 0) {
+      levelLoader.prefetch(levels.get(number - 1));
+    }
+    if (number < levels.size() - 1) {
+      levelLoader.prefetch(levels.get(number + 1));
+    }
+  }
+
+  /**
+   * Applies the levels edited since the last frame
+   *
+   * <p>The current level is patched in place when possible, so that the player keeps playing
+   * where they were. Other levels just have their blueprint replaced for the next time they are
+   * loaded.
+   *
+   * <p>If the current level cannot be built from its edited blueprint (say, because of a typo in
+   * a Tiled property), the error is logged and the level is built again from its last blueprint.
+   */
+  private void reloadLevels() {
+    for (LevelBlueprint edited; (edited = levelWatcher.poll()) != null; ) {
+      if (!edited.name.equals(levels.get(levelNumber))) {
+        levelLoader.put(edited.name, edited);
+        continue;
+      }
+      LevelBlueprint current = levelFormat;
+      levelFormat = edited;
+      long start = TimeUtils.nanoTime();
+      try {
+        if (level.reload(directory, edited)) {
+          Gdx.app.log("GameController", "Reloaded " + edited.name + " in "
+              + TimeUtils.timeSinceNanos(start) / 1000 + " us");
+        } else {
+          // Build it right away, so that any error in the blueprint shows up here
+          reset();
+          level.populateStep(Long.MAX_VALUE);
+        }
+        levelLoader.put(edited.name, edited);
+      } catch (RuntimeException e) {
+        Gdx.app.error("GameController", "Could not reload " + edited.name, e);
+        levelFormat = current;
+        reset();
+      }
+    }
   }
 
   /**
    * Resets the status of the game so that we can play again.
    * <p>
-   * This method disposes of the level and creates a new one. It will reread from the JSON file,
-   * allowing us to make changes on the fly.
+   * This method clears the level and starts building a new one from the blueprint. The
+   * bodies are created over the next few frames (see {@link #preUpdate}).
    */
   public void reset() {
-    level.dispose();
+    level.clear();
 
     setComplete(false);
     setFailure(false);
     countdown = -1;
+    accumulator = 0;
     // Reload the designated level
-    level.populate(directory, levelFormat);
+    level.beginPopulate(directory, levelFormat);
     timer = level.getTimer();
-    canvas.startLevel();
+    if (canvas != null) {
+      canvas.startLevel();
+    }
     level.getWorld().setContactListener(collisionController);
   }
 
@@ -299,8 +437,16 @@ public class GameController implements Screen {
    * @return whether to process the update loop
    */
   public boolean preUpdate(float dt) {
-    InputController input = InputController.getInstance();
+    InputSource input = getInputSource();
     input.readInput(level.getBounds(), level.getScale());
+    if (levelWatcher != null) {
+      reloadLevels();
+    }
+    // Finish building the level before simulating it
+    if (level.isPopulating()) {
+      level.populateStep(POPULATE_BUDGET);
+      return false;
+    }
     if (listener == null) {
       return true;
     }
@@ -311,50 +457,130 @@ public class GameController implements Screen {
     }
 
     // Handle resets
+    boolean restarted = false;
     if (input.didReset()) {
       reset();
+      restarted = true;
     }
     if (input.getNextLevel()) {
       if (levelNumber < levels.size() - 1) {
-        levelNumber += 1;
-        levelFormat = directory.getEntry(levels.get(levelNumber), JsonValue.class);
+        loadLevel(levelNumber + 1);
         reset();
         input.setNextLevel();
       } else {
         reset();
         input.setNextLevel();
       }
+      restarted = true;
     }
     if (input.getPastLevel()) {
       if (levelNumber != 0) {
-        levelNumber -= 1;
-        levelFormat = directory.getEntry(levels.get(levelNumber), JsonValue.class);
+        loadLevel(levelNumber - 1);
         reset();
         input.setPastLevel();
       } else {
         reset();
         input.setPastLevel();
       }
+      restarted = true;
     }
 
     // Now it is time to maybe switch screens.
     if (input.didExit()) {
       listener.exitScreen(this, EXIT_QUIT);
       return false;
-    } else if (countdown > 0) {
-      countdown--;
     } else if (countdown == 0) {
       reset();
+      restarted = true;
     }
 
+    // The new level is still being built, so there is nothing to check or simulate yet
+    if (restarted) {
+      return false;
+    }
+    return !checkFall();
+  }
+
+  /**
+   * Fails the level if the player fell out of it
+   *
+   * @return true if the player fell out of the level just now
+   */
+  private boolean checkFall() {
     if (!isFailure() && level.getAvatar().getY() < -1) {
       setFailure(true);
-      return false;
+      return true;
     }
+    return false;
+  }
 
-    level.breakPlatforms();
+  /**
+   * Plays a level headless, as fast as possible
+   * <p>
+   * The level is built at once, and then simulated in steps of {@link #WORLD_STEP} with the input
+   * read from the input source before each step, until the level is won or lost or the steps run
+   * out. Nothing is drawn, so this needs neither a canvas nor the audio, and runs much faster
+   * than real time.
+   *
+   * @param directory the asset directory
+   * @param blueprint the blueprint of the level
+   * @param steps     the most physics steps to simulate
+   * @return the number of steps simulated
+   */
+  public int simulate(AssetDirectory directory, LevelBlueprint blueprint, int steps) {
+    this.directory = directory;
+    levelFormat = blueprint;
+    reset();
+    while (!level.populateStep(Long.MAX_VALUE)) {
+      // Keep building
+    }
+    return simulate(steps);
+  }
 
-    return true;
+  /**
+   * Keeps playing the current level headless, as fast as possible
+   * <p>
+   * The level is simulated in steps of {@link #WORLD_STEP} with the input read from the input
+   * source before each step, until the level is won or lost or the steps run out.
+   *
+   * @param steps the most physics steps to simulate
+   * @return the number of steps simulated
+   */
+  public int simulate(int steps) {
+    InputSource input = getInputSource();
+    int count = 0;
+    while (count < steps && !complete && !failed) {
+      input.readInput(level.getBounds(), level.getScale());
+      step(WORLD_STEP);
+      count++;
+      checkFall();
+    }
+    return count;
+  }
+
+  /**
+   * Advances the game by the time since the last frame.
+   * <p>
+   * The game is simulated in fixed steps of {@link #WORLD_STEP}, however long the frame was, so
+   * that it plays the same at any frame rate. The time left over is carried to the next frame, and
+   * objects are drawn part of the way between the last two steps so that motion stays smooth.
+   *
+   * @param dt Number of seconds since last animation frame
+   */
+  public void update(float dt) {
+    accumulator += dt;
+    int steps = 0;
+    while (accumulator >= WORLD_STEP && steps < MAX_SUBSTEPS) {
+      level.saveTransforms();
+      step(WORLD_STEP);
+      accumulator -= WORLD_STEP;
+      steps++;
+    }
+    if (accumulator >= WORLD_STEP) {
+      // Too far behind to catch up, so drop the backlog
+      accumulator %= WORLD_STEP;
+    }
+    level.interpolate(accumulator / WORLD_STEP);
   }
 
   /**
@@ -365,23 +591,27 @@ public class GameController implements Screen {
    * after input is read, but before collisions are resolved. The very last thing that it should do
    * is apply forces to the appropriate objects.
    *
-   * @param dt Number of seconds since last animation frame
+   * @param dt The length of a physics step, in seconds
    */
-  public void update(float dt) {
+  private void step(float dt) {
+    if (countdown > 0) {
+      countdown--;
+    }
+
     // Check if the game has completed (if player touches the objective)
     setComplete(level.getComplete());
     setFailure(level.getFailure());
 
     // Process actions in object model
-    InputController input = InputController.getInstance();
+    InputSource input = getInputSource();
     PlayerModel avatar = level.getAvatar();
     NPCModel npc = level.getNPC();
 
     // Horizontal movement
-    avatar.setMovement(InputController.getInstance().getHorizontal() * avatar.getForce());
+    avatar.setMovement(input.getHorizontal() * avatar.getForce());
 
     // Vertical movement
-    float verticalInput = InputController.getInstance().getVertical();
+    float verticalInput = input.getVertical();
 
     // Jump Mechanics
     // Check for the transition from pressed to not pressed to detect a jump release
@@ -405,12 +635,13 @@ public class GameController implements Screen {
       avatar.setVY(avatar.getVY() + gravity * (avatar.getLowJumpMultiplier() - 1) * dt);
     }
 
-    if (avatar.getIsJumping() && !IS_MUTED) {
+    if (avatar.getIsJumping() && !IS_MUTED && jumpSound != null) {
       jumpId = playSound(jumpSound, jumpId);
     }
+    // The player only changes density when it actually freezes or thaws
+    avatar.setFrozen(input.getFrozen());
     if (input.getTimerActive()) {
       timer -= dt;
-      avatar.setFrozen(input.getFrozen());
       if (!isFailure() && timer <= 0) {
         setFailure(true);
       }
@@ -418,23 +649,24 @@ public class GameController implements Screen {
       if (complete || failed) {
         timer = 0;
       }
-    } else {
-      // Get input to see if f is just pressed and if so set frozen of the avatar to true
-      // This method only works when the game is paused!
-      avatar.setFrozen(input.getFrozen());
     }
 
     // Turn the physics engine crank
-    level.getWorld().step(WORLD_STEP, WORLD_VELOC, WORLD_POSIT);
+    level.getWorld().step(dt, WORLD_VELOC, WORLD_POSIT);
+    // Bodies cannot be destroyed during the step, so the platforms it broke are removed now
+    level.breakPlatforms();
+    level.updateDebris(dt);
     level.applyAirResistance();
     // Update each fanModel with the current time
     level.getFans().forEach((fanModel) -> {
-      fanModel.update(WORLD_STEP);
+      fanModel.update(dt);
     });
+    level.applyWind();
 
-    avatar.setFrozen(input.getFrozen());
     avatar.applyForce();
-    npc.applyMovement();
+    if (npc != null) {
+      npc.applyMovement();
+    }
   }
 
   /**
@@ -449,8 +681,10 @@ public class GameController implements Screen {
    */
   public void draw(float delta) {
     canvas.clear();
+    // Only the debug overlay shows how the sorting helped
+    canvas.setCountingUnsorted(level.getDebug());
     level.draw(canvas);
-    InputController input = InputController.getInstance();
+    InputSource input = getInputSource();
 
     // Display meter
     if (!complete && !failed) {
@@ -463,6 +697,11 @@ public class GameController implements Screen {
       canvas.drawText(message, displayFont, canvas.getWidth() / 2f - 380, canvas.getHeight() - 120);
       canvas.drawText("L" + levelNumber, displayFont, canvas.getWidth() / 1.75f,
           canvas.getHeight() - 120);
+      if (level.getDebug()) {
+        canvas.drawText("Flushes: " + canvas.getFlushCount() + " (unsorted "
+            + canvas.getUnsortedFlushCount() + ")", displayFont, canvas.getWidth() / 2f - 380,
+            canvas.getHeight() - 160);
+      }
       canvas.end();
     }
 
@@ -506,7 +745,9 @@ public class GameController implements Screen {
       if (preUpdate(delta)) {
         update(delta);
       }
-      draw(delta);
+      if (canvas != null) {
+        draw(delta);
+      }
     }
   }
 
@@ -518,7 +759,7 @@ public class GameController implements Screen {
    */
   public void pause() {
     // We need this method to stop all sounds when we pause.
-    if (jumpSound.isPlaying(jumpId)) {
+    if (jumpSound != null && jumpSound.isPlaying(jumpId)) {
       jumpSound.stop(jumpId);
     }
   }
@@ -29,8 +29,11 @@ import edu.cornell.gdiac.util.XBoxController;
  * This supports both a keyboard and X-Box controller. In previous solutions, we only detected the
  * X-Box controller on start-up.  This class allows us to hot-swap in a controller via the new
  * XBox360Controller class.
+ * <p>
+ * The game reads its input through {@link InputSource}, so this controller is only created when
+ * the game is played from a device.
  */
-public class InputController {
+public class InputController implements InputSource {
 
   // Sensitivity for moving crosshair with gameplay
   private static final float GP_ACCELERATE = 1.0f;
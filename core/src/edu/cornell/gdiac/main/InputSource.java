@@ -0,0 +1,100 @@
+package edu.cornell.gdiac.main;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * A source of player input for the game.
+ *
+ * <p>The game reads its input through this interface rather than from the devices, so that it can
+ * be driven by a script instead of a player (see {@link ScriptedInput}). The devices are read by
+ * {@link InputController}.
+ */
+public interface InputSource {
+
+  /**
+   * Reads the input for the next frame
+   *
+   * @param bounds The input bounds for the crosshair.
+   * @param scale  The drawing scale
+   */
+  void readInput(Rectangle bounds, Vector2 scale);
+
+  /**
+   * Returns the amount of sideways movement.
+   * <p>
+   * -1 = left, 1 = right, 0 = still
+   *
+   * @return the amount of sideways movement.
+   */
+  float getHorizontal();
+
+  /**
+   * Returns the amount of vertical movement.
+   * <p>
+   * -1 = down, 1 = up, 0 = still
+   *
+   * @return the amount of vertical movement.
+   */
+  float getVertical();
+
+  /**
+   * Returns true if the player is frozen
+   *
+   * @return true if the player is frozen
+   */
+  boolean getFrozen();
+
+  /**
+   * Returns true if the level timer is running
+   *
+   * @return true if the level timer is running
+   */
+  boolean getTimerActive();
+
+  /**
+   * Returns true if the reset button was pressed.
+   *
+   * @return true if the reset button was pressed.
+   */
+  boolean didReset();
+
+  /**
+   * Returns true if the player wants to go toggle the debug mode.
+   *
+   * @return true if the player wants to go toggle the debug mode.
+   */
+  boolean didDebug();
+
+  /**
+   * Returns true if the exit button was pressed.
+   *
+   * @return true if the exit button was pressed.
+   */
+  boolean didExit();
+
+  /**
+   * Returns true if the player asked for the next level (until {@link #setNextLevel} is called)
+   *
+   * @return true if the player asked for the next level
+   */
+  boolean getNextLevel();
+
+  /**
+   * Acknowledges a request for the next level
+   */
+  void setNextLevel();
+
+  /**
+   * Returns true if the player asked for the previous level (until {@link #setPastLevel} is
+   * called)
+   *
+   * @return true if the player asked for the previous level
+   */
+  boolean getPastLevel();
+
+  /**
+   * Acknowledges a request for the previous level
+   */
+  void setPastLevel();
+}
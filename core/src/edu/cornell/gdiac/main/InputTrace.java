@@ -0,0 +1,168 @@
+package edu.cornell.gdiac.main;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * A scripted input that replays a trace of key presses, one physics step at a time.
+ *
+ * <p>A trace is a text with one line per change of input: the physics step it happens at, and
+ * the keys held from then on, any of L (left), R (right), U (up), D (down) and F (frozen), or a
+ * dash for none. Blank lines and lines starting with # are ignored. For example,
+ *
+ * <pre>
+ * # run right, jump over the gap and freeze on the slope
+ * 0 R
+ * 40 RU
+ * 55 R
+ * 120 F
+ * </pre>
+ *
+ * <p>The input before the first line is no keys at all, and the keys of the last line are held
+ * until the end.
+ */
+public class InputTrace extends ScriptedInput {
+
+  /**
+   * Key bit for moving left
+   */
+  private static final int LEFT = 1;
+  /**
+   * Key bit for moving right
+   */
+  private static final int RIGHT = 2;
+  /**
+   * Key bit for jumping
+   */
+  private static final int UP = 4;
+  /**
+   * Key bit for dropping
+   */
+  private static final int DOWN = 8;
+  /**
+   * Key bit for freezing
+   */
+  private static final int FROZEN = 16;
+
+  /**
+   * The steps at which the input changes, in increasing order
+   */
+  private final IntArray steps;
+  /**
+   * The keys held from each of those steps on
+   */
+  private final IntArray keys;
+  /**
+   * The number of inputs read so far
+   */
+  private int step;
+  /**
+   * The next change of input
+   */
+  private int next;
+
+  /**
+   * Creates a trace that holds no keys
+   */
+  public InputTrace() {
+    steps = new IntArray();
+    keys = new IntArray();
+  }
+
+  /**
+   * Returns the trace described by the given text
+   *
+   * @param text the text of the trace, as described above
+   * @return the trace
+   * @throws IllegalArgumentException if a line of the text is not a valid input change
+   */
+  public static InputTrace parse(String text) {
+    InputTrace trace = new InputTrace();
+    String[] lines = text.split("\r?\n");
+    for (int ii = 0; ii < lines.length; ii++) {
+      String line = lines[ii].trim();
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+      String[] parts = line.split("\\s+");
+      try {
+        trace.add(Integer.parseInt(parts[0]), parts.length > 1 ? parts[1] : "-");
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Bad input trace line " + (ii + 1) + ": " + line, e);
+      }
+    }
+    return trace;
+  }
+
+  /**
+   * Adds a change of input to the end of this trace
+   *
+   * @param at   the physics step the input changes at, no earlier than the last change
+   * @param held the keys held from then on (letters L, R, U, D and F, or a dash for none)
+   * @throws IllegalArgumentException if the step is out of order or a key is unknown
+   */
+  public void add(int at, String held) {
+    if (at < 0 || (steps.size > 0 && at < steps.peek())) {
+      throw new IllegalArgumentException("Input step " + at + " is out of order");
+    }
+    int bits = 0;
+    for (int ii = 0; ii < held.length(); ii++) {
+      switch (Character.toUpperCase(held.charAt(ii))) {
+        case 'L':
+          bits |= LEFT;
+          break;
+        case 'R':
+          bits |= RIGHT;
+          break;
+        case 'U':
+          bits |= UP;
+          break;
+        case 'D':
+          bits |= DOWN;
+          break;
+        case 'F':
+          bits |= FROZEN;
+          break;
+        case '-':
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown input key " + held.charAt(ii));
+      }
+    }
+    steps.add(at);
+    keys.add(bits);
+  }
+
+  /**
+   * Rewinds this trace to its first step
+   */
+  public void rewind() {
+    step = 0;
+    next = 0;
+    apply(0);
+  }
+
+  /**
+   * Reads the input for the next physics step from the trace
+   *
+   * @param bounds The input bounds for the crosshair.
+   * @param scale  The drawing scale
+   */
+  @Override
+  public void readInput(Rectangle bounds, Vector2 scale) {
+    while (next < steps.size && steps.get(next) <= step) {
+      apply(keys.get(next++));
+    }
+    step++;
+  }
+
+  /**
+   * Sets the input to the given keys
+   */
+  private void apply(int bits) {
+    setHorizontal(((bits & RIGHT) != 0 ? 1 : 0) - ((bits & LEFT) != 0 ? 1 : 0));
+    setVertical(((bits & UP) != 0 ? 1 : 0) - ((bits & DOWN) != 0 ? 1 : 0));
+    setFrozen((bits & FROZEN) != 0);
+  }
+}
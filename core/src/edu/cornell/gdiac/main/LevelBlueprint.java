@@ -0,0 +1,538 @@
+package edu.cornell.gdiac.main;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.JsonWriter.OutputType;
+import com.badlogic.gdx.utils.ObjectMap;
+import edu.cornell.gdiac.util.LevelData;
+import edu.cornell.gdiac.util.TileMerger;
+import edu.cornell.gdiac.util.TileOutliner;
+import edu.cornell.gdiac.util.TiledJsonParser;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Everything needed to build a level, worked out ahead of time.
+ *
+ * <p>Building a level has two halves. Reading the level data, merging and outlining tiles and
+ * working out where every body goes is pure computation, so it is done here, possibly on a worker
+ * thread (see {@link LevelLoader}). What remains is a list of {@link Descriptor}s, each of which
+ * becomes exactly one model when the level is populated on the main thread. Creating the Box2D
+ * bodies is the only part that has to happen there, and {@link LevelModel#populateStep} spreads
+ * it across frames.
+ *
+ * <p>The layers of a level are independent of each other until their bodies are created, so
+ * {@link #build} works out each layer (and each band of rows of a large tile layer) as a separate
+ * fork/join task. The descriptors are still listed in layer order.
+ *
+ * <p>A blueprint is never modified once built, so the same blueprint is reused every time its
+ * level is reset, and can be shared between threads. Variants of a level are new blueprints (see
+ * {@link #withProperties}).
+ */
+public class LevelBlueprint {
+
+  /**
+   * The kinds of models a descriptor can build
+   */
+  public enum Kind {
+    /**
+     * A single tile platform
+     */
+    TILE,
+    /**
+     * A single pass-through tile platform
+     */
+    PASS_TILE,
+    /**
+     * A rectangle of merged tiles (see {@link TileBlockModel})
+     */
+    BLOCK,
+    /**
+     * A chain-outlined region of tiles (see {@link TileChainModel})
+     */
+    CHAIN,
+    /**
+     * A decoration tile
+     */
+    DECORATION,
+    /**
+     * A Tiled object (player, fan, slope, ...)
+     */
+    OBJECT
+  }
+
+  /**
+   * The description of a single model of the level.
+   *
+   * <p>Positions and sizes are in Tiled pixels (y pointing up), except for chain loops, which are
+   * already in physics coordinates.
+   */
+  public static class Descriptor {
+
+    /**
+     * The kind of model to build
+     */
+    public final Kind kind;
+    /**
+     * The position of the model (the tile center for tiles and blocks)
+     */
+    public float x, y;
+    /**
+     * The size of the model, for blocks
+     */
+    public float width, height;
+    /**
+     * The tile id, for single tiles and decorations
+     */
+    public int tile;
+    /**
+     * The tiles covered by a block or chain, packed as (tile id, x, y) with the bottom left
+     * corner of each tile in pixels
+     */
+    public float[] tiles;
+    /**
+     * The outline loops of a chain, in physics coordinates
+     */
+    public Array<float[]> loops;
+    /**
+     * The layer properties for tiles, or the object JSON for objects
+     */
+    public JsonValue json;
+
+    /**
+     * Creates a descriptor of the given kind
+     *
+     * @param kind the kind of model to build
+     */
+    public Descriptor(Kind kind) {
+      this.kind = kind;
+    }
+  }
+
+  /**
+   * The number of tile rows handled by a single task of a per-tile layer. Smaller maps are done
+   * in one task per layer, as splitting them costs more than it saves.
+   */
+  private static final int ROWS_PER_TASK = 32;
+
+  /**
+   * The name of the level, for logging
+   */
+  public final String name;
+  /**
+   * The world gravity
+   */
+  public float gravity;
+  /**
+   * Air resistance scale applied to every obstacle, if the level sets one
+   */
+  public Float airResistance;
+  /**
+   * The level time limit
+   */
+  public float timer;
+  /**
+   * The physics bounds of the level
+   */
+  public final Rectangle bounds = new Rectangle(0, 0, 1, 1);
+  /**
+   * The scale from physics units to pixels
+   */
+  public final Vector2 scale = new Vector2(1, 1);
+  /**
+   * The size of a tile in pixels
+   */
+  public int tileWidth, tileHeight;
+  /**
+   * The height of the level in pixels
+   */
+  public int pixelHeight;
+  /**
+   * The models of the level, in the order they are created
+   */
+  public final Array<Descriptor> descriptors = new Array<>();
+
+  /**
+   * Creates an empty blueprint
+   *
+   * @param name the name of the level
+   */
+  public LevelBlueprint(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Works out the blueprint of a level on the common fork/join pool.
+   *
+   * <p>This method does not touch the asset directory, Box2D or OpenGL, so it is safe to call
+   * from any thread.
+   *
+   * @param name      the name of the level, for logging
+   * @param levelData the level, read from either a Tiled JSON file or a binary level
+   * @return the blueprint of the level
+   */
+  public static LevelBlueprint build(String name, LevelData levelData) {
+    return build(name, levelData, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Works out the blueprint of a level, splitting the work across the given pool.
+   *
+   * <p>This method does not touch the asset directory, Box2D or OpenGL, so it is safe to call
+   * from any thread.
+   *
+   * @param name      the name of the level, for logging
+   * @param levelData the level, read from either a Tiled JSON file or a binary level
+   * @param pool      the pool to work out the layers on
+   * @return the blueprint of the level
+   */
+  public static LevelBlueprint build(String name, LevelData levelData, ForkJoinPool pool) {
+    LevelBlueprint blueprint = new LevelBlueprint(name);
+    int tileWidth = levelData.tileWidth;
+    int tileHeight = levelData.tileHeight;
+    int rows = levelData.height;
+    int cols = levelData.width;
+
+    float[] pSize = new float[2];
+    JsonValue property = levelData.properties;
+    // get map properties (applies to entire level)
+    while (property != null) {
+      switch (property.getString("name")) {
+        case "airresistance":
+          blueprint.airResistance = property.getFloat("value");
+          break;
+        case "gravity":
+          blueprint.gravity = property.getFloat("value");
+          break;
+        // the width for box 2D physics
+        case "pwidth":
+          pSize[0] = property.getFloat("value");
+          break;
+        // the height for box 2D physics
+        case "pheight":
+          pSize[1] = property.getFloat("value");
+          break;
+        case "timelimit":
+          blueprint.timer = property.getFloat("value");
+      }
+      property = property.next();
+    }
+
+    // graphics size is tile width * the number of tiles horizontally
+    // by the tile height * the number of tiles vertically
+    int[] gSize = {cols * tileWidth, rows * tileHeight};
+    blueprint.tileWidth = tileWidth;
+    blueprint.tileHeight = tileHeight;
+    blueprint.pixelHeight = gSize[1];
+    blueprint.bounds.set(0, 0, pSize[0], pSize[1]);
+    blueprint.scale.set(gSize[0] / pSize[0], gSize[1] / pSize[1]);
+
+    blueprint.descriptors.addAll(pool.invoke(new LevelTask(blueprint, levelData)));
+    return blueprint;
+  }
+
+  /**
+   * Returns a variant of this blueprint with some properties of the objects of a type replaced.
+   *
+   * <p>The objects of the given Tiled type get the given property values, in place of their own
+   * if they have them. Everything else is shared with this blueprint, which is unchanged.
+   *
+   * @param type       the Tiled object type (e.g. "Player" or "Fan")
+   * @param properties the property values, by property name
+   * @return the variant of this blueprint
+   */
+  public LevelBlueprint withProperties(String type, ObjectMap<String, String> properties) {
+    LevelBlueprint variant = new LevelBlueprint(name);
+    variant.gravity = gravity;
+    variant.airResistance = airResistance;
+    variant.timer = timer;
+    variant.bounds.set(bounds);
+    variant.scale.set(scale);
+    variant.tileWidth = tileWidth;
+    variant.tileHeight = tileHeight;
+    variant.pixelHeight = pixelHeight;
+    variant.descriptors.ensureCapacity(descriptors.size);
+
+    JsonReader reader = new JsonReader();
+    for (int ii = 0; ii < descriptors.size; ii++) {
+      Descriptor descriptor = descriptors.get(ii);
+      if (descriptor.kind != Kind.OBJECT || !type.equals(descriptor.json.getString("type", ""))) {
+        variant.descriptors.add(descriptor);
+        continue;
+      }
+      JsonValue json = reader.parse(descriptor.json.toJson(OutputType.json));
+      JsonValue list = json.get("properties");
+      if (list == null) {
+        list = new JsonValue(JsonValue.ValueType.array);
+        json.addChild("properties", list);
+      }
+      for (ObjectMap.Entry<String, String> entry : properties) {
+        JsonValue property = null;
+        for (JsonValue old = list.child; old != null && property == null; old = old.next) {
+          if (entry.key.equals(old.getString("name", null))) {
+            property = old;
+          }
+        }
+        if (property == null) {
+          property = new JsonValue(JsonValue.ValueType.object);
+          property.addChild("name", new JsonValue(entry.key));
+          list.addChild(property);
+        } else {
+          property.remove("value");
+        }
+        property.addChild("value", new JsonValue(entry.value));
+      }
+      Descriptor changed = new Descriptor(Kind.OBJECT);
+      changed.json = json;
+      variant.descriptors.add(changed);
+    }
+    return variant;
+  }
+
+  /**
+   * Works out the descriptors of every layer, one task per layer, in layer order
+   */
+  private static class LevelTask extends RecursiveTask<Array<Descriptor>> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final LevelBlueprint blueprint;
+    private final LevelData levelData;
+
+    LevelTask(LevelBlueprint blueprint, LevelData levelData) {
+      this.blueprint = blueprint;
+      this.levelData = levelData;
+    }
+
+    @Override
+    protected Array<Descriptor> compute() {
+      Array<LayerTask> tasks = new Array<>(levelData.layers.size);
+      for (LevelData.Layer layer : levelData.layers) {
+        LayerTask task = new LayerTask(blueprint, levelData, layer, 0, levelData.height);
+        task.fork();
+        tasks.add(task);
+      }
+      Array<Descriptor> descriptors = new Array<>();
+      for (LayerTask task : tasks) {
+        descriptors.addAll(task.join());
+      }
+      return descriptors;
+    }
+  }
+
+  /**
+   * Works out the descriptors of a single layer, or of a band of rows of a per-tile layer.
+   *
+   * <p>Merged and chained tile layers are always done whole, as their shapes span rows.
+   */
+  private static class LayerTask extends RecursiveTask<Array<Descriptor>> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final LevelBlueprint blueprint;
+    private final LevelData levelData;
+    private final LevelData.Layer layer;
+    /**
+     * The rows of the layer to work out (first inclusive, last exclusive)
+     */
+    private final int firstRow, lastRow;
+
+    LayerTask(LevelBlueprint blueprint, LevelData levelData, LevelData.Layer layer,
+        int firstRow, int lastRow) {
+      this.blueprint = blueprint;
+      this.levelData = levelData;
+      this.layer = layer;
+      this.firstRow = firstRow;
+      this.lastRow = lastRow;
+    }
+
+    @Override
+    protected Array<Descriptor> compute() {
+      Array<Descriptor> out = new Array<>();
+      int tileWidth = levelData.tileWidth;
+      int tileHeight = levelData.tileHeight;
+      int rows = levelData.height;
+      int cols = levelData.width;
+      JsonValue tileProperties = layer.properties;
+      switch (layer.name) {
+        case "level":
+          JsonValue collision = TiledJsonParser.getProperty(tileProperties, "collision");
+          String mode = collision == null ? "merge" : collision.asString();
+          switch (mode) {
+            case "tiles":
+              return addTiles(cols, rows, layer.tiles, tileWidth, tileHeight, tileProperties,
+                  Kind.TILE);
+            case "chain":
+              addChains(cols, rows, layer.tiles, tileWidth, tileHeight, tileProperties,
+                  blueprint.scale, out);
+              break;
+            default:
+              addBlocks(cols, rows, layer.tiles, tileWidth, tileHeight, tileProperties, out);
+              break;
+          }
+          break;
+        case "pass":
+          return addTiles(cols, rows, layer.tiles, tileWidth, tileHeight, tileProperties,
+              Kind.PASS_TILE);
+        case "objects":
+          for (JsonValue object = layer.objects; object != null; object = object.next()) {
+            Descriptor descriptor = new Descriptor(Kind.OBJECT);
+            descriptor.json = object;
+            out.add(descriptor);
+          }
+          break;
+        case "deco":
+          if (layer.tiles != null) {
+            return addTiles(cols, rows, layer.tiles, tileWidth, tileHeight, null,
+                Kind.DECORATION);
+          }
+          break;
+      }
+      return out;
+    }
+
+    /**
+     * Returns one descriptor per non-empty tile of this task's rows, splitting large bands of
+     * rows into subtasks.
+     *
+     * @param cols           the number of columns of the data array
+     * @param rows           the number of rows of the data array
+     * @param data           the data array
+     * @param tileWidth      the width of a tile in pixels
+     * @param tileHeight     the height of a tile in pixels
+     * @param tileProperties additional tile properties
+     * @param kind           the kind of model to build for each tile
+     * @return the descriptors of the tiles, in row-major order
+     */
+    private Array<Descriptor> addTiles(int cols, int rows, int[] data, int tileWidth,
+        int tileHeight, JsonValue tileProperties, Kind kind) {
+      if (lastRow - firstRow > ROWS_PER_TASK) {
+        int middle = (firstRow + lastRow) / 2;
+        LayerTask top = new LayerTask(blueprint, levelData, layer, firstRow, middle);
+        LayerTask bottom = new LayerTask(blueprint, levelData, layer, middle, lastRow);
+        top.fork();
+        Array<Descriptor> out = bottom.compute();
+        Array<Descriptor> first = top.join();
+        first.addAll(out);
+        return first;
+      }
+
+      Array<Descriptor> out = new Array<>();
+      for (int i = firstRow * cols; i < lastRow * cols; i++) {
+        if (data[i] != 0) {
+          Descriptor descriptor = new Descriptor(kind);
+          // i % numCols = how deep in x
+          // i / numCols = how deep in y
+          descriptor.x = (i % cols) * tileWidth;
+          // subtract from full height since data starts at the top
+          descriptor.y = tileHeight * rows - (i / cols) * tileHeight;
+          descriptor.tile = data[i];
+          descriptor.json = tileProperties;
+          out.add(descriptor);
+        }
+      }
+      return out;
+    }
+  }
+
+  /**
+   * Adds static tiles, merging adjacent tiles into rectangular blocks.
+   *
+   * <p>Every tile of the layer shares the same layer properties, so any two neighbouring tiles
+   * can share a body. Each maximal rectangle of tiles becomes one {@link TileBlockModel}, which
+   * still draws the individual tiles.
+   *
+   * @param cols           the number of columns of the data array
+   * @param rows           the number of rows of the data array
+   * @param data           the data array
+   * @param tileWidth      the width of a tile in pixels
+   * @param tileHeight     the height of a tile in pixels
+   * @param tileProperties additional tile properties
+   * @param out            the list to add the descriptors to
+   */
+  private static void addBlocks(int cols, int rows, int[] data, int tileWidth, int tileHeight,
+      JsonValue tileProperties, Array<Descriptor> out) {
+    IntArray rects = TileMerger.mergeRectangles(cols, rows, data);
+    for (int r = 0; r < rects.size; r += TileMerger.RECT_STRIDE) {
+      int col = rects.get(r);
+      int row = rects.get(r + 1);
+      int width = rects.get(r + 2);
+      int height = rects.get(r + 3);
+
+      Descriptor descriptor = new Descriptor(Kind.BLOCK);
+      // Tile positions are tile centers, so the block center is offset by half a tile less
+      descriptor.x = col * tileWidth + (width - 1) * tileWidth / 2f;
+      descriptor.y = tileHeight * rows - row * tileHeight - (height - 1) * tileHeight / 2f;
+      descriptor.width = width * tileWidth;
+      descriptor.height = height * tileHeight;
+      descriptor.json = tileProperties;
+
+      IntArray cells = new IntArray(width * height);
+      for (int jj = row; jj < row + height; jj++) {
+        for (int ii = col; ii < col + width; ii++) {
+          cells.add(jj * cols + ii);
+        }
+      }
+      descriptor.tiles = packTiles(cols, rows, data, tileWidth, tileHeight, cells);
+      out.add(descriptor);
+    }
+  }
+
+  /**
+   * Adds static tiles as one chain-outlined body per connected region.
+   *
+   * <p>Each region of edge-connected tiles becomes one {@link TileChainModel} whose fixtures are
+   * the looped outlines of the region (see {@link TileOutliner}). The region still draws the
+   * individual tiles.
+   *
+   * @param cols           the number of columns of the data array
+   * @param rows           the number of rows of the data array
+   * @param data           the data array
+   * @param tileWidth      the width of a tile in pixels
+   * @param tileHeight     the height of a tile in pixels
+   * @param tileProperties additional tile properties
+   * @param scale          the scale from physics units to pixels
+   * @param out            the list to add the descriptors to
+   */
+  private static void addChains(int cols, int rows, int[] data, int tileWidth, int tileHeight,
+      JsonValue tileProperties, Vector2 scale, Array<Descriptor> out) {
+    Array<IntArray> cells = new Array<>();
+    Array<Array<IntArray>> regions = TileOutliner.traceRegions(cols, rows, data, cells);
+    for (int r = 0; r < regions.size; r++) {
+      Descriptor descriptor = new Descriptor(Kind.CHAIN);
+      descriptor.json = tileProperties;
+      descriptor.loops = new Array<>(regions.get(r).size);
+      for (IntArray loop : regions.get(r)) {
+        // Loops are in grid corners; tile positions are tile centers, so shift by half a tile
+        float[] vertices = new float[loop.size];
+        for (int ii = 0; ii < loop.size; ii += 2) {
+          vertices[ii] = (loop.get(ii) * tileWidth - tileWidth / 2f) / scale.x;
+          vertices[ii + 1] =
+              (tileHeight * rows - loop.get(ii + 1) * tileHeight + tileHeight / 2f) / scale.y;
+        }
+        descriptor.loops.add(vertices);
+      }
+      descriptor.tiles = packTiles(cols, rows, data, tileWidth, tileHeight, cells.get(r));
+      out.add(descriptor);
+    }
+  }
+
+  /**
+   * Packs the tile id and bottom left pixel corner of each of the given cells
+   */
+  private static float[] packTiles(int cols, int rows, int[] data, int tileWidth, int tileHeight,
+      IntArray cells) {
+    float[] tiles = new float[cells.size * 3];
+    for (int ii = 0; ii < cells.size; ii++) {
+      int index = cells.get(ii);
+      tiles[3 * ii] = data[index];
+      tiles[3 * ii + 1] = (index % cols) * tileWidth - tileWidth / 2f;
+      tiles[3 * ii + 2] = tileHeight * rows - (index / cols) * tileHeight - tileHeight / 2f;
+    }
+    return tiles;
+  }
+}
@@ -0,0 +1,231 @@
+package edu.cornell.gdiac.main;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IdentityMap;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.ObjectMap;
+import edu.cornell.gdiac.main.LevelBlueprint.Descriptor;
+import edu.cornell.gdiac.main.LevelBlueprint.Kind;
+import java.util.Arrays;
+
+/**
+ * The differences between two blueprints of the same level.
+ *
+ * <p>This is what lets an edited level be applied to a running one (see
+ * {@link LevelModel#reload}) without rebuilding the bodies that did not change. Every descriptor
+ * is reduced to a key describing everything its model is built from, and descriptors of the two
+ * blueprints with equal keys build identical models.
+ *
+ * <p>Objects are matched on their type, name and geometry only. A matched object whose properties
+ * changed is listed as updated, so that its model can be kept and have its properties set again.
+ * The player is always kept, even if it was moved, as the player state must survive a reload.
+ */
+public class LevelDiff {
+
+  /**
+   * The fields of a Tiled object that decide where and how its model is built (every field other
+   * than these is either a property or ignored by the game)
+   */
+  private static final String[] GEOMETRY = {"x", "y", "width", "height", "rotation", "gid",
+      "polygon"};
+
+  /**
+   * The descriptors that build identical models in both blueprints (new descriptor to old)
+   */
+  public final ObjectMap<Descriptor, Descriptor> kept = new ObjectMap<>();
+  /**
+   * The objects that are still there but whose properties changed (new descriptor to old)
+   */
+  public final ObjectMap<Descriptor, Descriptor> updated = new ObjectMap<>();
+  /**
+   * The descriptors of the new blueprint that have no match in the old one
+   */
+  public final Array<Descriptor> added = new Array<>();
+  /**
+   * The descriptors of the old blueprint that have no match in the new one
+   */
+  public final Array<Descriptor> removed = new Array<>();
+
+  /**
+   * A short key for each distinct property list, as many descriptors share the same list
+   */
+  private final IdentityMap<JsonValue, String> propertyKeys = new IdentityMap<>();
+  /**
+   * The property lists already given a key, by their contents
+   */
+  private final ObjectMap<String, String> propertyIds = new ObjectMap<>();
+
+  /**
+   * Works out the differences between two blueprints of the same level
+   *
+   * @param before the blueprint of the running level
+   * @param after  the edited blueprint
+   * @return the differences between the two blueprints
+   */
+  public static LevelDiff compute(LevelBlueprint before, LevelBlueprint after) {
+    LevelDiff diff = new LevelDiff();
+    ObjectMap<String, Array<Descriptor>> unmatched = new ObjectMap<>(before.descriptors.size);
+    for (Descriptor descriptor : before.descriptors) {
+      String key = diff.key(descriptor);
+      Array<Descriptor> same = unmatched.get(key);
+      if (same == null) {
+        same = new Array<>(false, 1);
+        unmatched.put(key, same);
+      }
+      same.add(descriptor);
+    }
+
+    for (Descriptor descriptor : after.descriptors) {
+      Array<Descriptor> same = unmatched.get(diff.key(descriptor));
+      if (same == null || same.isEmpty()) {
+        diff.added.add(descriptor);
+      } else {
+        Descriptor match = same.pop();
+        if (descriptor.kind == Kind.OBJECT
+            && !diff.properties(descriptor.json).equals(diff.properties(match.json))) {
+          diff.updated.put(descriptor, match);
+        } else {
+          diff.kept.put(descriptor, match);
+        }
+      }
+    }
+    for (Array<Descriptor> same : unmatched.values()) {
+      diff.removed.addAll(same);
+    }
+
+    // A moved player is still the same player
+    Descriptor oldPlayer = findPlayer(diff.removed);
+    Descriptor newPlayer = findPlayer(diff.added);
+    if (oldPlayer != null && newPlayer != null) {
+      diff.removed.removeValue(oldPlayer, true);
+      diff.added.removeValue(newPlayer, true);
+      diff.updated.put(newPlayer, oldPlayer);
+    }
+    return diff;
+  }
+
+  /**
+   * Returns true if the two blueprints contain exactly the same models
+   *
+   * @return true if the two blueprints contain exactly the same models
+   */
+  public boolean isEmpty() {
+    return updated.size == 0 && added.isEmpty() && removed.isEmpty();
+  }
+
+  /**
+   * Returns the first player object in the given list, or null if there is none
+   */
+  private static Descriptor findPlayer(Array<Descriptor> descriptors) {
+    for (Descriptor descriptor : descriptors) {
+      if (descriptor.kind == Kind.OBJECT
+          && "Player".equals(descriptor.json.getString("type", ""))) {
+        return descriptor;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the key of a descriptor.
+   *
+   * <p>For tiles this is everything the model is built from. For objects it is everything except
+   * the properties.
+   */
+  private String key(Descriptor descriptor) {
+    StringBuilder key = new StringBuilder(32);
+    key.append(descriptor.kind.ordinal()).append(':');
+    switch (descriptor.kind) {
+      case TILE:
+      case PASS_TILE:
+      case DECORATION:
+        key.append(descriptor.x).append(',').append(descriptor.y).append(',')
+            .append(descriptor.tile);
+        break;
+      case BLOCK:
+        key.append(descriptor.x).append(',').append(descriptor.y).append(',')
+            .append(descriptor.width).append(',').append(descriptor.height)
+            .append(Arrays.toString(descriptor.tiles));
+        break;
+      case CHAIN:
+        for (float[] loop : descriptor.loops) {
+          key.append(Arrays.toString(loop));
+        }
+        key.append(Arrays.toString(descriptor.tiles));
+        break;
+      case OBJECT:
+        JsonValue json = descriptor.json;
+        key.append(json.getString("type", "")).append(',').append(json.getString("name", ""));
+        for (String name : GEOMETRY) {
+          JsonValue field = json.get(name);
+          if (field != null) {
+            key.append(',').append(name).append('=');
+            appendValue(key, field);
+          }
+        }
+        return key.toString();
+    }
+    return key.append('#').append(propertyKey(descriptor.json)).toString();
+  }
+
+  /**
+   * Returns a short key for a list of layer properties, equal for lists with equal contents
+   *
+   * @param first the first property of the list, or null
+   */
+  private String propertyKey(JsonValue first) {
+    if (first == null) {
+      return "";
+    }
+    String key = propertyKeys.get(first);
+    if (key == null) {
+      StringBuilder contents = new StringBuilder();
+      for (JsonValue property = first; property != null; property = property.next()) {
+        appendValue(contents, property);
+      }
+      key = propertyIds.get(contents.toString());
+      if (key == null) {
+        key = Integer.toString(propertyIds.size);
+        propertyIds.put(contents.toString(), key);
+      }
+      propertyKeys.put(first, key);
+    }
+    return key;
+  }
+
+  /**
+   * Returns the contents of the property list of a Tiled object
+   */
+  private String properties(JsonValue object) {
+    JsonValue list = object.get("properties");
+    StringBuilder contents = new StringBuilder();
+    if (list != null) {
+      appendValue(contents, list);
+    }
+    return contents.toString();
+  }
+
+  /**
+   * Appends a JSON value to a key.
+   *
+   * <p>Numbers are written as floats, so that a level read from JSON (where whole numbers are
+   * longs) gives the same keys as the same level read from a binary level.
+   */
+  private static void appendValue(StringBuilder key, JsonValue value) {
+    if (value.isNumber()) {
+      key.append(value.asFloat());
+    } else if (value.isValue()) {
+      key.append(value.asString());
+    } else {
+      key.append(value.isArray() ? '[' : '{');
+      for (JsonValue child = value.child(); child != null; child = child.next()) {
+        if (child.name != null) {
+          key.append(child.name).append('=');
+        }
+        appendValue(key, child);
+        key.append(',');
+      }
+      key.append(value.isArray() ? ']' : '}');
+    }
+  }
+}
@@ -0,0 +1,130 @@
+package edu.cornell.gdiac.main;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.ObjectMap;
+import edu.cornell.gdiac.assets.AssetDirectory;
+import edu.cornell.gdiac.util.BinaryLevelReader;
+import edu.cornell.gdiac.util.LevelData;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Reads levels and works out their blueprints on a background thread.
+ *
+ * <p>The game asks for the levels it is likely to need next with {@link #prefetch}, so that by
+ * the time it switches levels the blueprint is usually already there and {@link #get} returns
+ * immediately. Blueprints are kept once built, as they are reused on every reset.
+ */
+public class LevelLoader implements Disposable {
+
+  /**
+   * The directory (relative to the assets) of the precompiled binary levels
+   */
+  private static final String BINARY_LEVEL_DIRECTORY = "levels/";
+
+  /**
+   * The asset directory, for the JSON levels
+   */
+  private final AssetDirectory directory;
+  /**
+   * The worker thread
+   */
+  private final ExecutorService executor;
+  /**
+   * The blueprint of every level requested so far, by level key
+   */
+  private final ObjectMap<String, Future<LevelBlueprint>> blueprints;
+
+  /**
+   * Creates a level loader with its own worker thread
+   *
+   * @param directory the asset directory containing the level JSON files
+   */
+  public LevelLoader(AssetDirectory directory) {
+    this.directory = directory;
+    blueprints = new ObjectMap<>();
+    executor = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "LevelLoader");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Starts building the blueprint of the given level in the background, if not already started
+   *
+   * @param key the asset key of the level JSON
+   */
+  public void prefetch(String key) {
+    if (!blueprints.containsKey(key)) {
+      blueprints.put(key, executor.submit(() -> LevelBlueprint.build(key, load(key))));
+    }
+  }
+
+  /**
+   * Returns the blueprint of the given level, waiting for it if it is not yet built
+   *
+   * @param key the asset key of the level JSON
+   * @return the blueprint of the level
+   */
+  public LevelBlueprint get(String key) {
+    prefetch(key);
+    try {
+      return blueprints.get(key).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new GdxRuntimeException("Interrupted while loading " + key, e);
+    } catch (ExecutionException e) {
+      // Forget the failure so that the next request tries again
+      blueprints.remove(key);
+      throw new GdxRuntimeException("Could not load " + key, e.getCause());
+    }
+  }
+
+  /**
+   * Replaces the blueprint of the given level, for instance after the level was edited
+   *
+   * @param key       the asset key of the level JSON
+   * @param blueprint the new blueprint of the level
+   */
+  public void put(String key, LevelBlueprint blueprint) {
+    blueprints.put(key, CompletableFuture.completedFuture(blueprint));
+  }
+
+  /**
+   * Loads the data for the given level.
+   *
+   * <p>We use the precompiled binary level if there is one (see the compileLevels task), as it is
+   * much cheaper to read. Otherwise we fall back to the Tiled JSON in the asset directory.
+   *
+   * @param key the asset key of the level JSON
+   * @return the level data
+   */
+  private LevelData load(String key) {
+    FileHandle file = Gdx.files.internal(
+        BINARY_LEVEL_DIRECTORY + key + BinaryLevelReader.EXTENSION);
+    if (file.exists()) {
+      try {
+        return BinaryLevelReader.read(file);
+      } catch (GdxRuntimeException e) {
+        Gdx.app.error("LevelLoader", "Could not read " + file.path() + ", using JSON", e);
+      }
+    }
+    return LevelData.fromJson(directory.getEntry(key, JsonValue.class));
+  }
+
+  /**
+   * Stops the worker thread
+   */
+  public void dispose() {
+    executor.shutdownNow();
+    blueprints.clear();
+  }
+}
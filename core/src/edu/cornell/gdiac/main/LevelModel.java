@@ -14,16 +14,29 @@
  */
 package edu.cornell.gdiac.main;
 
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.BodyDef.BodyType;
+import com.badlogic.gdx.physics.box2d.Contact;
 import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IdentityMap;
 import com.badlogic.gdx.utils.JsonValue;
-import com.badlogic.gdx.utils.ObjectSet;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.Pool;
+import com.badlogic.gdx.utils.TimeUtils;
 import edu.cornell.gdiac.assets.AssetDirectory;
+import edu.cornell.gdiac.main.ObjectFactory.ObjectType;
 import edu.cornell.gdiac.physics.obstacle.Obstacle;
 import edu.cornell.gdiac.physics.obstacle.SimpleObstacle;
+import edu.cornell.gdiac.util.LevelData;
 import edu.cornell.gdiac.util.PooledList;
+import edu.cornell.gdiac.util.Registry;
+import edu.cornell.gdiac.util.SpatialGrid;
 import edu.cornell.gdiac.util.TiledJsonParser;
+import java.util.function.Supplier;
 
 /**
  * Represents a single level in our game
@@ -41,10 +54,54 @@ public class LevelModel {
    * The initial air resistance of the level from the levels JSON
    */
   private final float INITIAL_AIR_RESISTANCE = 0.1f;
+  /**
+   * The speed at which debris flies away from the center of a broken platform
+   */
+  private static final float DEBRIS_SPEED = 2.0f;
+  /**
+   * The angular speed of the outermost debris of a broken platform, in radians per second
+   */
+  private static final float DEBRIS_SPIN = 6.0f;
+  /**
+   * How much of the velocity of the player breaking a platform is passed on to its debris
+   */
+  private static final float DEBRIS_INHERITED_VELOCITY = 0.5f;
   /**
    * Keeps track of all fan objects
    */
-  final private ObjectSet<FanModel> fans = new ObjectSet<>();
+  final private Registry<FanModel> fans = new Registry<>();
+  /**
+   * Keeps track of all breakable platforms
+   */
+  final private Registry<BreakablePlatformModel> breakables = new Registry<>();
+  /**
+   * Keeps track of all bounce pads
+   */
+  final private Registry<BouncePlatformModel> bouncePads = new Registry<>();
+  /**
+   * Keeps track of all pass-through platforms
+   */
+  final private Registry<PassThroughPlatformModel> passThroughs = new Registry<>();
+  /**
+   * Keeps track of the debris of broken platforms
+   */
+  final private Registry<DebrisModel> debris = new Registry<>();
+  /**
+   * The platforms broken during the current physics step, removed once the step is over
+   */
+  final private Array<BreakablePlatformModel> breakQueue = new Array<>(false, 8);
+  /**
+   * Keeps track of all static objects
+   */
+  final private Registry<Obstacle> staticObjects = new Registry<>();
+  /**
+   * Keeps track of all kinematic objects
+   */
+  final private Registry<Obstacle> kinematicObjects = new Registry<>();
+  /**
+   * Keeps track of all dynamic objects
+   */
+  final private Registry<Obstacle> dynamicObjects = new Registry<>();
   /**
    * Cache for internal force calculations
    */
@@ -69,10 +126,65 @@ public class LevelModel {
    * All the objects in the world.
    */
   protected PooledList<Obstacle> objects = new PooledList<Obstacle>();
+  /**
+   * The entry of each object in the list of objects, so that it can be removed in constant time
+   */
+  private final IdentityMap<Obstacle, PooledList<Obstacle>.Entry> entries = new IdentityMap<>();
+  /**
+   * The width and height of a cell of the spatial grid, in world units
+   */
+  private static final float GRID_CELL_SIZE = 8;
+  /**
+   * How far past the edge of the screen objects are still drawn, in world units, as a sprite may
+   * stick out of the body it is drawn for
+   */
+  private static final float DRAW_MARGIN = 2;
+  /**
+   * The layers the objects are drawn in, from the bottom up (see {@link GameCanvas#setLayer}).
+   * Within a layer, objects are drawn grouped by texture.
+   */
+  private static final int LAYER_TERRAIN = 0;
+  private static final int LAYER_PROPS = 1;
+  private static final int LAYER_CHARACTERS = 2;
+  /**
+   * Every object in the world by the area its body covers, so that only the objects on screen
+   * are drawn. Objects are found in the order they were added.
+   */
+  private final SpatialGrid<Obstacle> grid = new SpatialGrid<>(GRID_CELL_SIZE);
+  /**
+   * The objects on screen this frame
+   */
+  private final Array<Obstacle> visible = new Array<>();
+  /**
+   * Cache for the bounds of an object
+   */
+  private final Rectangle boundsCache = new Rectangle();
+  /**
+   * Cache for the area of the world on screen
+   */
+  private final Rectangle viewCache = new Rectangle();
+  /**
+   * The tiles of the "level" and "pass" layers, drawn below the other objects
+   */
+  private final TileCache terrain = new TileCache();
   /**
    * All the decorational objects in the world.
    */
   protected PooledList<DecorationModel> decoobjects = new PooledList<DecorationModel>();
+  /**
+   * The tiles of the "deco" layer, drawn above the other objects
+   */
+  private final TileCache decorations = new TileCache();
+  /**
+   * Pools of the models a level creates in bulk, by exact class. Disposing the level returns the
+   * models to their pools, so resetting a level reuses them rather than allocating new ones.
+   */
+  private final ObjectMap<Class<? extends Obstacle>, Pool<? extends Obstacle>> pools =
+      new ObjectMap<>();
+  /**
+   * Creates the models of Tiled objects, by Tiled object type
+   */
+  private final ObjectFactory objectFactory = new ObjectFactory();
   /**
    * Reference to the character avatar
    */
@@ -107,9 +219,9 @@ public class LevelModel {
    */
   private float timer;
   /**
-   * Air resistance scale to be applied to every obstacle in the level
+   * Applies air resistance to the dynamic obstacles of the level
    */
-  private float airResistance = INITIAL_AIR_RESISTANCE;
+  private final DragSystem drag = new DragSystem(dynamicObjects);
 
   /**
    *
@@ -118,6 +230,27 @@ public class LevelModel {
 
   private Vector2 npcPosition = new Vector2(0.0f, 0.0f);
 
+  /**
+   * The blueprint of the level while it is being populated, or null once it is complete
+   */
+  private LevelBlueprint blueprint;
+  /**
+   * The blueprint the level was populated from, or null if the level is empty
+   */
+  private LevelBlueprint source;
+  /**
+   * The model built from each descriptor of the source blueprint
+   */
+  private final ObjectMap<LevelBlueprint.Descriptor, Obstacle> models = new ObjectMap<>();
+  /**
+   * The index of the next blueprint descriptor to create
+   */
+  private int nextDescriptor;
+  /**
+   * The asset directory while the level is being populated
+   */
+  private AssetDirectory directory;
+
   /**
    * Creates a new LevelModel
    *
@@ -129,6 +262,59 @@ public class LevelModel {
     bounds = new Rectangle(0, 0, 1, 1);
     scale = new Vector2(1, 1);
     debug = false;
+    drag.setCoefficient(INITIAL_AIR_RESISTANCE);
+
+    addPool(PlatformModel.class, PlatformModel::new);
+    addPool(PassThroughPlatformModel.class, PassThroughPlatformModel::new);
+    addPool(TileBlockModel.class, TileBlockModel::new);
+    addPool(TileChainModel.class, TileChainModel::new);
+    addPool(DecorationModel.class, DecorationModel::new);
+    addPool(FanModel.class, FanModel::new);
+    addPool(DebrisModel.class, DebrisModel::new);
+    registerObjectTypes();
+  }
+
+  /**
+   * Registers the Tiled object types a level can contain
+   */
+  private void registerObjectTypes() {
+    objectFactory.register(
+            new ObjectType<>("Player", PlayerModel::new, PlayerModel.PROPERTIES))
+        .then(PlayerModel::initialize)
+        .onCreate(player -> avatar = player);
+    objectFactory.register(new ObjectType<>("Npc", NPCModel::new, NPCModel.PROPERTIES))
+        .onCreate(model -> {
+          npc = model;
+          npcPosition = new Vector2(model.getX(), model.getY());
+        });
+    objectFactory.register(
+            new ObjectType<>("Exit", ExitModel::new, TiledJsonParser.OBSTACLE_PROPERTIES))
+        .onCreate(exit -> {
+          goalDoor = exit;
+          exitPosition = new Vector2(exit.getX(), exit.getY());
+        });
+    // Tiled places slopes, bounce pads and breakables slightly off from their bodies
+    objectFactory.register(new ObjectType<>("Slope", SlopeModel::new, SlopeModel.PROPERTIES))
+        .placement((slope, json, tiledHeight) ->
+            TiledJsonParser.placeObject(slope, json, tiledHeight, -8, 8, false))
+        .then((slope, directory, json) -> slope.initialize(json));
+    objectFactory.register(
+            new ObjectType<>("Bounce", BouncePlatformModel::new, BouncePlatformModel.PROPERTIES))
+        .placement((bounce, json, tiledHeight) -> TiledJsonParser.placeObject(bounce, json,
+            tiledHeight, json.getFloat("x") > 0 ? 16 : 0, 16, true))
+        .then(BouncePlatformModel::initialize);
+    objectFactory.register(new ObjectType<>("Breakable", BreakablePlatformModel::new,
+            BreakablePlatformModel.PROPERTIES))
+        .offset(0, 16)
+        .then(BreakablePlatformModel::initialize);
+    objectFactory.register(
+            new ObjectType<>("Fan", () -> obtain(FanModel.class), FanModel.PROPERTIES))
+        .placement(FanModel::place)
+        .then((fan, directory, json) -> {
+          fan.initRegion();
+          fan.initWind();
+        })
+        .onCreate(fan -> fan.setFanActive(true));
   }
 
   /**
@@ -257,230 +443,492 @@ public class LevelModel {
   /**
    * @return list of fan objects in the level
    */
-  public ObjectSet<FanModel> getFans() {
+  public Registry<FanModel> getFans() {
     return fans;
   }
 
   /**
-   * Lays out the game geography from the given JSON file
-   *
-   * @param directory   the asset manager
-   * @param levelFormat the JSON file defining the level
-   */
-  public void populate(AssetDirectory directory, JsonValue levelFormat) {
-    int tileWidth = levelFormat.getInt("tilewidth");
-    int tileHeight = levelFormat.getInt("tileheight");
-    int numTilesVertical = levelFormat.getInt("height");
-    int numTilesHorizontal = levelFormat.getInt("width");
-
-    float gravity = 0;
-    float[] pSize = new float[2];
-    JsonValue property = levelFormat.get("properties").child();
-    // get map properties (applies to entire level)
-    while (property != null) {
-      switch (property.getString("name")) {
-        case "airresistance":
-          airResistance = property.getFloat("value");
-          break;
-        case "gravity":
-          gravity = property.getFloat("value");
-          break;
-        // the width for box 2D physics
-        case "pwidth":
-          pSize[0] = property.getFloat("value");
-          break;
-        // the height for box 2D physics
-        case "pheight":
-          pSize[1] = property.getFloat("value");
-          break;
-        case "timelimit":
-          timer = property.getFloat("value");
-      }
-      property = property.next();
+   * @return list of breakable platforms in the level
+   */
+  public Registry<BreakablePlatformModel> getBreakables() {
+    return breakables;
+  }
+
+  /**
+   * @return list of bounce pads in the level
+   */
+  public Registry<BouncePlatformModel> getBouncePads() {
+    return bouncePads;
+  }
+
+  /**
+   * @return list of pass-through platforms in the level
+   */
+  public Registry<PassThroughPlatformModel> getPassThroughs() {
+    return passThroughs;
+  }
+
+  /**
+   * Returns the objects in the level with the given body type
+   *
+   * @param type the body type
+   * @return the objects in the level with the given body type
+   */
+  public Registry<Obstacle> getObjects(BodyType type) {
+    switch (type) {
+      case StaticBody:
+        return staticObjects;
+      case KinematicBody:
+        return kinematicObjects;
+      default:
+        return dynamicObjects;
     }
+  }
 
-    // graphics size is tile width * the number of tiles horizontally
-    // by the tile height * the number of tiles vertically
-    int[] gSize = {numTilesHorizontal * tileWidth, numTilesVertical * tileHeight};
+  /**
+   * Lays out the game geography from the given level data
+   *
+   * <p>This builds the whole level at once. See {@link #beginPopulate} to spread the work across
+   * several frames.
+   *
+   * @param directory the asset manager
+   * @param levelData the level, read from either a Tiled JSON file or a binary level
+   */
+  public void populate(AssetDirectory directory, LevelData levelData) {
+    beginPopulate(directory, LevelBlueprint.build("level", levelData));
+    while (!populateStep(Long.MAX_VALUE)) {
+      // Keep building
+    }
+  }
 
-    world = new World(new Vector2(0, gravity), false);
-    bounds = new Rectangle(0, 0, pSize[0], pSize[1]);
-    scale.x = gSize[0] / pSize[0];
-    scale.y = gSize[1] / pSize[1];
+  /**
+   * Starts laying out the game geography from the given blueprint
+   *
+   * <p>This creates the (empty) world and applies the level settings. The models themselves are
+   * created by {@link #populateStep}, which must be called until it returns true before the level
+   * is simulated.
+   *
+   * @param directory the asset manager
+   * @param blueprint the blueprint of the level
+   */
+  public void beginPopulate(AssetDirectory directory, LevelBlueprint blueprint) {
+    this.directory = directory;
+    this.blueprint = blueprint;
+    source = blueprint;
+    nextDescriptor = 0;
 
-    JsonValue layer = levelFormat.get("layers").child();
-    while (layer != null) {
-      JsonValue tileProperties = null;
-      if (layer.get("properties") != null) {
-        tileProperties = layer.get("properties").child();
-      }
-      switch (layer.getString("name")) {
-        case "level":
-          makeTiles(numTilesHorizontal, numTilesVertical, layer.get("data").asIntArray(), tileWidth,
-              tileHeight, directory, tileProperties, false);
-          break;
-        case "pass":
-          makeTiles(numTilesHorizontal, numTilesVertical, layer.get("data").asIntArray(), tileWidth,
-              tileHeight, directory, tileProperties, true);
-          break;
-        case "objects":
-          if (layer.get("objects") != null) {
-            makeObjects(directory, layer.get("objects").child(), gSize[1]);
-          }
-          break;
-        case "deco":
-          if (layer.get("data") != null) {
-            makeDecoTiles(numTilesHorizontal, numTilesVertical, layer.get("data").asIntArray(),
-                tileWidth,
-                tileHeight,
-                directory);
-          }
-          break;
-      }
-      layer = layer.next();
-    }
-  }
-
-  /**
-   * Adds tiles to the level according to the data array provided by Tiled.
-   *
-   * @param cols           the number of columns of the data array
-   * @param rows           the number of rows of the data array
-   * @param data           the data array
-   * @param tileWidth      the width of a tile in pixels
-   * @param tileHeight     the height of a tile in pixels
-   * @param directory      the asset directory
-   * @param tileProperties additional tile properties
-   */
-  private void makeTiles(int cols, int rows, int[] data, int tileWidth, int tileHeight,
-      AssetDirectory directory, JsonValue tileProperties, boolean passThrough) {
-    for (int i = 0; i < data.length; i++) {
-      if (data[i] != 0) {
-        // i % numCols = how deep in x
-        // i / numCols = how deep in y
-        int xPos = (i % cols) * tileWidth;
-        // subtract from full height since data starts at the top
-        int yPos = tileHeight * rows - (i / cols) * tileHeight;
-        PlatformModel obj = passThrough ? new PassThroughPlatformModel() : new PlatformModel();
-        obj.setDrawScale(scale);
-        obj.initializeAsTile(xPos, yPos, (float) tileHeight, directory, "" + data[i],
-            tileProperties);
-        activate(obj);
-      }
+    if (blueprint.airResistance != null) {
+      drag.setCoefficient(blueprint.airResistance);
     }
+    timer = blueprint.timer;
+    world = new World(new Vector2(0, blueprint.gravity), true);
+    bounds = new Rectangle(blueprint.bounds);
+    scale.set(blueprint.scale);
   }
 
-  private void makeDecoTiles(int cols, int rows, int[] data, int tileWidth, int tileHeight,
-      AssetDirectory directory) {
-    for (int i = 0; i < data.length; i++) {
-      if (data[i] != 0) {
-        // i % numCols = how deep in x
-        // i / numCols = how deep in y
-        int xPos = (i % cols) * tileWidth;
-        // subtract from full height since data starts at the top
-        int yPos = tileHeight * rows - (i / cols) * tileHeight;
+  /**
+   * Creates the next models of the level, for at most (roughly) the given amount of time
+   *
+   * <p>At least one model is created per call, so the level is always making progress.
+   *
+   * @param budget the time budget in nanoseconds
+   * @return true if the level is now complete
+   */
+  public boolean populateStep(long budget) {
+    if (blueprint == null) {
+      return true;
+    }
+    long start = TimeUtils.nanoTime();
+    Array<LevelBlueprint.Descriptor> descriptors = blueprint.descriptors;
+    do {
+      create(descriptors.get(nextDescriptor++));
+    } while (nextDescriptor < descriptors.size && TimeUtils.timeSinceNanos(start) < budget);
 
-        DecorationModel obj = new DecorationModel();
-        obj.setDrawScale(scale);
-        obj.initialize(xPos, yPos, (float) tileHeight, directory, "" + (data[i]));
-        decoobjects.add(obj);
-      }
+    if (nextDescriptor >= descriptors.size) {
+      blueprint = null;
+      directory = null;
+      return true;
     }
+    return false;
   }
 
-  private void makeObjects(AssetDirectory directory, JsonValue objects, int tiledHeight) {
-    while (objects != null) {
-      switch (objects.getString("name")) {
-        case "player":
-          avatar = new PlayerModel();
-          makeObject(avatar, directory, objects, tiledHeight);
-          break;
-        case "npc":
-          npc = new NPCModel();
-          makeObject(npc, directory, objects, tiledHeight);
-          npcPosition = new Vector2(npc.getX(),
-              npc.getY());
-          break;
-        case "exit":
-          goalDoor = new ExitModel();
-          makeObject(goalDoor, directory, objects, tiledHeight);
-          exitPosition = new Vector2(goalDoor.getX(),
-              goalDoor.getY());
-          break;
-        case "slope":
-          SlopeModel slope = new SlopeModel();
-          makeObject(slope, directory, objects, tiledHeight);
-          break;
-        case "fan":
-          FanModel fan = new FanModel();
-          fan.setDrawScale(scale);
-          fan.initialize(directory, objects, tiledHeight);
-          fan.setFanActive(true);
-          activate(fan);
-          fans.add(fan);
-          break;
-        case "bounce":
-          BouncePlatformModel bounce = new BouncePlatformModel();
-          makeObject(bounce, directory, objects, tiledHeight);
-          break;
-        case "breakable":
-          BreakablePlatformModel breakable = new BreakablePlatformModel();
-          makeObject(breakable, directory, objects, tiledHeight);
-          break;
-      }
-      objects = objects.next();
+  /**
+   * Returns true if the level is still being populated
+   *
+   * @return true if the level is still being populated
+   */
+  public boolean isPopulating() {
+    return blueprint != null;
+  }
+
+  /**
+   * Applies an edited version of the level to the running level.
+   *
+   * <p>Only the models that changed are touched: the models of tiles and objects that are gone
+   * are removed from the world, the models of new ones are created, and objects whose properties
+   * changed have them set again. Everything else, and in particular the player, keeps its state.
+   *
+   * <p>This is not possible while the level is still being populated, or if the edit changed
+   * the size or scale of the level. In that case nothing is changed, and the level must be reset
+   * instead.
+   *
+   * @param directory the asset manager
+   * @param edited    the blueprint of the edited level
+   * @return true if the edit was applied, or false if the level must be reset instead
+   */
+  public boolean reload(AssetDirectory directory, LevelBlueprint edited) {
+    if (source == null || isPopulating() || !source.bounds.equals(edited.bounds)
+        || !source.scale.equals(edited.scale) || source.tileHeight != edited.tileHeight
+        || source.pixelHeight != edited.pixelHeight) {
+      return false;
+    }
+    LevelDiff diff = LevelDiff.compute(source, edited);
+    world.setGravity(forceCache.set(0, edited.gravity));
+    if (edited.airResistance != null) {
+      drag.setCoefficient(edited.airResistance);
+    }
+    this.directory = directory;
+    source = edited;
 
-      // Once both npc and goalDoor is initialized send information to npc to setDistance
-      if (npc != null && goalDoor != null) {
-        // Included offset to account for width of the objects
-        float offset = (npc.getWidth() + goalDoor.getWidth()) / 2.0f;
-        npc.setDistance(npcPosition, exitPosition, offset);
+    ObjectMap<LevelBlueprint.Descriptor, Obstacle> previous = new ObjectMap<>(models);
+    models.clear();
+    for (LevelBlueprint.Descriptor descriptor : diff.removed) {
+      remove(previous.get(descriptor));
+    }
+    for (ObjectMap.Entry<LevelBlueprint.Descriptor, LevelBlueprint.Descriptor> entry : diff.kept) {
+      models.put(entry.key, previous.get(entry.value));
+    }
+    Array<LevelBlueprint.Descriptor> rebuilt = new Array<>(diff.added);
+    for (ObjectMap.Entry<LevelBlueprint.Descriptor, LevelBlueprint.Descriptor> entry :
+        diff.updated) {
+      SimpleObstacle model = (SimpleObstacle) previous.get(entry.value);
+      if (model == null) {
+        models.put(entry.key, null);
+      } else if (model == avatar || objectFactory.canUpdate(entry.value.json, entry.key.json)) {
+        // The player is never rebuilt, so that it keeps its state
+        objectFactory.update(model, entry.value.json, entry.key.json, directory);
+        models.put(entry.key, model);
+      } else {
+        remove(model);
+        rebuilt.add(entry.key);
       }
-      
     }
+    for (LevelBlueprint.Descriptor descriptor : rebuilt) {
+      create(descriptor);
+    }
+    // Bodies asleep would not notice the new gravity or the terrain changing around them
+    for (int ii = 0; ii < dynamicObjects.size(); ii++) {
+      dynamicObjects.get(ii).setAwake(true);
+    }
+    this.directory = null;
+    return true;
+  }
 
+  /**
+   * Removes a model from the level and returns it to its pool
+   *
+   * @param obj the model to remove (may be null)
+   */
+  private void remove(Obstacle obj) {
+    if (obj == null || obj == avatar) {
+      return;
+    }
+    if (obj instanceof DecorationModel) {
+      decoobjects.remove(obj);
+      decorations.remove((DecorationModel) obj);
+    } else {
+      deactivate(obj);
+    }
+    if (obj == npc) {
+      npc = null;
+    }
+    if (obj == goalDoor) {
+      goalDoor = null;
+    }
+    free(obj);
+  }
 
+  /**
+   * Creates the model for a single descriptor and adds it to the level
+   *
+   * @param descriptor the model descriptor
+   */
+  private void create(LevelBlueprint.Descriptor descriptor) {
+    Obstacle model = null;
+    switch (descriptor.kind) {
+      case TILE:
+      case PASS_TILE:
+        PlatformModel tile = descriptor.kind == LevelBlueprint.Kind.PASS_TILE
+            ? obtain(PassThroughPlatformModel.class) : obtain(PlatformModel.class);
+        tile.setDrawScale(scale);
+        tile.initializeAsTile(descriptor.x, descriptor.y, source.tileHeight, directory,
+            "" + descriptor.tile, descriptor.json);
+        activate(tile);
+        terrain.add(tile);
+        model = tile;
+        break;
+      case BLOCK:
+        TileBlockModel block = obtain(TileBlockModel.class);
+        block.setDrawScale(scale);
+        block.initializeAsBlock(descriptor.x, descriptor.y, descriptor.width, descriptor.height,
+            descriptor.json);
+        float[] tiles = descriptor.tiles;
+        for (int ii = 0; ii < tiles.length; ii += 3) {
+          block.addTile(getTileRegion(tiles[ii]), tiles[ii + 1], tiles[ii + 2]);
+        }
+        activate(block);
+        terrain.add(block);
+        model = block;
+        break;
+      case CHAIN:
+        TileChainModel chain = obtain(TileChainModel.class);
+        chain.setDrawScale(scale);
+        chain.initialize(descriptor.json);
+        // Not a for-each, as the blueprint may be shared with levels on other threads
+        for (int ii = 0; ii < descriptor.loops.size; ii++) {
+          chain.addLoop(descriptor.loops.get(ii));
+        }
+        tiles = descriptor.tiles;
+        for (int ii = 0; ii < tiles.length; ii += 3) {
+          chain.addTile(getTileRegion(tiles[ii]), tiles[ii + 1], tiles[ii + 2]);
+        }
+        activate(chain);
+        terrain.add(chain);
+        model = chain;
+        break;
+      case DECORATION:
+        DecorationModel deco = obtain(DecorationModel.class);
+        deco.setDrawScale(scale);
+        deco.initialize(descriptor.x, descriptor.y, (float) source.tileHeight, directory,
+            "" + descriptor.tile);
+        decoobjects.add(deco);
+        decorations.add(deco);
+        model = deco;
+        break;
+      case OBJECT:
+        model = makeObject(descriptor.json);
+        break;
+    }
+    if (model != null) {
+      models.put(descriptor, model);
+    }
   }
 
-  public void dispose() {
+  /**
+   * Returns the texture region of the given tile id, from the tile atlas once it is packed
+   */
+  private TextureRegion getTileRegion(float tile) {
+    return directory.getEntry("" + (int) tile, TextureRegion.class);
+  }
+
+  /**
+   * Creates the model for a single Tiled object
+   *
+   * @param object the object JSON
+   * @return the model of the object, or null if the object type is unknown
+   */
+  private SimpleObstacle makeObject(JsonValue object) {
+    SimpleObstacle obstacle = objectFactory.create(directory, object, scale,
+        source.pixelHeight);
+    if (obstacle != null) {
+      activate(obstacle);
+    }
+
+    // Once both npc and goalDoor is initialized send information to npc to setDistance
+    if (npc != null && goalDoor != null) {
+      // Included offset to account for width of the objects
+      float offset = (npc.getWidth() + goalDoor.getWidth()) / 2.0f;
+      npc.setDistance(npcPosition, exitPosition, offset);
+    }
+    return obstacle;
+  }
+
+  /**
+   * Removes every object of the level and destroys its world, so that a new level can be built.
+   *
+   * <p>The tile caches keep their sprite caches, to draw the next level with.
+   */
+  public void clear() {
+    blueprint = null;
+    source = null;
+    avatar = null;
+    npc = null;
+    goalDoor = null;
+    models.clear();
+    directory = null;
     for (Obstacle obj : objects) {
       obj.deactivatePhysics(world);
+      free(obj);
     }
     objects.clear();
+    entries.clear();
+    grid.clear();
+    terrain.clear();
+    decorations.clear();
+    fans.clear();
+    breakables.clear();
+    breakQueue.clear();
+    debris.clear();
+    bouncePads.clear();
+    passThroughs.clear();
+    staticObjects.clear();
+    kinematicObjects.clear();
+    dynamicObjects.clear();
+    for (DecorationModel deco : decoobjects) {
+      free(deco);
+    }
+    decoobjects.clear();
     if (world != null) {
       world.dispose();
       world = null;
     }
   }
 
+  /**
+   * Removes every object of the level and frees the tile caches
+   */
+  public void dispose() {
+    clear();
+    terrain.dispose();
+    decorations.dispose();
+  }
+
+  /**
+   * Adds a pool for models of exactly the given class
+   *
+   * @param type    the model class
+   * @param factory creates a new model when the pool is empty
+   */
+  private <T extends Obstacle> void addPool(Class<T> type, Supplier<T> factory) {
+    pools.put(type, new Pool<T>() {
+      @Override
+      protected T newObject() {
+        return factory.get();
+      }
+    });
+  }
+
+  /**
+   * Returns a model of the given class from its pool, in its just-constructed state
+   *
+   * @param type the model class, which must have a pool
+   * @return a model of the given class
+   */
+  @SuppressWarnings("unchecked")
+  private <T extends Obstacle> T obtain(Class<T> type) {
+    return ((Pool<T>) pools.get(type)).obtain();
+  }
+
+  /**
+   * Returns a model to its pool, if its class has one. The model must not have a body.
+   *
+   * @param obj the model to recycle
+   */
+  @SuppressWarnings("unchecked")
+  private void free(Obstacle obj) {
+    Pool<Obstacle> pool = (Pool<Obstacle>) pools.get(obj.getClass());
+    if (pool != null) {
+      pool.free(obj);
+    }
+  }
+
   /**
    * Immediately adds the object to the physics world
    *
+   * <p>The object is also added to the registries of its body type and gameplay role, so that
+   * every system only loops over the objects it cares about.
+   *
    * <p>param obj The object to add
    */
   protected void activate(Obstacle obj) {
     assert inBounds(obj) : "Object is not in bounds";
-    objects.add(obj);
+    entries.put(obj, objects.append(obj));
+    getObjects(obj.getBodyType()).add(obj);
+    if (obj instanceof FanModel) {
+      fans.add((FanModel) obj);
+    } else if (obj instanceof BreakablePlatformModel) {
+      breakables.add((BreakablePlatformModel) obj);
+    } else if (obj instanceof BouncePlatformModel) {
+      bouncePads.add((BouncePlatformModel) obj);
+    } else if (obj instanceof PassThroughPlatformModel) {
+      passThroughs.add((PassThroughPlatformModel) obj);
+    } else if (obj instanceof DebrisModel) {
+      debris.add((DebrisModel) obj);
+    }
     obj.activatePhysics(world);
+    grid.put(obj, obj.getBounds(boundsCache));
   }
 
   /**
-   * Applies air resistance to all objects
+   * Immediately removes the object from the physics world and from every registry
+   *
+   * <p>This takes constant time. Objects that are not in the world are ignored.
+   *
+   * @param obj The object to remove
+   */
+  protected void deactivate(Obstacle obj) {
+    PooledList<Obstacle>.Entry entry = entries.remove(obj);
+    if (entry == null) {
+      return;
+    }
+    entry.remove();
+    grid.remove(obj);
+    if (obj instanceof StaticTile) {
+      terrain.remove((StaticTile) obj);
+    }
+    staticObjects.remove(obj);
+    kinematicObjects.remove(obj);
+    dynamicObjects.remove(obj);
+    if (obj instanceof FanModel) {
+      fans.remove((FanModel) obj);
+    } else if (obj instanceof BreakablePlatformModel) {
+      breakables.remove((BreakablePlatformModel) obj);
+    } else if (obj instanceof BouncePlatformModel) {
+      bouncePads.remove((BouncePlatformModel) obj);
+    } else if (obj instanceof PassThroughPlatformModel) {
+      passThroughs.remove((PassThroughPlatformModel) obj);
+    } else if (obj instanceof DebrisModel) {
+      debris.remove((DebrisModel) obj);
+    }
+    obj.deactivatePhysics(world);
+  }
+
+  /**
+   * Applies air resistance to every dynamic object that is awake and moving (see
+   * {@link DragSystem})
    * <p>
    * TODO: Figure out rotational air resistance
    */
   public void applyAirResistance() {
-    for (Obstacle obj : objects) {
+    drag.apply();
+  }
 
-      float velX = obj.getVX();
-      float velY = obj.getVY();
+  /**
+   * Applies the wind of every fan to the objects in it, for the next physics step
+   */
+  public void applyWind() {
+    for (int ii = 0; ii < fans.size(); ii++) {
+      fans.get(ii).getWind().applyForces();
+    }
+  }
 
-      // Apply air resistance force opposite of velocity
-      float airResistanceX = -Math.signum(velX) * airResistance * velX * velX;
-      float airResistanceY = -Math.signum(velY) * airResistance * velY * velY;
+  /**
+   * Records the transform of every object before a physics step (see {@link #interpolate})
+   */
+  public void saveTransforms() {
+    for (Obstacle obj : objects) {
+      obj.saveTransform();
+    }
+  }
 
-      forceCache.set(airResistanceX, airResistanceY);
-      obj.getBody().applyForce(forceCache, obj.getPosition(), true);
+  /**
+   * Works out where to draw every object, part of the way between the last two physics steps
+   *
+   * @param alpha how far into the next physics step the frame is, between 0 and 1
+   */
+  public void interpolate(float alpha) {
+    for (Obstacle obj : objects) {
+      obj.interpolate(alpha);
     }
   }
 
@@ -504,45 +952,187 @@ public class LevelModel {
    * <p>If debug mode is true, it will outline all physics bodies as wireframes. Otherwise it will
    * only draw the sprite representations.
    *
+   * <p>The tiles never move, so they are drawn from tile caches (see {@link TileCache}) and only
+   * the other objects are drawn one by one. Only the objects on screen are drawn, which are found
+   * with a spatial grid. The static objects never leave their cells, so only the moving objects
+   * are put in the grid again before drawing.
+   *
+   * <p>The objects are drawn in a sorted pass (see {@link GameCanvas#beginSorted()}), so that
+   * the static objects are drawn first, then the other objects, then the characters, each grouped
+   * by texture to flush the sprite batch as rarely as possible.
+   *
+   * <p>The level is drawn between {@link GameCanvas#beginWorld()} and
+   * {@link GameCanvas#endWorld()}, so that it is drawn at the resolution of its art when the canvas
+   * is pixel scaling.
+   *
    * @param canvas the drawing context
    */
   public void draw(GameCanvas canvas) {
+    canvas.beginWorld();
     canvas.clear();
 
-    canvas.begin();
-    for (Obstacle obj : objects) {
-      obj.draw(canvas);
+    for (int ii = 0; ii < kinematicObjects.size(); ii++) {
+      Obstacle obj = kinematicObjects.get(ii);
+      grid.put(obj, obj.getBounds(boundsCache));
     }
-    // Added decoration draw
-    for (DecorationModel obj : decoobjects) {
-      obj.draw(canvas);
-      //System.out.println("drawing decoration");
+    for (int ii = 0; ii < dynamicObjects.size(); ii++) {
+      Obstacle obj = dynamicObjects.get(ii);
+      grid.put(obj, obj.getBounds(boundsCache));
+    }
+    canvas.getVisibleBounds(viewCache);
+    viewCache.set(viewCache.x / scale.x - DRAW_MARGIN, viewCache.y / scale.y - DRAW_MARGIN,
+        viewCache.width / scale.x + 2 * DRAW_MARGIN, viewCache.height / scale.y + 2 * DRAW_MARGIN);
+    grid.query(viewCache, visible);
+
+    canvas.drawCache(terrain);
+    canvas.beginSorted();
+    for (int ii = 0; ii < visible.size; ii++) {
+      Obstacle obj = visible.get(ii);
+      if (!(obj instanceof StaticTile && terrain.contains((StaticTile) obj))) {
+        canvas.setLayer(getLayer(obj));
+        obj.draw(canvas);
+      }
     }
     canvas.end();
+    canvas.drawCache(decorations);
 
     if (debug) {
       canvas.beginDebug();
-      for (Obstacle obj : objects) {
-        obj.drawDebug(canvas);
+      for (int ii = 0; ii < visible.size; ii++) {
+        visible.get(ii).drawDebug(canvas);
       }
       canvas.endDebug();
     }
+    visible.clear();
+    canvas.endWorld();
   }
 
+  /**
+   * Returns the layer an object is drawn in
+   *
+   * @param obj the object
+   * @return the layer of the object
+   */
+  private int getLayer(Obstacle obj) {
+    if (obj == avatar || obj == npc) {
+      return LAYER_CHARACTERS;
+    }
+    return obj.getBodyType() == BodyType.StaticBody ? LAYER_TERRAIN : LAYER_PROPS;
+  }
+
+  /**
+   * Marks a platform as broken and queues it for removal once the physics step is over.
+   *
+   * <p>This is meant to be called from the contact callbacks, where the world is locked and no
+   * body can be destroyed. A platform that is already broken is ignored.
+   *
+   * @param platform the platform that broke
+   */
+  public void queueBreak(BreakablePlatformModel platform) {
+    if (platform.isBroken()) {
+      return;
+    }
+    platform.setBroken(true);
+    breakQueue.add(platform);
+  }
+
+  /**
+   * Removes the platforms that broke during the last physics step, shattering them into debris
+   *
+   * <p>This must be called after the world step, outside of any contact callback.
+   */
   public void breakPlatforms() {
-    for (Obstacle obj : objects) {
-      if (obj instanceof BreakablePlatformModel) {
-        if (((BreakablePlatformModel) obj).isBroken()) {
-          objects.remove(obj);
-          obj.deactivatePhysics(world);
-        }
+    for (int ii = 0; ii < breakQueue.size; ii++) {
+      BreakablePlatformModel platform = breakQueue.get(ii);
+      if (platform.getDebrisPieces() > 0 && platform.getTexture() != null) {
+        shatter(platform);
+      }
+      wakeTouching(platform.getBody());
+      deactivate(platform);
+    }
+    breakQueue.clear();
+  }
+
+  /**
+   * Wakes the bodies touching a body.
+   *
+   * <p>Box2D does not wake a body asleep on another body that goes away or stops being solid, so
+   * this must be called whenever that happens, or the body would be left floating.
+   *
+   * @param body the body (may be null)
+   */
+  static void wakeTouching(Body body) {
+    if (body == null) {
+      return;
+    }
+    for (Contact contact : body.getWorld().getContactList()) {
+      Body bodyA = contact.getFixtureA().getBody();
+      Body bodyB = contact.getFixtureB().getBody();
+      if (bodyA == body) {
+        bodyB.setAwake(true);
+      } else if (bodyB == body) {
+        bodyA.setAwake(true);
       }
     }
   }
 
-  public void makeObject(SimpleObstacle obstacle, AssetDirectory directory, JsonValue objects,
-      int tiledHeight) {
-    TiledJsonParser.initObjectFromJson(obstacle, directory, objects, scale, tiledHeight);
-    activate(obstacle);
+  /**
+   * Ages the debris of broken platforms, removing the pieces that expired
+   *
+   * @param dt the length of the physics step, in seconds
+   */
+  public void updateDebris(float dt) {
+    // Loop from the end, as removing a piece moves the last one into its place
+    for (int ii = debris.size() - 1; ii >= 0; ii--) {
+      DebrisModel piece = debris.get(ii);
+      if (piece.age(dt)) {
+        remove(piece);
+      }
+    }
+  }
+
+  /**
+   * Adds the debris of a broken platform to the world.
+   *
+   * <p>The platform breaks into a grid of pieces, each drawing its part of the platform texture.
+   * The pieces fly outwards, carried along by the player that broke the platform.
+   *
+   * @param platform the broken platform
+   */
+  private void shatter(BreakablePlatformModel platform) {
+    int pieces = platform.getDebrisPieces();
+    float width = platform.getWidth() / pieces;
+    float height = platform.getHeight() / pieces;
+    float left = platform.getX() - platform.getWidth() / 2;
+    float bottom = platform.getY() - platform.getHeight() / 2;
+    TextureRegion texture = platform.getTexture();
+    int pixelWidth = texture.getRegionWidth() / pieces;
+    int pixelHeight = texture.getRegionHeight() / pieces;
+    if (avatar != null) {
+      forceCache.set(avatar.getLinearVelocity()).scl(DEBRIS_INHERITED_VELOCITY);
+    } else {
+      forceCache.setZero();
+    }
+
+    for (int col = 0; col < pieces; col++) {
+      for (int row = 0; row < pieces; row++) {
+        DebrisModel piece = obtain(DebrisModel.class);
+        piece.setDimension(width, height);
+        piece.setPosition(left + (col + 0.5f) * width, bottom + (row + 0.5f) * height);
+        piece.setAngle(platform.getAngle());
+        piece.setFriction(platform.getFriction());
+        // The spread is -1 to 1 from one side of the platform to the other
+        float spreadX = 2 * (col + 0.5f) / pieces - 1;
+        float spreadY = 2 * (row + 0.5f) / pieces - 1;
+        piece.setVX(forceCache.x + spreadX * DEBRIS_SPEED);
+        piece.setVY(forceCache.y + (spreadY + 1) * DEBRIS_SPEED);
+        piece.setAngularVelocity(-spreadX * DEBRIS_SPIN);
+        piece.setTexture(texture, col * pixelWidth, (pieces - 1 - row) * pixelHeight,
+            pixelWidth, pixelHeight);
+        piece.setDrawScale(scale);
+        piece.setLifetime(platform.getDebrisLifetime());
+        activate(piece);
+      }
+    }
   }
 }
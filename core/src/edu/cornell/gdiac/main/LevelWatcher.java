@@ -0,0 +1,146 @@
+package edu.cornell.gdiac.main;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.ObjectSet;
+import edu.cornell.gdiac.util.LevelData;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the Tiled level files and rebuilds the blueprint of every level that is saved.
+ *
+ * <p>This is a development tool: it lets a level be edited in Tiled while the game is running.
+ * A daemon thread waits for changes to the level files, reads the changed levels and works out
+ * their blueprints, so the main thread only has to pick them up with {@link #poll} and apply them
+ * (see {@link LevelModel#reload}).
+ */
+public class LevelWatcher implements Disposable {
+
+  /**
+   * The directory (relative to the assets) of the Tiled levels
+   */
+  private static final String LEVEL_DIRECTORY = "jsons";
+  /**
+   * How long to wait for more changes after a change, in milliseconds. Tiled (like most
+   * editors) may touch a file several times while saving it.
+   */
+  private static final long SETTLE_TIME = 50;
+
+  /**
+   * The watched level directory
+   */
+  private final FileHandle folder;
+  /**
+   * The file system watch service
+   */
+  private final WatchService watcher;
+  /**
+   * The watching thread
+   */
+  private final Thread thread;
+  /**
+   * The blueprints of the levels that changed, waiting to be picked up
+   */
+  private final ConcurrentLinkedQueue<LevelBlueprint> changed;
+
+  /**
+   * Starts watching the Tiled level files
+   *
+   * @throws GdxRuntimeException if the level directory cannot be watched
+   */
+  public LevelWatcher() {
+    folder = Gdx.files.local(LEVEL_DIRECTORY);
+    changed = new ConcurrentLinkedQueue<>();
+    try {
+      watcher = FileSystems.getDefault().newWatchService();
+      folder.file().toPath().register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+          StandardWatchEventKinds.ENTRY_MODIFY);
+    } catch (IOException e) {
+      throw new GdxRuntimeException("Could not watch " + folder.path(), e);
+    }
+    thread = new Thread(this::watch, "LevelWatcher");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Returns the blueprint of the next level that changed, or null if no level changed
+   *
+   * <p>The name of the blueprint is the asset key of the level.
+   *
+   * @return the blueprint of the next level that changed, or null
+   */
+  public LevelBlueprint poll() {
+    return changed.poll();
+  }
+
+  /**
+   * Waits for changes to the level files until the watch service is closed
+   */
+  private void watch() {
+    ObjectSet<String> keys = new ObjectSet<>();
+    try {
+      while (true) {
+        WatchKey key = watcher.take();
+        // Collect every change made while the files are being saved
+        do {
+          for (WatchEvent<?> event : key.pollEvents()) {
+            String file = ((Path) event.context()).getFileName().toString();
+            if (file.startsWith("level") && file.endsWith(".json")) {
+              keys.add(file.substring(0, file.length() - ".json".length()));
+            }
+          }
+          key.reset();
+          key = watcher.poll(SETTLE_TIME, TimeUnit.MILLISECONDS);
+        } while (key != null);
+
+        for (String level : keys) {
+          rebuild(level);
+        }
+        keys.clear();
+      }
+    } catch (InterruptedException | ClosedWatchServiceException e) {
+      // Disposed
+    }
+  }
+
+  /**
+   * Reads a changed level and queues its blueprint
+   *
+   * @param level the asset key of the level
+   */
+  private void rebuild(String level) {
+    FileHandle file = folder.child(level + ".json");
+    try {
+      LevelData data = LevelData.fromJson(new JsonReader().parse(file));
+      changed.add(LevelBlueprint.build(level, data));
+    } catch (RuntimeException e) {
+      // Most likely saved while we were reading it; the next save will try again
+      Gdx.app.error("LevelWatcher", "Could not read " + file.path(), e);
+    }
+  }
+
+  /**
+   * Stops watching the level files
+   */
+  public void dispose() {
+    try {
+      watcher.close();
+    } catch (IOException e) {
+      Gdx.app.error("LevelWatcher", "Could not stop watching " + folder.path(), e);
+    }
+    thread.interrupt();
+  }
+}
@@ -14,9 +14,10 @@ package edu.cornell.gdiac.main;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.Fixture;
-import com.badlogic.gdx.utils.JsonValue;
 import edu.cornell.gdiac.physics.obstacle.CapsuleObstacle;
-import java.lang.reflect.Field;
+import edu.cornell.gdiac.util.CollisionCategory;
+import edu.cornell.gdiac.util.PropertyBinder;
+import edu.cornell.gdiac.util.TiledJsonParser;
 
 /**
  * NPC for the platform game.
@@ -26,6 +27,22 @@ import java.lang.reflect.Field;
  */
 public class NPCModel extends CapsuleObstacle {
 
+  /**
+   * The Tiled properties of an NPC
+   */
+  public static final PropertyBinder<NPCModel> PROPERTIES =
+      new PropertyBinder<NPCModel>(TiledJsonParser.OBSTACLE_PROPERTIES)
+          .bindFloat("defaultspeed", NPCModel::setdefaultSpeed)
+          .bindString("sensorcolor",
+              (npc, value) -> npc.sensorColor = TiledJsonParser.getColor(value))
+          .bindInt("sensoropacity", (npc, value) -> {
+            if (npc.sensorColor != null) {
+              npc.sensorColor.mul(value / 255.0f);
+            }
+          })
+          .bindInt("timer", NPCModel::setTimer)
+          .fixed("sensorcolor", "sensoropacity");
+
   /**
    * The maximum npc speed
    */
@@ -67,6 +84,8 @@ public class NPCModel extends CapsuleObstacle {
    */
   public NPCModel() {
     super(0, 0, 0.5f, 1.0f);
+    setContactTag(ContactTag.NPC);
+    CollisionCategory.NPC.applyTo(this);
     setFixedRotation(true);
     isStop = false;
     // Gameplay attributes
@@ -138,53 +157,6 @@ public class NPCModel extends CapsuleObstacle {
     }
   }
 
-
-  /**
-   * Initializes the player via the given JSON value
-   * <p>
-   * The JSON value has been parsed and is part of a bigger level file.  However, this JSON value is
-   * limited to the player subtree
-   *
-   * @param directory the asset manager
-   * @param json      the JSON subtree defining the player
-   */
-  public void initialize(JsonValue json) {
-    setName(json.get("name").asString());
-
-    JsonValue properties = json.get("properties").child();
-    while (properties != null) {
-      switch (properties.getString("name")) {
-        case "defaultspeed":
-          setdefaultSpeed(properties.getFloat("value"));
-          break;
-        case "sensorcolor":
-          try {
-            String cname = properties.getString("value").toUpperCase();
-            Field field = Class.forName("com.badlogic.gdx.graphics.Color").getField(cname);
-            sensorColor = new Color((Color) field.get(null));
-          } catch (Exception e) {
-            sensorColor = null; // Not defined
-          }
-          break;
-        case "sensoropacity":
-          int opacity = properties.get("value").asInt();
-          if (sensorColor != null) {
-            sensorColor.mul(opacity / 255.0f);
-          }
-          break;
-        case "timer":
-          int time = properties.getInt("value");
-          setTimer(time);
-          break;
-        default:
-          break;
-      }
-
-      properties = properties.next();
-    }
-  }
-
-
   /**
    * Applies the movement to the NPC
    */
@@ -222,8 +194,8 @@ public class NPCModel extends CapsuleObstacle {
     if (texture != null) {
       float effect = faceRight ? 1.0f : -1.0f;
       canvas.draw(texture, color, origin.x, origin.y,
-          getX() * drawScale.x,
-          getY() * drawScale.y, getAngle(), effect, 1.0f);
+          getDrawX() * drawScale.x,
+          getDrawY() * drawScale.y, getDrawAngle(), effect, 1.0f);
     }
   }
 }
\ No newline at end of file
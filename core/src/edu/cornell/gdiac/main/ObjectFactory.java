@@ -0,0 +1,256 @@
+package edu.cornell.gdiac.main;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.ObjectMap;
+import edu.cornell.gdiac.assets.AssetDirectory;
+import edu.cornell.gdiac.physics.obstacle.SimpleObstacle;
+import edu.cornell.gdiac.util.PropertyBinder;
+import edu.cornell.gdiac.util.TiledJsonParser;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Creates the models of Tiled objects, by Tiled object type.
+ *
+ * <p>Every object type is registered once with everything needed to build it: how to construct
+ * the model, how to place it, the {@link PropertyBinder} for its properties and any model specific
+ * initialization. Creating an object is then a single lookup, and supporting a new kind of object
+ * only takes a new registration.
+ */
+public class ObjectFactory {
+
+  /**
+   * Places a newly constructed model at the position of its Tiled object
+   */
+  public interface Placement<T> {
+
+    /**
+     * Places the model
+     *
+     * @param object      the model to place
+     * @param json        the Tiled object
+     * @param tiledHeight the height of the level in pixels
+     */
+    void place(T object, JsonValue json, int tiledHeight);
+  }
+
+  /**
+   * Initializes a model once it is placed and its properties are set
+   */
+  public interface Initializer<T> {
+
+    /**
+     * Initializes the model
+     *
+     * @param object    the model to initialize
+     * @param directory the asset directory
+     * @param json      the Tiled object
+     */
+    void initialize(T object, AssetDirectory directory, JsonValue json);
+  }
+
+  /**
+   * Everything needed to build the model of a Tiled object type
+   *
+   * @param <T> the model class
+   */
+  public static class ObjectType<T extends SimpleObstacle> {
+
+    /**
+     * The Tiled object type
+     */
+    private final String type;
+    /**
+     * Constructs (or reuses) a model
+     */
+    private final Supplier<T> constructor;
+    /**
+     * Sets the properties of a model
+     */
+    private final PropertyBinder<? super T> properties;
+    /**
+     * Places a model (by default, at its top left corner and with the object size)
+     */
+    private Placement<? super T> placement;
+    /**
+     * Finishes initializing a model, or null if there is nothing left to do
+     */
+    private Initializer<? super T> initializer;
+    /**
+     * Notified of every model built, or null
+     */
+    private Consumer<? super T> listener;
+
+    /**
+     * Creates an object type
+     *
+     * @param type        the Tiled object type
+     * @param constructor constructs (or reuses) a model
+     * @param properties  sets the properties of a model
+     */
+    public ObjectType(String type, Supplier<T> constructor,
+        PropertyBinder<? super T> properties) {
+      this.type = type;
+      this.constructor = constructor;
+      this.properties = properties;
+      offset(0, 0);
+    }
+
+    /**
+     * Places models at their top left corner shifted by the given offset, with the object size
+     *
+     * @param x the x offset in pixels
+     * @param y the y offset in pixels
+     * @return this object type, for chaining
+     */
+    public ObjectType<T> offset(float x, float y) {
+      placement = (object, json, tiledHeight) ->
+          TiledJsonParser.placeObject(object, json, tiledHeight, x, y, true);
+      return this;
+    }
+
+    /**
+     * Sets how models are placed
+     *
+     * @param placement places a model
+     * @return this object type, for chaining
+     */
+    public ObjectType<T> placement(Placement<? super T> placement) {
+      this.placement = placement;
+      return this;
+    }
+
+    /**
+     * Sets the model specific initialization, run after the properties are set
+     *
+     * @param initializer initializes a model
+     * @return this object type, for chaining
+     */
+    public ObjectType<T> then(Initializer<? super T> initializer) {
+      this.initializer = initializer;
+      return this;
+    }
+
+    /**
+     * Sets the listener notified of every model built, before it is added to the world
+     *
+     * @param listener the listener
+     * @return this object type, for chaining
+     */
+    public ObjectType<T> onCreate(Consumer<? super T> listener) {
+      this.listener = listener;
+      return this;
+    }
+
+    /**
+     * Builds the model of a Tiled object
+     */
+    private T create(AssetDirectory directory, JsonValue json, Vector2 drawScale,
+        int tiledHeight) {
+      T object = constructor.get();
+      object.setDrawScale(drawScale);
+      placement.place(object, json, tiledHeight);
+      properties.apply(object, firstProperty(json), directory);
+      if (initializer != null) {
+        initializer.initialize(object, directory, json);
+      }
+      if (listener != null) {
+        listener.accept(object);
+      }
+      return object;
+    }
+
+    /**
+     * Returns true if an existing model can pick up a change of its Tiled object in place
+     */
+    private boolean canUpdate(JsonValue previous, JsonValue json) {
+      return initializer == null && properties.canUpdate(firstProperty(previous),
+          firstProperty(json));
+    }
+
+    /**
+     * Sets the changed properties of an existing model
+     */
+    @SuppressWarnings("unchecked")
+    private void update(SimpleObstacle object, JsonValue previous, JsonValue json,
+        AssetDirectory directory) {
+      ((PropertyBinder<SimpleObstacle>) (PropertyBinder<?>) properties).update(object,
+          firstProperty(previous), firstProperty(json), directory);
+    }
+  }
+
+  /**
+   * The registered object types, by Tiled object type
+   */
+  private final ObjectMap<String, ObjectType<?>> types = new ObjectMap<>();
+
+  /**
+   * Registers an object type, replacing any earlier registration of the same Tiled type
+   *
+   * @param type the object type
+   * @return the object type, for chaining
+   */
+  public <T extends SimpleObstacle> ObjectType<T> register(ObjectType<T> type) {
+    types.put(type.type, type);
+    return type;
+  }
+
+  /**
+   * Builds the model of a Tiled object
+   *
+   * @param directory   the asset directory
+   * @param json        the Tiled object
+   * @param drawScale   the scale from physics units to pixels
+   * @param tiledHeight the height of the level in pixels
+   * @return the model, or null if the object type is not registered
+   */
+  public SimpleObstacle create(AssetDirectory directory, JsonValue json, Vector2 drawScale,
+      int tiledHeight) {
+    ObjectType<?> type = types.get(json.getString("type", ""));
+    return type == null ? null : type.create(directory, json, drawScale, tiledHeight);
+  }
+
+  /**
+   * Returns true if an existing model can pick up a change of its Tiled object in place.
+   *
+   * <p>This is only the case if the model is not initialized any further once its properties are
+   * set, and only properties that can be set on a live model were added or changed (none
+   * removed). Otherwise the model should be rebuilt.
+   *
+   * @param previous the Tiled object the model was built from
+   * @param json     the changed Tiled object
+   * @return true if the model can be {@link #update updated}
+   */
+  public boolean canUpdate(JsonValue previous, JsonValue json) {
+    ObjectType<?> type = types.get(json.getString("type", ""));
+    return type != null && type.canUpdate(previous, json);
+  }
+
+  /**
+   * Sets the properties that changed in a Tiled object on an existing model of that object.
+   *
+   * <p>The model keeps its position, body and any other state. This only picks up every change if
+   * {@link #canUpdate} allows it.
+   *
+   * @param object    the model, built by this factory from the previous version of the object
+   * @param previous  the Tiled object the model was built from
+   * @param json      the changed Tiled object
+   * @param directory the asset directory
+   */
+  public void update(SimpleObstacle object, JsonValue previous, JsonValue json,
+      AssetDirectory directory) {
+    ObjectType<?> type = types.get(json.getString("type", ""));
+    if (type != null) {
+      type.update(object, previous, json, directory);
+    }
+  }
+
+  /**
+   * Returns the first property of a Tiled object, or null if it has none
+   */
+  private static JsonValue firstProperty(JsonValue json) {
+    JsonValue list = json.get("properties");
+    return list == null ? null : list.child();
+  }
+}
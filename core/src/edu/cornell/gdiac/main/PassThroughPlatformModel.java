@@ -8,6 +8,7 @@ import com.badlogic.gdx.utils.JsonValue;
 import com.badlogic.gdx.utils.ObjectSet;
 import edu.cornell.gdiac.assets.AssetDirectory;
 import edu.cornell.gdiac.physics.obstacle.Obstacle;
+import edu.cornell.gdiac.util.CollisionCategory;
 
 public class PassThroughPlatformModel extends PlatformModel {
 
@@ -18,10 +19,12 @@ public class PassThroughPlatformModel extends PlatformModel {
   private Fixture bottomFixture;
   private Color passThroughColor; // Color when pass through state
   private Color solidColor; // Color when solid state
+  private TileCache tileCache; // The cache drawing this platform, or null if drawn every frame
 
   public PassThroughPlatformModel() {
     super();
     region = null;
+    CollisionCategory.PASS_THROUGH.applyTo(this);
 
     // Initially false, we set isPassThrough on interaction
     isPassThrough = false;
@@ -32,21 +35,65 @@ public class PassThroughPlatformModel extends PlatformModel {
     solidColor.a = 0.6f; // Differentiate alpha
   }
 
+  /**
+   * Resets this platform so that it can be reused. The sensors are kept and reshaped when the
+   * platform is initialized again.
+   */
+  @Override
+  public void reset() {
+    super.reset();
+    CollisionCategory.PASS_THROUGH.applyTo(this);
+    isPassThrough = false;
+    tileCache = null;
+    bodyFixture = null;
+    bottomFixture = null;
+    if (bodySensor != null) {
+      bodySensor.obstaclesWithin.clear();
+    }
+  }
+
+  /**
+   * Returns true if the player can pass through this platform
+   *
+   * @return true if the player can pass through this platform
+   */
+  public boolean isPassThrough() {
+    return isPassThrough;
+  }
+
+  /**
+   * Sets whether the player can pass through this platform
+   * <p>
+   * The sensors of the platform call this every time the player touches them, so the fixtures are
+   * only changed when the platform actually switches.
+   *
+   * @param pass whether the player can pass through this platform
+   */
   public void setPassThrough(boolean pass) {
+    if (pass == isPassThrough) {
+      return;
+    }
     isPassThrough = pass;
+    applyPassThrough();
+    LevelModel.wakeTouching(body);
+    if (tileCache != null) {
+      tileCache.invalidate(this);
+    }
+  }
 
+  /**
+   * Makes the solid fixtures of this platform sensors if it is pass-through, and solid otherwise
+   */
+  private void applyPassThrough() {
     if (body == null) {
       return;
     }
 
-    // Set all fixtures to sensors
     for (Fixture fixture : body.getFixtureList()) {
-      fixture.setSensor(isPassThrough);
+      if (fixture != bodyFixture && fixture != bottomFixture) {
+        fixture.setSensor(isPassThrough);
+      }
     }
-
-    // Reset body and bottom sensor fixtures to sensors
-    bodyFixture.setSensor(true);
-    bottomFixture.setSensor(true);
   }
 
   @Override
@@ -66,14 +113,23 @@ public class PassThroughPlatformModel extends PlatformModel {
   private void initFixtureDefs(float width, float height) {
     // Create the body fixture def
     float defaultSensorScale = 1.25f;
-    bodySensor = new BodySensor(0, 0, width / 2 * defaultSensorScale,
-        height / 2 * defaultSensorScale);
+    // (a pooled platform reshapes the sensors it already has)
+    if (bodySensor == null) {
+      bodySensor = new BodySensor(0, 0, width / 2 * defaultSensorScale,
+          height / 2 * defaultSensorScale);
+    } else {
+      bodySensor.setBox(0, 0, width / 2 * defaultSensorScale, height / 2 * defaultSensorScale);
+    }
 
     // Create the bottom fixture def
     float defaultSensorHeight = 0.1f;
     float centerYRel = -height / 2;
-    bottomSensor = new BottomSensor(0, centerYRel, width / 2 * defaultSensorScale,
-        defaultSensorHeight);
+    if (bottomSensor == null) {
+      bottomSensor = new BottomSensor(0, centerYRel, width / 2 * defaultSensorScale,
+          defaultSensorHeight);
+    } else {
+      bottomSensor.setBox(0, centerYRel, width / 2 * defaultSensorScale, defaultSensorHeight);
+    }
   }
 
   @Override
@@ -101,6 +157,11 @@ public class PassThroughPlatformModel extends PlatformModel {
     assert bodyFixtureDef != null;
     assert bottomSensor != null;
     assert bottomFixtureDef != null;
+
+    // New fixtures are solid
+    if (isPassThrough) {
+      applyPassThrough();
+    }
   }
 
   @Override
@@ -121,13 +182,31 @@ public class PassThroughPlatformModel extends PlatformModel {
     }
   }
 
+  /**
+   * Adds the texture of this platform to a tile cache, tinted by whether it is pass-through
+   *
+   * <p>The cache is remembered, so that switching the platform rebuilds the chunk it is in.
+   *
+   * @param cache the tile cache being built
+   */
+  @Override
+  public void cache(TileCache cache) {
+    tileCache = cache;
+    if (texture != null) {
+      cache.add(texture, isPassThrough ? passThroughColor : solidColor,
+          (getX() - getWidth() / 2) * drawScale.x, (getY() - getHeight() / 2) * drawScale.y,
+          getWidth() * drawScale.x, getHeight() * drawScale.y);
+    }
+  }
+
   // If a platform is set to be passed through, increase the transparency of texture so that avatar can be seen
   @Override
   public void draw(GameCanvas canvas) {
-    if (region != null) {
-      canvas.draw(region, isPassThrough ? passThroughColor : solidColor, 0, 0,
-          (getX() - anchor.x) * drawScale.x,
-          (getY() - anchor.y) * drawScale.y, getAngle(), 1, 1);
+    // The tile region may be in an atlas, so it is drawn as a sprite rather than a repeating polygon
+    if (texture != null) {
+      canvas.draw(texture, isPassThrough ? passThroughColor : solidColor,
+          (getDrawX() - getWidth() / 2) * drawScale.x, (getDrawY() - getHeight() / 2) * drawScale.y,
+          getWidth() * drawScale.x, getHeight() * drawScale.y);
     }
 
     // TODO: Draw sensors on debug?
@@ -142,6 +221,11 @@ public class PassThroughPlatformModel extends PlatformModel {
       super(PassThroughPlatformModel.this, x, y, width2, height2);
     }
 
+    @Override
+    public int getContactTag() {
+      return ContactTag.PASS_THROUGH_BOTTOM;
+    }
+
     @Override
     public void beginContact(Obstacle obs, Fixture fixture) {
       if (!(fixture.getUserData() instanceof PlayerModel.BodySensor)) {
@@ -169,6 +253,11 @@ public class PassThroughPlatformModel extends PlatformModel {
       obstaclesWithin = new ObjectSet<>();
     }
 
+    @Override
+    public int getContactTag() {
+      return ContactTag.PASS_THROUGH_BODY;
+    }
+
     @Override
     public void beginContact(Obstacle obs, Fixture fixture) {
       boolean isPlayerBodySensor = fixture.getUserData() instanceof PlayerModel.BodySensor;
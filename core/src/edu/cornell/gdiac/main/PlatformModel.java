@@ -17,7 +17,6 @@
 package edu.cornell.gdiac.main;
 
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.PolygonRegion;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
@@ -26,7 +25,6 @@ import com.badlogic.gdx.utils.JsonValue;
 import edu.cornell.gdiac.assets.AssetDirectory;
 import edu.cornell.gdiac.physics.obstacle.BoxObstacle;
 import edu.cornell.gdiac.util.TiledJsonParser;
-import java.lang.reflect.Field;
 
 /**
  * A polygon shape representing the screen boundary
@@ -35,12 +33,26 @@ import java.lang.reflect.Field;
  * JSON value. In addition, this class overrides the drawing and positioning functions to provide a
  * tiled texture.
  */
-public class PlatformModel extends BoxObstacle {
+public class PlatformModel extends BoxObstacle implements StaticTile {
 
   /**
-   * Texture information for this object
+   * The two triangles of the polygon region, over the four corners of the box
+   */
+  private static final short[] TRIANGLES = {0, 1, 3, 3, 2, 1};
+
+  /**
+   * Texture information for this object, or null until {@link #initRegion} builds it
    */
   protected PolygonRegion region;
+  /**
+   * The polygon region built for this platform, kept when it is pooled so that it can be reused
+   */
+  private PolygonRegion polygon;
+  /**
+   * The texture of {@link #polygon}, set to the texture of this platform whenever it is rebuilt
+   * (the texture coordinates are worked out from the texture itself)
+   */
+  private TextureRegion polygonTexture;
 
   /**
    * The texture anchor upon region initialization
@@ -55,6 +67,15 @@ public class PlatformModel extends BoxObstacle {
     region = null;
   }
 
+  /**
+   * Resets this PlatformModel to its degenerate settings so that it can be reused
+   */
+  @Override
+  public void reset() {
+    super.reset();
+    region = null;
+  }
+
   /**
    * Initializes a PolygonRegion to support a tiled texture
    *
@@ -62,12 +83,21 @@ public class PlatformModel extends BoxObstacle {
    * However, this can cause a problem when we want to move the platform (e.g. a dynamic platform).
    * The purpose of the texture anchor is to ensure that the texture does not move as the object
    * moves.
+   *
+   * <p>This should be called once the platform is placed, sized and textured. Only platforms that
+   * draw their region need it; a pooled platform reuses the region it built before.
    */
-  private void initRegion() {
+  protected void initRegion() {
     if (texture == null) {
       return;
     }
-    float[] scaled = new float[vertices.length];
+    if (polygon == null || polygon.getVertices().length != vertices.length) {
+      polygonTexture = new TextureRegion(texture);
+      polygon = new PolygonRegion(polygonTexture, new float[vertices.length], TRIANGLES);
+    } else {
+      polygonTexture.setRegion(texture);
+    }
+    float[] scaled = polygon.getVertices();
     for (int ii = 0; ii < scaled.length; ii++) {
       if (ii % 2 == 0) {
         scaled[ii] = (vertices[ii] + getX()) * drawScale.x;
@@ -75,98 +105,23 @@ public class PlatformModel extends BoxObstacle {
         scaled[ii] = (vertices[ii] + getY()) * drawScale.y;
       }
     }
-    short[] tris = {0, 1, 3, 3, 2, 1};
-    anchor = new Vector2(getX(), getY());
-    region = new PolygonRegion(texture, scaled, tris);
-  }
-
-  /**
-   * Reset the polygon vertices in the shape to match the dimension.
-   */
-  @Override
-  protected void resize(float width, float height) {
-    super.resize(width, height);
-    initRegion();
-  }
-
-  /**
-   * Sets the current position for this physics body
-   *
-   * <p>This method does not keep a reference to the parameter.
-   *
-   * @param value the current position for this physics body
-   */
-  @Override
-  public void setPosition(Vector2 value) {
-    super.setPosition(value.x, value.y);
-    initRegion();
-  }
-
-  /**
-   * Sets the current position for this physics body
-   *
-   * @param x the x-coordinate for this physics body
-   * @param y the y-coordinate for this physics body
-   */
-  @Override
-  public void setPosition(float x, float y) {
-    super.setPosition(x, y);
-    initRegion();
-  }
-
-  /**
-   * Sets the x-coordinate for this physics body
-   *
-   * @param value the x-coordinate for this physics body
-   */
-  @Override
-  public void setX(float value) {
-    super.setX(value);
-    initRegion();
-  }
-
-  /**
-   * Sets the y-coordinate for this physics body
-   *
-   * @param value the y-coordinate for this physics body
-   */
-  @Override
-  public void setY(float value) {
-    super.setY(value);
-    initRegion();
-  }
-
-  /**
-   * Sets the object texture for drawing purposes.
-   *
-   * <p>In order for drawing to work properly, you MUST set the drawScale. The drawScale converts
-   * the physics units to pixels.
-   *
-   * @param value the object texture for drawing purposes.
-   */
-  @Override
-  public void setTexture(TextureRegion value) {
-    super.setTexture(value);
-    initRegion();
-  }
-
-  /**
-   * Sets the drawing scale for this physics object
-   *
-   * <p>The drawing scale is the number of pixels to draw before Box2D unit. Because mass is a
-   * function of area in Box2D, we typically want the physics objects to be small. So we decouple
-   * that scale from the physics object. However, we must track the scale difference to communicate
-   * with the scene graph.
-   *
-   * <p>We allow for the scaling factor to be non-uniform.
-   *
-   * @param x the x-axis scale for this physics object
-   * @param y the y-axis scale for this physics object
-   */
-  @Override
-  public void setDrawScale(float x, float y) {
-    super.setDrawScale(x, y);
-    initRegion();
+    // A polygon region only works out its texture coordinates when it is constructed
+    float[] coords = polygon.getTextureCoords();
+    float u = texture.getU();
+    float v = texture.getV();
+    float uvWidth = texture.getU2() - u;
+    float uvHeight = texture.getV2() - v;
+    int width = texture.getRegionWidth();
+    int height = texture.getRegionHeight();
+    for (int ii = 0; ii < coords.length; ii += 2) {
+      coords[ii] = u + uvWidth * (scaled[ii] / width);
+      coords[ii + 1] = v + uvHeight * (1 - scaled[ii + 1] / height);
+    }
+    if (anchor == null) {
+      anchor = new Vector2();
+    }
+    anchor.set(getX(), getY());
+    region = polygon;
   }
 
   /**
@@ -186,6 +141,7 @@ public class PlatformModel extends BoxObstacle {
     setDimension(size[0], size[1]);
 
     TiledJsonParser.initPlatformFromJson(this, directory, json);
+    initRegion();
   }
 
   /**
@@ -207,40 +163,31 @@ public class PlatformModel extends BoxObstacle {
     setPosition(x * pixelScaleX, y * pixelScaleY);
     setDimension(tileSize * pixelScaleX, tileSize * pixelScaleY);
     setBodyType(BodyType.StaticBody);
-    TextureRegion textureRegion = new TextureRegion(directory.getEntry(tileKey, Texture.class));
-    setTexture(textureRegion);
-    Color debugColor = null;
-    int debugOpacity = -1;
-    while (tileProperties != null) {
-      switch (tileProperties.getString("name")) {
-        case "density":
-          setDensity(tileProperties.getFloat("value"));
-          break;
-        case "restitution":
-          setRestitution(tileProperties.getFloat("value"));
-          break;
-        case "friction":
-          setFriction(tileProperties.getFloat("value"));
-          break;
-        case "debugcolor":
-          try {
-            String cname = tileProperties.get("value").asString().toUpperCase();
-            Field field = Class.forName("com.badlogic.gdx.graphics.Color").getField(cname);
-            debugColor = new Color((Color) field.get(null));
-          } catch (Exception e) {
-            debugColor = null; // Not defined
-          }
-          break;
-        case "debugopacity":
-          debugOpacity = tileProperties.getInt("value");
-          break;
-      }
-      if (debugOpacity != -1 && debugColor != null) {
-        debugColor.mul(debugOpacity / 255f);
-        setDebugColor(debugColor);
-      }
+    // Tiles never change their texture, so they can all share the one in the directory
+    setTexture(directory.getEntry(tileKey, TextureRegion.class));
+    applyTileProperties(tileProperties);
+  }
+
+  /**
+   * Applies the physics and debug properties of a Tiled tile layer to this platform
+   *
+   * @param tileProperties the first property of the tile layer, or null if there are none
+   */
+  protected void applyTileProperties(JsonValue tileProperties) {
+    TiledJsonParser.initFromTileProperties(this, tileProperties);
+  }
 
-      tileProperties = tileProperties.next();
+  /**
+   * Adds the texture of this tile to a tile cache, covering the tile
+   *
+   * @param cache the tile cache being built
+   */
+  @Override
+  public void cache(TileCache cache) {
+    if (texture != null) {
+      cache.add(texture, Color.WHITE, (getX() - getWidth() / 2) * drawScale.x,
+          (getY() - getHeight() / 2) * drawScale.y, getWidth() * drawScale.x,
+          getHeight() * drawScale.y);
     }
   }
 
@@ -252,9 +199,9 @@ public class PlatformModel extends BoxObstacle {
   public void draw(GameCanvas canvas) {
     // draw must be offset by 8 both ways, not really sure why right now
     // TODO: Maybe something to do with tilesize being 16 => 16 /2
-    if (region != null) {
+    if (texture != null) {
       canvas.draw(
-          texture, (getX()) * drawScale.x - 8, (getY() * drawScale.y) - 8);
+          texture, (getDrawX()) * drawScale.x - 8, (getDrawY() * drawScale.y) - 8);
     }
   }
 }
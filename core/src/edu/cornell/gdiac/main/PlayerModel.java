@@ -12,7 +12,6 @@
 package edu.cornell.gdiac.main;
 
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.Fixture;
@@ -21,15 +20,73 @@ import com.badlogic.gdx.utils.JsonValue;
 import edu.cornell.gdiac.assets.AssetDirectory;
 import edu.cornell.gdiac.physics.obstacle.CapsuleObstacle;
 import edu.cornell.gdiac.physics.obstacle.Obstacle;
-import java.lang.reflect.Field;
+import edu.cornell.gdiac.util.CollisionCategory;
+import edu.cornell.gdiac.util.PropertyBinder;
+import edu.cornell.gdiac.util.TiledJsonParser;
 
 /**
  * Player avatar for the plaform game.
  * <p>
  * Note that the constructor does very little.  The true initialization happens by reading the JSON
  * value.
+ * <p>
+ * The player is always in exactly one {@link State}, worked out from its inputs (frozen, jumping,
+ * dropping) and whether it is on the ground. The setters only record the inputs, which the game
+ * sets every frame. Anything that changes the body, like the density of a frozen player, is done
+ * by the enter and exit hooks of the states, and so only when the state actually changes.
  */
 public class PlayerModel extends CapsuleObstacle {
+
+  /**
+   * The states of the player
+   */
+  public enum State {
+    /**
+     * Standing or walking on the ground
+     */
+    GROUNDED,
+    /**
+     * In the air without having jumped (e.g. after walking off a ledge)
+     */
+    AIRBORNE,
+    /**
+     * In the air after jumping, until landing
+     */
+    JUMPING,
+    /**
+     * On the ground and dropping through the pass-through platforms underneath
+     * <p>
+     * The platforms are made pass-through when the player enters this state, and then as its
+     * ground sensor touches new ones, not every frame the drop input is held.
+     */
+    DROPPING,
+    /**
+     * Frozen solid, on the ground or not
+     */
+    FROZEN
+  }
+
+  /**
+   * The Tiled properties of a player
+   */
+  public static final PropertyBinder<PlayerModel> PROPERTIES =
+      new PropertyBinder<PlayerModel>(TiledJsonParser.OBSTACLE_PROPERTIES)
+          .bindFloat("force", PlayerModel::setForce)
+          .bindFloat("damping", PlayerModel::setDamping)
+          .bindFloat("maxspeed", PlayerModel::setMaxSpeed)
+          .bindFloat("jumpvelocity", PlayerModel::setJumpVelocity)
+          .bindInt("jumplimit", PlayerModel::setJumpLimit)
+          .bindString("sensorcolor",
+              (player, value) -> player.sensorColor = TiledJsonParser.getColor(value))
+          .bindInt("sensoropacity", (player, value) -> {
+            if (player.sensorColor != null) {
+              player.sensorColor.mul(value / 255.0f);
+            }
+          })
+          .bindFloat("fallMultiplier", (player, value) -> player.fallMultiplier = value)
+          .bindFloat("lowJumpMultiplier", (player, value) -> player.lowJumpMultiplier = value)
+          .fixed("sensorcolor", "sensoropacity");
+
   // Physics constants
   /**
    * The initial density of the player configured from the JSON
@@ -70,6 +127,11 @@ public class PlayerModel extends CapsuleObstacle {
    */
   private boolean faceRight;
 
+  /**
+   * The current state of the player
+   */
+  private State state;
+
   // SENSOR FIELDS
   /**
    * Whether our feet are on the ground
@@ -80,7 +142,7 @@ public class PlayerModel extends CapsuleObstacle {
    */
   private int jumpCooldown;
   /**
-   * Whether we are actively jumping
+   * Whether we are trying to jump
    */
   private boolean isJumping;
   // SENSOR FIELDS
@@ -135,15 +197,18 @@ public class PlayerModel extends CapsuleObstacle {
    */
   public PlayerModel() {
     super(0, 0, 0.5f, 1.0f);
+    setContactTag(ContactTag.PLAYER);
+    CollisionCategory.PLAYER.applyTo(this);
     setFixedRotation(true);
 
     // Gameplay attributes
     isGrounded = false;
     isJumping = false;
     isFrozen = false;
+    state = State.AIRBORNE;
     faceRight = true;
     color = Color.WHITE;
-    setDensity(1);
+    setDensity(INITIAL_DENSITY);
 
     jumpCooldown = 0;
   }
@@ -207,9 +272,9 @@ public class PlayerModel extends CapsuleObstacle {
   }
 
   /**
-   * Sets whether the player is actively jumping.
+   * Sets whether the player is trying to jump. The player jumps the next time the force is applied
+   * (see {@link #applyForce}), if it is on the ground.
    */
-
   public void setJumping(boolean value) {
     isJumping = value;
   }
@@ -225,7 +290,10 @@ public class PlayerModel extends CapsuleObstacle {
    * Sets whether the playter is actively dropping.
    */
   public void setDropping(boolean value) {
-    isDropping = value;
+    if (value != isDropping) {
+      isDropping = value;
+      updateState();
+    }
   }
 
   /**
@@ -243,7 +311,10 @@ public class PlayerModel extends CapsuleObstacle {
    * @param value whether the player is on the ground.
    */
   public void setGrounded(boolean value) {
-    isGrounded = value;
+    if (value != isGrounded) {
+      isGrounded = value;
+      updateState();
+    }
   }
 
   /**
@@ -259,8 +330,94 @@ public class PlayerModel extends CapsuleObstacle {
    * @param value true if the player is frozen, false otherwise
    */
   public void setFrozen(boolean value) {
-    isFrozen = value;
-    setDensity(isFrozen ? FROZEN_DENSITY : INITIAL_DENSITY);
+    if (value != isFrozen) {
+      isFrozen = value;
+      updateState();
+    }
+  }
+
+  /**
+   * Returns the current state of the player
+   *
+   * @return the current state of the player
+   */
+  public State getState() {
+    return state;
+  }
+
+  /**
+   * Moves the player to the state its inputs and contacts call for, if it is not there already
+   * <p>
+   * A jump is only started by {@link #applyForce}, and lasts until the player lands. Being frozen
+   * comes before everything else, so a frozen player holding the drop input only drops once it
+   * thaws.
+   */
+  private void updateState() {
+    State next;
+    if (isFrozen) {
+      next = State.FROZEN;
+    } else if (isGrounded) {
+      next = isDropping ? State.DROPPING : State.GROUNDED;
+    } else {
+      next = state == State.JUMPING ? State.JUMPING : State.AIRBORNE;
+    }
+    setState(next);
+  }
+
+  /**
+   * Moves the player to the given state, running the exit hook of the old state and the enter
+   * hook of the new one. Nothing happens if the player is already in that state.
+   *
+   * @param next the new state
+   */
+  private void setState(State next) {
+    if (next == state) {
+      return;
+    }
+    exitState(state);
+    state = next;
+    enterState(next);
+  }
+
+  /**
+   * Called when the player enters a state
+   *
+   * @param entered the state entered
+   */
+  private void enterState(State entered) {
+    switch (entered) {
+      case FROZEN:
+        setDensity(FROZEN_DENSITY);
+        break;
+      case JUMPING:
+        jump();
+        break;
+      case DROPPING:
+        dropPassThroughPlatform();
+        break;
+      default:
+        break;
+    }
+  }
+
+  /**
+   * Launches the player upwards
+   */
+  private void jump() {
+    setVY(jumpVelocity);
+    // Clear platform in ground sensor
+    groundSensor.clearPlatforms();
+  }
+
+  /**
+   * Called when the player leaves a state
+   *
+   * @param exited the state left
+   */
+  private void exitState(State exited) {
+    if (exited == State.FROZEN) {
+      setDensity(INITIAL_DENSITY);
+    }
   }
 
   /**
@@ -353,7 +510,8 @@ public class PlayerModel extends CapsuleObstacle {
   }
 
   /**
-   * Initializes the player via the given JSON value
+   * Initializes the player via the given JSON value, once its properties are set (see
+   * {@link #PROPERTIES})
    * <p>
    * The JSON value has been parsed and is part of a bigger level file.  However, this JSON value is
    * limited to the player subtree
@@ -362,50 +520,7 @@ public class PlayerModel extends CapsuleObstacle {
    * @param json      the JSON subtree defining the player
    */
   public void initialize(AssetDirectory directory, JsonValue json) {
-    frozenTexture = new TextureRegion(directory.getEntry("frozen", Texture.class));
-
-    JsonValue properties = json.get("properties").child();
-    while (properties != null) {
-      switch (properties.getString("name")) {
-        case "force":
-          setForce(properties.getFloat("value"));
-          break;
-        case "damping":
-          setDamping(properties.getFloat("value"));
-          break;
-        case "maxspeed":
-          setMaxSpeed(properties.getFloat("value"));
-          break;
-        case "jumpvelocity":
-          setJumpVelocity(properties.getFloat("value"));
-          break;
-        case "jumplimit":
-          setJumpLimit(properties.getInt("value"));
-          break;
-        case "sensorcolor":
-          try {
-            String cname = properties.getString("value").toUpperCase();
-            Field field = Class.forName("com.badlogic.gdx.graphics.Color").getField(cname);
-            sensorColor = new Color((Color) field.get(null));
-          } catch (Exception e) {
-            sensorColor = null; // Not defined
-          }
-          break;
-        case "sensoropacity":
-          int opacity = properties.get("value").asInt();
-          if (sensorColor != null) {
-            sensorColor.mul(opacity / 255.0f);
-          }
-          break;
-        case "fallMultiplier":
-          fallMultiplier = properties.getFloat("value");
-        case "lowJumpMultiplier":
-          lowJumpMultiplier = properties.getFloat("value");
-        default:
-          break;
-      }
-      properties = properties.next();
-    }
+    frozenTexture = new TextureRegion(directory.getEntry("frozen", TextureRegion.class));
 
     initFixtureDefs(getWidth(), getHeight());
   }
@@ -519,26 +634,22 @@ public class PlayerModel extends CapsuleObstacle {
 
     // Jump!
     if (getIsJumping() && !getIsFrozen()) {
-      setVY(jumpVelocity);
-
-      // Clear platform in ground sensor
-      groundSensor.clearPlatforms();
+      if (state == State.JUMPING) {
+        // Still on the ground after the last jump (e.g. under a ceiling)
+        jump();
+      } else {
+        setState(State.JUMPING);
+      }
     }
 
-    // If on top of a pass-through platform and pressing drop, set the tile to pass-through
-    dropPassThroughPlatform();
-
     body.applyForce(v2Cache, getPosition(), true);
   }
 
   /**
-   * Checks whether tile is pass-through and set to pass-through if player dropping
+   * Sets the pass-through platforms the player is standing on to pass-through, as the player is
+   * dropping
    */
   private void dropPassThroughPlatform() {
-    if (!isDropping) {
-      return;
-    }
-
     if (groundSensor.currPlatform == null) {
       assert groundSensor.prevPlatform == null;
       return;
@@ -593,8 +704,8 @@ public class PlayerModel extends CapsuleObstacle {
     if (texture != null) {
       float effect = faceRight ? 1.0f : -1.0f;
       canvas.draw(isFrozen ? frozenTexture : texture, color, origin.x, origin.y,
-          getX() * drawScale.x,
-          getY() * drawScale.y, getAngle(), effect, 1.0f);
+          getDrawX() * drawScale.x,
+          getDrawY() * drawScale.y, getDrawAngle(), effect, 1.0f);
     }
   }
 
@@ -604,6 +715,11 @@ public class PlayerModel extends CapsuleObstacle {
       super(PlayerModel.this, x, y, width2, height2);
     }
 
+    @Override
+    public int getContactTag() {
+      return ContactTag.PLAYER_BODY;
+    }
+
     @Override
     public void beginContact(Obstacle obs, Fixture fixture) {
       // TODO: Can refactor breakable platform under this logic for consistency
@@ -633,6 +749,11 @@ public class PlayerModel extends CapsuleObstacle {
       clearPlatforms();
     }
 
+    @Override
+    public int getContactTag() {
+      return ContactTag.PLAYER_GROUND;
+    }
+
     public void clearPlatforms() {
       currPlatform = prevPlatform = null;
     }
@@ -642,6 +763,10 @@ public class PlayerModel extends CapsuleObstacle {
       if (bodyData != currPlatform && !fixture.isSensor()) {
         prevPlatform = currPlatform;
         currPlatform = bodyData;
+        // Keep dropping through the platforms the player walks onto
+        if (state == State.DROPPING) {
+          dropPassThroughPlatform();
+        }
       }
 
       // TODO: Can migrate some of the logic (setGrounded) from collision controller here. Notice
@@ -0,0 +1,304 @@
+package edu.cornell.gdiac.main;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.PolygonSpriteBatch;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.ShortArray;
+import edu.cornell.gdiac.main.GameCanvas.BlendState;
+import java.util.Arrays;
+
+/**
+ * The sprites of a drawing pass, recorded to be sorted before they are sent to the sprite batch.
+ *
+ * <p>A sprite batch must flush whenever the texture or the blend state changes, so drawing the
+ * sprites in the order they come can flush far more often than needed. Each sprite is instead
+ * recorded with a sort key made of its layer, its blend state, its texture and its depth (the
+ * order it was added in), from most to least significant. The keys are sorted with a radix sort,
+ * so the sprites of a layer are drawn grouped by blend state and texture, while the layers are
+ * still drawn in order and sprites sharing a texture keep their order.
+ *
+ * <p>The vertices are recorded already transformed, in the layout of {@link PolygonSpriteBatch}.
+ */
+public class RenderQueue {
+
+  /**
+   * The number of floats of a vertex (x, y, color, u, v)
+   */
+  private static final int VERTEX_SIZE = 5;
+  /**
+   * The largest layer
+   */
+  public static final int MAX_LAYER = 255;
+
+  /**
+   * The bits of a sort key below each of its fields
+   */
+  private static final int LAYER_SHIFT = 56;
+  private static final int BLEND_SHIFT = 52;
+  private static final int TEXTURE_SHIFT = 32;
+  /**
+   * The largest texture id that fits in a sort key
+   */
+  private static final int MAX_TEXTURE = (1 << (BLEND_SHIFT - TEXTURE_SHIFT)) - 1;
+  /**
+   * The triangles of a quad
+   */
+  private static final short[] QUAD = {0, 1, 2, 2, 3, 0};
+
+  /**
+   * The sort key of each sprite
+   */
+  private long[] keys;
+  /**
+   * The texture of each sprite
+   */
+  private final Array<Texture> textures;
+  /**
+   * The blend state of each sprite
+   */
+  private final Array<BlendState> blends;
+  /**
+   * The first vertex float and the first triangle index of each sprite, and one past the last
+   */
+  private int[] vertexStarts;
+  private int[] triangleStarts;
+  /**
+   * The vertices of every sprite
+   */
+  private final FloatArray vertices;
+  /**
+   * The triangles of every sprite, relative to the first vertex of the sprite
+   */
+  private final ShortArray triangles;
+  /**
+   * The number of sprites
+   */
+  private int size;
+  /**
+   * A small id for each texture in this pass, as the key has no room for the texture handle
+   */
+  private final ObjectIntMap<Texture> textureIds;
+
+  /**
+   * The sprites in drawing order, once sorted, and scratch space for the sort
+   */
+  private int[] order;
+  private int[] swap;
+  /**
+   * The count of each digit value during a pass of the sort
+   */
+  private final int[] counts;
+
+  /**
+   * Creates an empty render queue
+   */
+  public RenderQueue() {
+    keys = new long[64];
+    textures = new Array<>(false, 64);
+    blends = new Array<>(false, 64);
+    vertexStarts = new int[65];
+    triangleStarts = new int[65];
+    vertices = new FloatArray(64 * 4 * VERTEX_SIZE);
+    triangles = new ShortArray(64 * QUAD.length);
+    textureIds = new ObjectIntMap<>();
+    order = new int[64];
+    swap = new int[64];
+    counts = new int[256];
+  }
+
+  /**
+   * Returns the number of sprites in this queue
+   *
+   * @return the number of sprites in this queue
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Adds a textured quad
+   * <p>
+   * The corners are given counter-clockwise from the bottom left, which is drawn with the texture
+   * coordinates (u, v2).
+   *
+   * @param texture the texture of the quad
+   * @param layer   the layer of the quad, from 0 (drawn first) to {@link #MAX_LAYER}
+   * @param blend   the blend state of the quad
+   * @param color   the packed tint of the quad
+   * @param corners the x and y of the four corners
+   * @param u       the left texture coordinate
+   * @param v       the top texture coordinate
+   * @param u2      the right texture coordinate
+   * @param v2      the bottom texture coordinate
+   */
+  public void addQuad(Texture texture, int layer, BlendState blend, float color, float[] corners,
+      float u, float v, float u2, float v2) {
+    int sprite = add(texture, layer, blend);
+    vertices.add(corners[0], corners[1], color, u);
+    vertices.add(v2);
+    vertices.add(corners[2], corners[3], color, u2);
+    vertices.add(v2);
+    vertices.add(corners[4], corners[5], color, u2);
+    vertices.add(v);
+    vertices.add(corners[6], corners[7], color, u);
+    vertices.add(v);
+    triangles.addAll(QUAD);
+    vertexStarts[sprite + 1] = vertices.size;
+    triangleStarts[sprite + 1] = triangles.size;
+  }
+
+  /**
+   * Adds a textured polygon
+   *
+   * @param texture   the texture of the polygon
+   * @param layer     the layer of the polygon, from 0 (drawn first) to {@link #MAX_LAYER}
+   * @param blend     the blend state of the polygon
+   * @param color     the packed tint of the polygon
+   * @param positions the x and y of each vertex
+   * @param coords    the u and v of each vertex
+   * @param count     the number of floats of positions (and coords) to use
+   * @param indices   the triangles of the polygon, as indices of its vertices
+   */
+  public void addPolygon(Texture texture, int layer, BlendState blend, float color,
+      float[] positions, float[] coords, int count, short[] indices) {
+    int sprite = add(texture, layer, blend);
+    for (int ii = 0; ii < count; ii += 2) {
+      vertices.add(positions[ii], positions[ii + 1], color, coords[ii]);
+      vertices.add(coords[ii + 1]);
+    }
+    triangles.addAll(indices);
+    vertexStarts[sprite + 1] = vertices.size;
+    triangleStarts[sprite + 1] = triangles.size;
+  }
+
+  /**
+   * Returns the number of batches the sprites would take if drawn in the order they were added
+   * <p>
+   * This counts a batch for each change of texture or blend state, which is when a sprite batch
+   * must flush.
+   *
+   * @return the number of batches the sprites would take unsorted
+   */
+  public int countUnsortedBatches() {
+    int batches = 0;
+    for (int ii = 0; ii < size; ii++) {
+      if (ii == 0 || textures.get(ii) != textures.get(ii - 1)
+          || blends.get(ii) != blends.get(ii - 1)) {
+        batches++;
+      }
+    }
+    return batches;
+  }
+
+  /**
+   * Sorts the sprites and draws them to a sprite batch, then empties this queue
+   * <p>
+   * The sprite batch must be active. The blend state of each group of sprites is set through the
+   * canvas, which flushes the batch only if it changes.
+   *
+   * @param batch  the sprite batch to draw to
+   * @param canvas the canvas owning the sprite batch
+   */
+  public void flush(PolygonSpriteBatch batch, GameCanvas canvas) {
+    sort();
+    float[] vertexData = vertices.items;
+    short[] triangleData = triangles.items;
+    for (int ii = 0; ii < size; ii++) {
+      int sprite = order[ii];
+      canvas.setBlendState(blends.get(sprite));
+      batch.draw(textures.get(sprite), vertexData, vertexStarts[sprite],
+          vertexStarts[sprite + 1] - vertexStarts[sprite], triangleData, triangleStarts[sprite],
+          triangleStarts[sprite + 1] - triangleStarts[sprite]);
+    }
+    clear();
+  }
+
+  /**
+   * Empties this queue without drawing it
+   */
+  public void clear() {
+    size = 0;
+    textures.clear();
+    blends.clear();
+    vertices.clear();
+    triangles.clear();
+    textureIds.clear();
+  }
+
+  /**
+   * Starts a new sprite and returns its index
+   */
+  private int add(Texture texture, int layer, BlendState blend) {
+    if (size == keys.length) {
+      int capacity = size * 2;
+      long[] grown = new long[capacity];
+      System.arraycopy(keys, 0, grown, 0, size);
+      keys = grown;
+      int[] starts = new int[capacity + 1];
+      System.arraycopy(vertexStarts, 0, starts, 0, size + 1);
+      vertexStarts = starts;
+      starts = new int[capacity + 1];
+      System.arraycopy(triangleStarts, 0, starts, 0, size + 1);
+      triangleStarts = starts;
+    }
+    int id = textureIds.get(texture, -1);
+    if (id < 0) {
+      id = Math.min(textureIds.size, MAX_TEXTURE);
+      textureIds.put(texture, id);
+    }
+    int sprite = size++;
+    keys[sprite] = ((long) Math.min(Math.max(layer, 0), MAX_LAYER) << LAYER_SHIFT)
+        | ((long) blend.ordinal() << BLEND_SHIFT) | ((long) id << TEXTURE_SHIFT) | sprite;
+    textures.add(texture);
+    blends.add(blend);
+    vertexStarts[sprite] = vertices.size;
+    triangleStarts[sprite] = triangles.size;
+    return sprite;
+  }
+
+  /**
+   * Sorts the sprites by their keys into the drawing order
+   * <p>
+   * This is a least significant digit radix sort, a byte at a time. As it is stable and starts
+   * from the order the sprites were added, the depth bytes are already in order and are skipped,
+   * as are the other bytes that are the same in every key.
+   */
+  private void sort() {
+    if (order.length < size) {
+      order = new int[keys.length];
+      swap = new int[keys.length];
+    }
+    long all = 0;
+    long any = 0;
+    for (int ii = 0; ii < size; ii++) {
+      order[ii] = ii;
+      all = ii == 0 ? keys[ii] : all & keys[ii];
+      any |= keys[ii];
+    }
+    long varying = all ^ any;
+    for (int shift = TEXTURE_SHIFT; shift < 64; shift += 8) {
+      if (((varying >>> shift) & 0xff) == 0) {
+        continue;
+      }
+      Arrays.fill(counts, 0);
+      for (int ii = 0; ii < size; ii++) {
+        counts[(int) (keys[order[ii]] >>> shift) & 0xff]++;
+      }
+      int total = 0;
+      for (int digit = 0; digit < counts.length; digit++) {
+        int count = counts[digit];
+        counts[digit] = total;
+        total += count;
+      }
+      for (int ii = 0; ii < size; ii++) {
+        int sprite = order[ii];
+        swap[counts[(int) (keys[sprite] >>> shift) & 0xff]++] = sprite;
+      }
+      int[] temp = order;
+      order = swap;
+      swap = temp;
+    }
+  }
+}
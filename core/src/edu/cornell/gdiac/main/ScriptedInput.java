@@ -0,0 +1,129 @@
+package edu.cornell.gdiac.main;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * Player input set by code rather than read from the devices.
+ *
+ * <p>This drives the game without a player, for instance to run a level headless (see
+ * {@link GameController#simulate}). The input stays as it was last set, and never asks for a
+ * reset, an exit or a change of level.
+ */
+public class ScriptedInput implements InputSource {
+
+  /**
+   * How much are we moving horizontally?
+   */
+  private float horizontal;
+  /**
+   * How much are we moving vertically?
+   */
+  private float vertical;
+  /**
+   * Whether the player is frozen
+   */
+  private boolean frozen;
+  /**
+   * Whether the level timer is running
+   */
+  private boolean timerActive;
+
+  /**
+   * Sets the amount of sideways movement.
+   * <p>
+   * -1 = left, 1 = right, 0 = still
+   *
+   * @param value the amount of sideways movement.
+   */
+  public void setHorizontal(float value) {
+    horizontal = value;
+  }
+
+  /**
+   * Sets the amount of vertical movement.
+   * <p>
+   * -1 = down, 1 = up, 0 = still
+   *
+   * @param value the amount of vertical movement.
+   */
+  public void setVertical(float value) {
+    vertical = value;
+  }
+
+  /**
+   * Sets whether the player is frozen
+   *
+   * @param value whether the player is frozen
+   */
+  public void setFrozen(boolean value) {
+    frozen = value;
+  }
+
+  /**
+   * Sets whether the level timer is running
+   *
+   * @param value whether the level timer is running
+   */
+  public void setTimerActive(boolean value) {
+    timerActive = value;
+  }
+
+  @Override
+  public void readInput(Rectangle bounds, Vector2 scale) {
+    // The input is whatever was set last
+  }
+
+  @Override
+  public float getHorizontal() {
+    return horizontal;
+  }
+
+  @Override
+  public float getVertical() {
+    return vertical;
+  }
+
+  @Override
+  public boolean getFrozen() {
+    return frozen;
+  }
+
+  @Override
+  public boolean getTimerActive() {
+    return timerActive;
+  }
+
+  @Override
+  public boolean didReset() {
+    return false;
+  }
+
+  @Override
+  public boolean didDebug() {
+    return false;
+  }
+
+  @Override
+  public boolean didExit() {
+    return false;
+  }
+
+  @Override
+  public boolean getNextLevel() {
+    return false;
+  }
+
+  @Override
+  public void setNextLevel() {
+  }
+
+  @Override
+  public boolean getPastLevel() {
+    return false;
+  }
+
+  @Override
+  public void setPastLevel() {
+  }
+}
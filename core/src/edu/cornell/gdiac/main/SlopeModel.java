@@ -3,9 +3,18 @@ package edu.cornell.gdiac.main;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.JsonValue;
 import edu.cornell.gdiac.physics.obstacle.PolygonObstacle;
+import edu.cornell.gdiac.util.PropertyBinder;
+import edu.cornell.gdiac.util.TiledJsonParser;
 
 public class SlopeModel extends PolygonObstacle {
 
+  /**
+   * The Tiled properties of a slope
+   */
+  public static final PropertyBinder<SlopeModel> PROPERTIES =
+      new PropertyBinder<SlopeModel>(TiledJsonParser.OBSTACLE_PROPERTIES)
+          .bindFloat("frozenimpulse", SlopeModel::setFrozenImpulse);
+
   /**
    * Arbitrary force applied to players if frozen and on slope
    * <p></p>
@@ -22,6 +31,7 @@ public class SlopeModel extends PolygonObstacle {
   public SlopeModel() {
     // Since we do not know points yet, initialize to box
     super(new float[]{0, 0, 1, 0, 1, 1, 0, 1}, 0, 0);
+    setContactTag(ContactTag.SLOPE);
   }
 
   public void setFrozenImpulse(float frozenImpulse) {
@@ -34,7 +44,8 @@ public class SlopeModel extends PolygonObstacle {
   }
 
   /**
-   * Initializes the sloped platform via the given JSON value
+   * Initializes the sloped platform via the given JSON value, once its properties are set (see
+   * {@link #PROPERTIES})
    *
    * <p>The JSON value has been parsed and is part of a bigger level file. However, this JSON value
    * is limited to the platform subtree
@@ -54,16 +65,7 @@ public class SlopeModel extends PolygonObstacle {
     }
     initShapes(points);
     initBounds();
-
-    JsonValue properties = json.get("properties").child();
-    while (properties != null) {
-      if (properties.getString("name").equals("frozenimpulse")) {
-        frozenImpulse = properties.getFloat("value");
-      }
-
-      properties = properties.next();
-      calculateSlopeAngle();
-    }
+    calculateSlopeAngle();
   }
 
   /**
@@ -0,0 +1,19 @@
+package edu.cornell.gdiac.main;
+
+/**
+ * A model that never moves or changes on its own, so that it can be drawn from a
+ * {@link TileCache} instead of being drawn again every frame.
+ */
+public interface StaticTile {
+
+  /**
+   * Adds the sprites of this tile to the cache
+   *
+   * <p>This is called whenever the chunk of the cache holding this tile is rebuilt. A tile whose
+   * look changes must then call {@link TileCache#invalidate} on the cache, so that its chunk is
+   * rebuilt before the next frame.
+   *
+   * @param cache the tile cache being built
+   */
+  void cache(TileCache cache);
+}
@@ -0,0 +1,97 @@
+package edu.cornell.gdiac.main;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.physics.box2d.BodyDef.BodyType;
+import com.badlogic.gdx.utils.JsonValue;
+
+/**
+ * A static platform covering a rectangle of solid tiles.
+ *
+ * <p>Instead of giving every tile of a tile layer its own body, adjacent tiles are merged into
+ * rectangles (see {@link edu.cornell.gdiac.util.TileMerger}) and each rectangle becomes a single
+ * box fixture. The individual tile textures are still remembered so that the block draws exactly
+ * like the tiles it replaces.
+ */
+public class TileBlockModel extends PlatformModel {
+
+  /**
+   * The tiles covered by this block
+   */
+  private final TileSprites tiles;
+
+  /**
+   * Create a new TileBlockModel with degenerate settings
+   */
+  public TileBlockModel() {
+    super();
+    tiles = new TileSprites();
+  }
+
+  /**
+   * Resets this block to its degenerate settings so that it can be reused
+   */
+  @Override
+  public void reset() {
+    super.reset();
+    tiles.clear();
+  }
+
+  /**
+   * Initializes the block as a static rectangle.
+   *
+   * @param x              x position of the block center (unscaled, in Tiled pixels)
+   * @param y              y position of the block center (unscaled, in Tiled pixels)
+   * @param width          width of the block in Tiled pixels
+   * @param height         height of the block in Tiled pixels
+   * @param tileProperties the properties of the tile layer as a JSON value
+   */
+  public void initializeAsBlock(float x, float y, float width, float height,
+      JsonValue tileProperties) {
+    float pixelScaleX = 1 / drawScale.x;
+    float pixelScaleY = 1 / drawScale.y;
+    setPosition(x * pixelScaleX, y * pixelScaleY);
+    setDimension(width * pixelScaleX, height * pixelScaleY);
+    setBodyType(BodyType.StaticBody);
+    applyTileProperties(tileProperties);
+  }
+
+  /**
+   * Adds a tile to be drawn as part of this block
+   *
+   * @param region  the tile texture region
+   * @param x       x position of the bottom left corner of the tile, in pixels
+   * @param y       y position of the bottom left corner of the tile, in pixels
+   */
+  public void addTile(TextureRegion region, float x, float y) {
+    tiles.add(region, x, y);
+  }
+
+  /**
+   * Returns the number of tiles merged into this block
+   *
+   * @return the number of tiles merged into this block
+   */
+  public int getTileCount() {
+    return tiles.size();
+  }
+
+  /**
+   * Adds every tile of this block to a tile cache
+   *
+   * @param cache the tile cache being built
+   */
+  @Override
+  public void cache(TileCache cache) {
+    tiles.cache(cache);
+  }
+
+  /**
+   * Draws every tile of this block.
+   *
+   * @param canvas Drawing context
+   */
+  @Override
+  public void draw(GameCanvas canvas) {
+    tiles.draw(canvas);
+  }
+}
@@ -0,0 +1,399 @@
+package edu.cornell.gdiac.main;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IdentityMap;
+import com.badlogic.gdx.utils.LongMap;
+import edu.cornell.gdiac.util.Registry;
+import edu.cornell.gdiac.util.SpatialGrid;
+
+/**
+ * The sprites of the static tiles of a level, uploaded to the graphics card once and drawn with
+ * one call per chunk.
+ *
+ * <p>The level is split into square chunks of {@link #CHUNK_SIZE} pixels, and each tile belongs
+ * to the chunk of its first sprite. The sprites of a chunk are kept in a {@link SpriteCache}, so
+ * drawing the tiles takes the same time however many there are. When a tile changes, it
+ * invalidates the cache and only its chunk is uploaded again. Adding or removing tiles rebuilds
+ * every chunk, which only happens while the level is loaded or reloaded. Only the chunks that
+ * overlap the visible part of the level are drawn.
+ *
+ * <p>Nothing is uploaded until the tiles are first drawn, so a level played headless never
+ * touches the graphics card.
+ */
+public class TileCache implements Disposable {
+
+  /**
+   * The width and height of a chunk, in pixels
+   */
+  public static final int CHUNK_SIZE = 256;
+
+  /**
+   * A square of the level and the cache holding the sprites of its tiles
+   */
+  private static class Chunk {
+
+    /**
+     * The tiles of this chunk
+     */
+    final Array<StaticTile> tiles = new Array<>();
+    /**
+     * The id of the sprite cache of this chunk, or -1 if it has no sprites
+     */
+    int id = -1;
+    /**
+     * The most sprites the sprite cache of this chunk can be rebuilt with
+     */
+    int capacity;
+    /**
+     * Whether a tile of this chunk changed since it was uploaded
+     */
+    boolean dirty;
+    /**
+     * The smallest rectangle holding every sprite of this chunk, in pixels
+     */
+    final Rectangle bounds = new Rectangle();
+  }
+
+  /**
+   * Every tile in this cache
+   */
+  private final Registry<StaticTile> tiles;
+  /**
+   * The chunks of the level, in the order they are drawn
+   */
+  private final Array<Chunk> chunks;
+  /**
+   * The chunk of each tile
+   */
+  private final IdentityMap<StaticTile, Chunk> chunkOf;
+  /**
+   * The chunks by the area they cover, to find the visible chunks
+   */
+  private final SpatialGrid<Chunk> grid;
+  /**
+   * The chunks being drawn
+   */
+  private final Array<Chunk> visible;
+  /**
+   * The sprite caches on the graphics card, or null if nothing was uploaded yet
+   */
+  private SpriteCache sprites;
+  /**
+   * The number of sprites the sprite caches were allocated for
+   */
+  private int spriteCapacity;
+  /**
+   * Whether tiles were added or removed since the chunks were built
+   */
+  private boolean rebuild;
+  /**
+   * Whether a chunk became dirty since the chunks were uploaded
+   */
+  private boolean dirty;
+
+  /**
+   * The texture region of each sprite being added
+   */
+  private final Array<TextureRegion> regions;
+  /**
+   * The packed color and the x, y, width and height of each sprite being added
+   */
+  private final FloatArray bounds;
+
+  /**
+   * Creates an empty tile cache
+   */
+  public TileCache() {
+    tiles = new Registry<>();
+    chunks = new Array<>();
+    chunkOf = new IdentityMap<>();
+    grid = new SpatialGrid<>(CHUNK_SIZE);
+    visible = new Array<>();
+    regions = new Array<>();
+    bounds = new FloatArray();
+  }
+
+  /**
+   * Adds a tile to this cache. It is drawn from the next frame on.
+   *
+   * @param tile the tile to add
+   */
+  public void add(StaticTile tile) {
+    if (tiles.add(tile)) {
+      rebuild = true;
+    }
+  }
+
+  /**
+   * Removes a tile from this cache. It is no longer drawn from the next frame on.
+   *
+   * @param tile the tile to remove
+   * @return true if the tile was in this cache
+   */
+  public boolean remove(StaticTile tile) {
+    if (!tiles.remove(tile)) {
+      return false;
+    }
+    rebuild = true;
+    return true;
+  }
+
+  /**
+   * Returns true if the tile is in this cache
+   *
+   * @param tile the tile
+   * @return true if the tile is in this cache
+   */
+  public boolean contains(StaticTile tile) {
+    return tiles.contains(tile);
+  }
+
+  /**
+   * Returns the number of tiles in this cache
+   *
+   * @return the number of tiles in this cache
+   */
+  public int size() {
+    return tiles.size();
+  }
+
+  /**
+   * Marks a tile as changed, so that its chunk is uploaded again before the next frame
+   *
+   * @param tile the tile that changed
+   */
+  public void invalidate(StaticTile tile) {
+    Chunk chunk = chunkOf.get(tile);
+    if (chunk != null) {
+      chunk.dirty = true;
+      dirty = true;
+    }
+  }
+
+  /**
+   * Adds a sprite of the tile being cached (see {@link StaticTile#cache})
+   *
+   * @param region the texture region of the sprite
+   * @param tint   the color of the sprite
+   * @param x      the x-coordinate of the bottom left corner, in pixels
+   * @param y      the y-coordinate of the bottom left corner, in pixels
+   * @param width  the width of the sprite, in pixels
+   * @param height the height of the sprite, in pixels
+   */
+  public void add(TextureRegion region, Color tint, float x, float y, float width, float height) {
+    regions.add(region);
+    bounds.add(tint.toFloatBits(), x, y, width);
+    bounds.add(height);
+  }
+
+  /**
+   * Adds an untinted sprite of the tile being cached, at the size of its region
+   *
+   * @param region the texture region of the sprite
+   * @param x      the x-coordinate of the bottom left corner, in pixels
+   * @param y      the y-coordinate of the bottom left corner, in pixels
+   */
+  public void add(TextureRegion region, float x, float y) {
+    add(region, Color.WHITE, x, y, region.getRegionWidth(), region.getRegionHeight());
+  }
+
+  /**
+   * Draws every tile in the visible area, uploading the chunks that changed first
+   *
+   * <p>This must not be called between the begin and end of a sprite batch.
+   *
+   * @param projection the projection matrix to draw with
+   * @param area       the visible area, in pixels
+   */
+  public void draw(Matrix4 projection, Rectangle area) {
+    if (rebuild) {
+      build();
+    } else if (dirty) {
+      update();
+    }
+    if (sprites == null) {
+      return;
+    }
+    grid.query(area, visible);
+    if (visible.size == 0) {
+      return;
+    }
+    sprites.setProjectionMatrix(projection);
+    sprites.begin();
+    for (int ii = 0; ii < visible.size; ii++) {
+      sprites.draw(visible.get(ii).id);
+    }
+    sprites.end();
+    visible.clear();
+  }
+
+  /**
+   * Removes every tile from this cache, keeping the sprite caches for the next level
+   */
+  public void clear() {
+    tiles.clear();
+    chunks.clear();
+    chunkOf.clear();
+    grid.clear();
+    rebuild = true;
+    dirty = false;
+  }
+
+  /**
+   * Removes every tile from this cache and frees the sprite caches
+   */
+  @Override
+  public void dispose() {
+    clear();
+    if (sprites != null) {
+      sprites.dispose();
+      sprites = null;
+      spriteCapacity = 0;
+    }
+  }
+
+  /**
+   * Sorts every tile into its chunk and uploads every chunk
+   */
+  private void build() {
+    chunks.clear();
+    chunkOf.clear();
+    grid.clear();
+    LongMap<Chunk> byKey = new LongMap<>();
+    for (int ii = 0; ii < tiles.size(); ii++) {
+      StaticTile tile = tiles.get(ii);
+      regions.clear();
+      bounds.clear();
+      tile.cache(this);
+      if (regions.size == 0) {
+        continue;
+      }
+      long key = ((long) Math.floorDiv((int) bounds.get(1), CHUNK_SIZE) << 32)
+          | (Math.floorDiv((int) bounds.get(2), CHUNK_SIZE) & 0xffffffffL);
+      Chunk chunk = byKey.get(key);
+      if (chunk == null) {
+        chunk = new Chunk();
+        byKey.put(key, chunk);
+        chunks.add(chunk);
+      }
+      chunk.tiles.add(tile);
+      chunkOf.put(tile, chunk);
+    }
+
+    // Gather every sprite first, to know how many the sprite caches must hold
+    regions.clear();
+    bounds.clear();
+    int[] starts = new int[chunks.size + 1];
+    for (int ii = 0; ii < chunks.size; ii++) {
+      starts[ii] = regions.size;
+      Array<StaticTile> chunkTiles = chunks.get(ii).tiles;
+      for (int jj = 0; jj < chunkTiles.size; jj++) {
+        chunkTiles.get(jj).cache(this);
+      }
+    }
+    starts[chunks.size] = regions.size;
+
+    if (sprites == null || regions.size > spriteCapacity) {
+      if (sprites != null) {
+        sprites.dispose();
+      }
+      spriteCapacity = Math.max(regions.size, 1);
+      // Without indices, as a level may have more sprites than 16-bit indices can reach
+      sprites = new SpriteCache(spriteCapacity, false);
+    } else {
+      sprites.clear();
+    }
+    for (int ii = 0; ii < chunks.size; ii++) {
+      Chunk chunk = chunks.get(ii);
+      chunk.capacity = starts[ii + 1] - starts[ii];
+      chunk.id = chunk.capacity > 0 ? upload(-1, starts[ii], starts[ii + 1]) : -1;
+      chunk.dirty = false;
+      if (chunk.id >= 0) {
+        grid.put(chunk, measure(starts[ii], starts[ii + 1], chunk.bounds));
+      }
+    }
+    regions.clear();
+    bounds.clear();
+    rebuild = false;
+    dirty = false;
+  }
+
+  /**
+   * Uploads the chunks whose tiles changed
+   */
+  private void update() {
+    for (int ii = 0; ii < chunks.size; ii++) {
+      Chunk chunk = chunks.get(ii);
+      if (!chunk.dirty) {
+        continue;
+      }
+      regions.clear();
+      bounds.clear();
+      for (int jj = 0; jj < chunk.tiles.size; jj++) {
+        chunk.tiles.get(jj).cache(this);
+      }
+      if (regions.size > chunk.capacity || chunk.id < 0) {
+        // A cache cannot grow once others were made after it
+        build();
+        return;
+      }
+      upload(chunk.id, 0, regions.size);
+      chunk.dirty = false;
+      grid.put(chunk, measure(0, regions.size, chunk.bounds));
+    }
+    regions.clear();
+    bounds.clear();
+    dirty = false;
+  }
+
+  /**
+   * Computes the smallest rectangle holding a range of the sprites being added
+   *
+   * @param start  the first sprite
+   * @param end    one past the last sprite
+   * @param result the rectangle to store the bounds in
+   * @return the result rectangle, for chaining
+   */
+  private Rectangle measure(int start, int end, Rectangle result) {
+    float left = Float.MAX_VALUE, bottom = Float.MAX_VALUE;
+    float right = -Float.MAX_VALUE, top = -Float.MAX_VALUE;
+    for (int ii = start; ii < end; ii++) {
+      float x = bounds.get(5 * ii + 1);
+      float y = bounds.get(5 * ii + 2);
+      left = Math.min(left, x);
+      bottom = Math.min(bottom, y);
+      right = Math.max(right, x + bounds.get(5 * ii + 3));
+      top = Math.max(top, y + bounds.get(5 * ii + 4));
+    }
+    return result.set(left, bottom, right - left, top - bottom);
+  }
+
+  /**
+   * Uploads a range of the sprites being added as a cache
+   *
+   * @param id    the id of the cache to replace, or -1 for a new cache
+   * @param start the first sprite to upload
+   * @param end   one past the last sprite to upload
+   * @return the id of the cache
+   */
+  private int upload(int id, int start, int end) {
+    if (id < 0) {
+      sprites.beginCache();
+    } else {
+      sprites.beginCache(id);
+    }
+    for (int ii = start; ii < end; ii++) {
+      sprites.setPackedColor(bounds.get(5 * ii));
+      sprites.add(regions.get(ii), bounds.get(5 * ii + 1), bounds.get(5 * ii + 2),
+          bounds.get(5 * ii + 3), bounds.get(5 * ii + 4));
+    }
+    return sprites.endCache();
+  }
+}
@@ -0,0 +1,183 @@
+package edu.cornell.gdiac.main;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.physics.box2d.BodyDef.BodyType;
+import com.badlogic.gdx.physics.box2d.ChainShape;
+import com.badlogic.gdx.physics.box2d.Fixture;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.JsonValue;
+import edu.cornell.gdiac.physics.obstacle.SimpleObstacle;
+import edu.cornell.gdiac.util.TiledJsonParser;
+
+/**
+ * A static body covering a connected region of solid tiles with chain-shape outlines.
+ *
+ * <p>The outline of the region (see {@link edu.cornell.gdiac.util.TileOutliner}) becomes one
+ * looped chain fixture, plus one more for every hole. Unlike merged boxes, chains have no internal
+ * edges, so bodies sliding along the terrain never catch on the seams between tiles. The body sits
+ * at the origin and the chain vertices are given in world coordinates.
+ */
+public class TileChainModel extends SimpleObstacle implements StaticTile {
+
+  /**
+   * The outline loops of this region
+   */
+  private final Array<ChainShape> loops;
+  /**
+   * The fixture of each loop, while the body is active
+   */
+  private final Array<Fixture> geometry;
+  /**
+   * The tiles covered by this region
+   */
+  private final TileSprites tiles;
+
+  /**
+   * Create a new TileChainModel with no outline
+   */
+  public TileChainModel() {
+    super(0, 0);
+    loops = new Array<>();
+    geometry = new Array<>();
+    tiles = new TileSprites();
+    setBodyType(BodyType.StaticBody);
+  }
+
+  /**
+   * Resets this region to an empty outline so that it can be reused.
+   *
+   * <p>The outline loops are native shapes, so they are disposed here.
+   */
+  @Override
+  public void reset() {
+    super.reset();
+    for (ChainShape chain : loops) {
+      chain.dispose();
+    }
+    loops.clear();
+    geometry.clear();
+    tiles.clear();
+    setBodyType(BodyType.StaticBody);
+  }
+
+  /**
+   * Initializes the region from the properties of its tile layer.
+   *
+   * @param tileProperties the properties of the tile layer as a JSON value
+   */
+  public void initialize(JsonValue tileProperties) {
+    TiledJsonParser.initFromTileProperties(this, tileProperties);
+  }
+
+  /**
+   * Adds an outline loop to this region.
+   *
+   * <p>The loop must be closed implicitly (the last vertex is not a copy of the first) and must not
+   * intersect itself.
+   *
+   * @param vertices the loop vertices in physics coordinates, as (x, y) pairs
+   */
+  public void addLoop(float[] vertices) {
+    ChainShape chain = new ChainShape();
+    chain.createLoop(vertices);
+    loops.add(chain);
+    markDirty(true);
+  }
+
+  /**
+   * Adds a tile to be drawn as part of this region
+   *
+   * @param region  the tile texture region
+   * @param x       x position of the bottom left corner of the tile, in pixels
+   * @param y       y position of the bottom left corner of the tile, in pixels
+   */
+  public void addTile(TextureRegion region, float x, float y) {
+    tiles.add(region, x, y);
+  }
+
+  /**
+   * Returns the number of outline loops of this region
+   *
+   * @return the number of outline loops of this region
+   */
+  public int getLoopCount() {
+    return loops.size;
+  }
+
+  /**
+   * Create new fixtures for this body, one per outline loop
+   */
+  @Override
+  protected void createFixtures() {
+    if (body == null) {
+      return;
+    }
+
+    releaseFixtures();
+
+    for (ChainShape chain : loops) {
+      fixture.shape = chain;
+      geometry.add(body.createFixture(fixture));
+    }
+    markDirty(false);
+  }
+
+  /**
+   * Release the fixtures for this body, reseting the shape
+   */
+  @Override
+  protected void releaseFixtures() {
+    for (Fixture fix : geometry) {
+      body.destroyFixture(fix);
+    }
+    geometry.clear();
+  }
+
+  /**
+   * Destroys the physics Body of this region, removing it from the world.
+   *
+   * <p>The fixtures die with the body, so we only need to forget them.
+   *
+   * @param world Box2D world that stores body
+   */
+  @Override
+  public void deactivatePhysics(World world) {
+    super.deactivatePhysics(world);
+    geometry.clear();
+  }
+
+  /**
+   * Adds every tile of this region to a tile cache
+   *
+   * @param cache the tile cache being built
+   */
+  @Override
+  public void cache(TileCache cache) {
+    tiles.cache(cache);
+  }
+
+  /**
+   * Draws every tile of this region.
+   *
+   * @param canvas Drawing context
+   */
+  @Override
+  public void draw(GameCanvas canvas) {
+    tiles.draw(canvas);
+  }
+
+  /**
+   * Draws the outline loops of this region.
+   *
+   * @param canvas Drawing context
+   */
+  @Override
+  public void drawDebug(GameCanvas canvas) {
+    if (debugColor != null) {
+      for (ChainShape chain : loops) {
+        canvas.drawPhysics(chain, debugColor, getDrawX(), getDrawY(), drawScale.x, drawScale.y);
+      }
+    }
+  }
+}
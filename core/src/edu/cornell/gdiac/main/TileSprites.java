@@ -0,0 +1,83 @@
+package edu.cornell.gdiac.main;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+
+/**
+ * A list of tile textures and their positions, drawn one texture region per tile.
+ *
+ * <p>Terrain models that merge many tiles into a single body (see {@link TileBlockModel} and
+ * {@link TileChainModel}) use this to keep drawing every tile exactly where it was in Tiled. When
+ * the tiles come from the same atlas, they are all drawn in a single batch.
+ */
+public class TileSprites {
+
+  /**
+   * The texture region of each tile
+   */
+  private final Array<TextureRegion> regions;
+  /**
+   * The bottom left corner of each tile, in pixels (x, y pairs)
+   */
+  private final FloatArray corners;
+
+  /**
+   * Creates an empty list of tiles
+   */
+  public TileSprites() {
+    regions = new Array<>();
+    corners = new FloatArray();
+  }
+
+  /**
+   * Adds a tile to be drawn
+   *
+   * @param region the tile texture region
+   * @param x      x position of the bottom left corner of the tile, in pixels
+   * @param y      y position of the bottom left corner of the tile, in pixels
+   */
+  public void add(TextureRegion region, float x, float y) {
+    regions.add(region);
+    corners.add(x, y);
+  }
+
+  /**
+   * Removes every tile from this list, keeping its storage
+   */
+  public void clear() {
+    regions.clear();
+    corners.clear();
+  }
+
+  /**
+   * Returns the number of tiles in this list
+   *
+   * @return the number of tiles in this list
+   */
+  public int size() {
+    return regions.size;
+  }
+
+  /**
+   * Adds every tile in this list to a tile cache
+   *
+   * @param cache the tile cache being built
+   */
+  public void cache(TileCache cache) {
+    for (int ii = 0; ii < regions.size; ii++) {
+      cache.add(regions.get(ii), corners.get(2 * ii), corners.get(2 * ii + 1));
+    }
+  }
+
+  /**
+   * Draws every tile in this list
+   *
+   * @param canvas Drawing context
+   */
+  public void draw(GameCanvas canvas) {
+    for (int ii = 0; ii < regions.size; ii++) {
+      canvas.draw(regions.get(ii), corners.get(2 * ii), corners.get(2 * ii + 1));
+    }
+  }
+}
@@ -17,7 +17,7 @@ import com.badlogic.gdx.physics.box2d.BodyDef;
 import com.badlogic.gdx.utils.JsonValue;
 import edu.cornell.gdiac.assets.AssetDirectory;
 import edu.cornell.gdiac.physics.obstacle.PolygonObstacle;
-import java.lang.reflect.Field;
+import edu.cornell.gdiac.util.TiledJsonParser;
 
 
 /**
@@ -58,15 +58,7 @@ public class WallModel extends PolygonObstacle {
     setFriction(json.get("friction").asFloat());
     setRestitution(json.get("restitution").asFloat());
 
-    // Reflection is best way to convert name to color
-    Color debugColor;
-    try {
-      String cname = json.get("debugcolor").asString().toUpperCase();
-      Field field = Class.forName("com.badlogic.gdx.graphics.Color").getField(cname);
-      debugColor = new Color((Color) field.get(null));
-    } catch (Exception e) {
-      debugColor = null; // Not defined
-    }
+    Color debugColor = TiledJsonParser.getColor(json.get("debugcolor").asString());
     int opacity = json.get("debugopacity").asInt();
     debugColor.mul(opacity / 255.0f);
     setDebugColor(debugColor);
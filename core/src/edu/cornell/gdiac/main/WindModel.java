@@ -3,16 +3,64 @@ package edu.cornell.gdiac.main;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.PolygonRegion;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
 import com.badlogic.gdx.physics.box2d.FixtureDef;
 import com.badlogic.gdx.physics.box2d.PolygonShape;
-import edu.cornell.gdiac.util.MathUtil;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import edu.cornell.gdiac.physics.obstacle.Obstacle;
+import edu.cornell.gdiac.util.CollisionCategory;
+import edu.cornell.gdiac.util.ContactDispatcher;
 
 /**
- * Wrapper around wind particle initialization and organization. Contains state of the wind as a
- * collection of particles, including the wind container texture.
+ * Wrapper around the wind of a fan. Contains the state of the wind, including the wind container
+ * texture.
+ *
+ * <p>The wind is a single sensor fixture. The contact listener tells the wind which objects
+ * begin and stop overlapping it, and the wind pushes every overlapping object once per physics
+ * step, so that its strength does not depend on the frame rate or on how objects enter it.
+ *
+ * <p>How the wind weakens along its length is read from a falloff table, sampled from the wind
+ * source to the end of the wind. Each wind type has its own table, computed once, and a level can
+ * give a fan a custom falloff curve instead.
  */
-public class WindModel {
+public class WindModel implements ContactDispatcher.Tagged {
+
+  /**
+   * The number of intervals a falloff table is sampled at, from the wind source to its end
+   */
+  public static final int FALLOFF_SAMPLES = 64;
+  /**
+   * The decay rate of exponential wind over the wind length
+   */
+  private static final float EXPONENTIAL_DECAY_RATE = 0.5f;
+  /**
+   * The falloff table of each wind type, by ordinal
+   */
+  private static final float[][] FALLOFF_TABLES = new float[WindType.values().length][];
+
+  static {
+    for (WindType type : WindType.values()) {
+      float[] table = new float[FALLOFF_SAMPLES + 1];
+      for (int ii = 0; ii <= FALLOFF_SAMPLES; ii++) {
+        float proximityRatio = (float) ii / FALLOFF_SAMPLES;
+        switch (type) {
+          case Constant:
+            table[ii] = 1;
+            break;
+          case Exponential:
+            table[ii] = (float) Math.exp(-EXPONENTIAL_DECAY_RATE * proximityRatio);
+            break;
+          default:
+            // Natural wind physics
+            table[ii] = (float) Math.pow(1 - proximityRatio, 2);
+            break;
+        }
+      }
+      FALLOFF_TABLES[type.ordinal()] = table;
+    }
+  }
 
   final private float DEFAULT_WIND_STRENGTH = 10.0f;
   final private WindType DEFAULT_WIND_TYPE = WindType.Constant;
@@ -35,7 +83,6 @@ public class WindModel {
   private WindSide windSide;
   private PolygonRegion windPolyTexture;
   private TextureRegion windTexture;
-  private TextureRegion windParticleTexture;
   /**
    * Represents the breadth over which the wind force is applied, starting from the wind origin
    */
@@ -44,27 +91,42 @@ public class WindModel {
    * Represents the length over which the wind force is applied, starting from the wind origin
    */
   private float windLength;
-  private WindParticleModel[] windParticles;
   private PolygonShape windShape;
   /**
    * Rotates wind windRotations about wind source
    */
   private float windRotation;
+  /**
+   * The direction the wind blows in, of length one
+   */
+  final private Vector2 windDirection;
+  /**
+   * The falloff table in use, from the wind source to the end of the wind
+   */
+  private float[] falloff;
+  /**
+   * The force at the wind source, by which the falloff table is multiplied
+   */
+  private float falloffScale;
   private boolean isWindOn;
-  private int numWindParticles;
-  private int windLengthParticleGrids;
-  private int windBreadthParticleGrids;
   private Vector2 drawScale;
+  /**
+   * The objects overlapping the wind, with the number of their fixtures that overlap it
+   */
+  final private ObjectIntMap<Obstacle> overlaps;
 
   WindModel() {
     windFixtureDef = new FixtureDef();
     // Set as sensor
     windFixtureDef.isSensor = true;
+    CollisionCategory.WIND.applyTo(windFixtureDef.filter);
 
     // Initialize force and origins
     windSource = new Vector2();
     windCenter = new Vector2();
     windForceCache = new Vector2();
+    windDirection = new Vector2();
+    overlaps = new ObjectIntMap<>();
 
     // Default wind color
     windColor = new Color((float) Math.random() * 0.5f, (float) Math.random() * 0.5f,
@@ -83,13 +145,10 @@ public class WindModel {
       float windLength,
       float windStrength,
       float windRotation,
-      int numWindParticles,
-      int windLengthParticleGrids,
-      int windBreadthParticleGrids,
       WindSide windSide,
       WindType windType,
+      float[] windFalloff,
       TextureRegion windTexture,
-      TextureRegion windParticleTexture,
       Vector2 drawScale
   ) {
 
@@ -100,12 +159,9 @@ public class WindModel {
     this.windType = windType;
     this.windStrength = windStrength;
     this.windTexture = windTexture;
-    this.windParticleTexture = windParticleTexture;
-    this.numWindParticles = numWindParticles;
-    this.windLengthParticleGrids = windLengthParticleGrids;
-    this.windBreadthParticleGrids = windBreadthParticleGrids;
     this.drawScale = drawScale;
     this.windSource.set(windSourceX, windSourceY);
+    initFalloff(windFalloff);
 
     float breadth2 = windBreadth / 2;
     float length2 = windLength / 2;
@@ -126,7 +182,10 @@ public class WindModel {
       windCenter.set(centerX, centerY);
     }
 
-    windShape = new PolygonShape();
+    // Reuse the shape of a previous initialization (pooled fans keep their wind)
+    if (windShape == null) {
+      windShape = new PolygonShape();
+    }
     windShape.setAsBox(
         length2,
         breadth2,
@@ -134,64 +193,50 @@ public class WindModel {
         windRotation
     );
     windFixtureDef.shape = windShape;
+    overlaps.clear();
 
-    initWindParticles();
     initDrawing();
   }
 
   /**
-   * Creates wind particles depending on wind initialization information
+   * Works out the wind direction and picks the falloff table of the wind
+   *
+   * @param windFalloff a custom falloff curve, or null to use the one of the wind type
    */
-  private void initWindParticles() {
-    // Standard is to uniformly spread particles (static fixtures right now)
-    if (numWindParticles <= 0) {
-      return;
-    }
-
-    windParticles = new WindParticleModel[numWindParticles];
-
-    if (windBreadthParticleGrids == 0 && windLengthParticleGrids == 0) {
-      windBreadthParticleGrids = windLengthParticleGrids = (int) Math.ceil(
-          Math.sqrt(numWindParticles));
+  private void initFalloff(float[] windFalloff) {
+    windDirection.set((float) Math.cos(windRotation), (float) Math.sin(windRotation));
+    // Opposite force if left side
+    windDirection.scl(windSide == WindSide.LEFT ? -1 : 1);
+
+    if (windFalloff != null) {
+      falloff = resampleFalloff(windFalloff);
+      falloffScale = windStrength;
     } else {
-      // Find the size of grids that occupy the wind length
-      windLengthParticleGrids = windLengthParticleGrids == 0 ?
-          (int) Math.ceil((float) numWindParticles / windBreadthParticleGrids) :
-          windLengthParticleGrids;
-
-      // Size of breadth grids
-      windBreadthParticleGrids = windBreadthParticleGrids == 0 ?
-          (int) Math.ceil((float) numWindParticles / windLengthParticleGrids) :
-          windBreadthParticleGrids;
+      falloff = FALLOFF_TABLES[windType.ordinal()];
+      falloffScale = windType == WindType.Default ? windStrength * windStrength : windStrength;
     }
+  }
 
-    // Grids should apply ample space for desired number of wind particles
-    assert windLengthParticleGrids * windBreadthParticleGrids >= numWindParticles;
-
-    // Prioritize wind length grids first
-    int windParticleIndex = 0;
-    float windBreadthGridDist = windBreadth / windBreadthParticleGrids;
-    float windLengthGridDist = windLength / windLengthParticleGrids;
-
-    // Create wind particles
-    for (int breadthIndex = 0; breadthIndex < windBreadthParticleGrids; breadthIndex++) {
-      for (int lengthIndex = 0; lengthIndex < windLengthParticleGrids; lengthIndex++) {
-        if (windParticleIndex >= numWindParticles) {
-          break;
-        }
-
-        WindParticleModel windParticle = new WindParticleModel(
-            windType,
-            windParticleTexture,
-            windLengthGridDist,
-            windBreadthGridDist,
-            (windSide == WindSide.LEFT ? -1 : 1) * lengthIndex * windLengthGridDist,
-            windBreadthGridDist / 2 + breadthIndex * windBreadthGridDist - windBreadth / 2
-        );
-
-        windParticles[windParticleIndex++] = windParticle;
-      }
+  /**
+   * Returns a falloff table sampled from a custom curve.
+   *
+   * <p>The curve is a list of values spread evenly from the wind source to the end of the wind,
+   * and is linearly interpolated between them.
+   *
+   * @param curve the values of the curve (at least one)
+   * @return the falloff table
+   */
+  private static float[] resampleFalloff(float[] curve) {
+    float[] table = new float[FALLOFF_SAMPLES + 1];
+    int last = curve.length - 1;
+    for (int ii = 0; ii <= FALLOFF_SAMPLES; ii++) {
+      float position = (float) ii * last / FALLOFF_SAMPLES;
+      int index = Math.min((int) position, Math.max(last - 1, 0));
+      float fraction = position - index;
+      table[ii] = last == 0 ? curve[0]
+          : curve[index] + (curve[index + 1] - curve[index]) * fraction;
     }
+    return table;
   }
 
   /**
@@ -237,10 +282,6 @@ public class WindModel {
     return windFixtureDef;
   }
 
-  public WindParticleModel[] getWindParticles() {
-    return windParticles;
-  }
-
   public void turnWindOn(boolean turnOn) {
     isWindOn = turnOn;
     if (!turnOn) {
@@ -249,7 +290,96 @@ public class WindModel {
   }
 
   /**
-   * Draws the wind container and particles
+   * Returns the contact tag of the wind fixture
+   *
+   * @return the contact tag of the wind fixture
+   */
+  @Override
+  public int getContactTag() {
+    return ContactTag.WIND;
+  }
+
+  /**
+   * Records that a fixture of an object began overlapping the wind
+   *
+   * @param obj the object owning the fixture
+   */
+  public void beginOverlap(Obstacle obj) {
+    overlaps.getAndIncrement(obj, 0, 1);
+  }
+
+  /**
+   * Records that a fixture of an object stopped overlapping the wind
+   *
+   * @param obj the object owning the fixture
+   */
+  public void endOverlap(Obstacle obj) {
+    if (overlaps.getAndIncrement(obj, 0, -1) <= 1) {
+      overlaps.remove(obj, 0);
+    }
+  }
+
+  /**
+   * Forgets every overlapping object
+   */
+  public void clearOverlaps() {
+    overlaps.clear();
+  }
+
+  /**
+   * Returns the number of objects overlapping the wind
+   *
+   * @return the number of objects overlapping the wind
+   */
+  public int getOverlapCount() {
+    return overlaps.size;
+  }
+
+  /**
+   * Pushes every object overlapping the wind, for the next physics step
+   */
+  public void applyForces() {
+    if (!isWindOn) {
+      return;
+    }
+    for (ObjectIntMap.Entry<Obstacle> entry : overlaps) {
+      Obstacle obj = entry.key;
+      Body body = obj.getBody();
+      if (body != null) {
+        body.applyForceToCenter(getForce(obj.getX(), obj.getY()), true);
+      }
+    }
+  }
+
+  /**
+   * Returns the wind force applied at a position
+   *
+   * <p>The strength of the wind depends on how far along the wind the position is, and is read
+   * from the falloff table.
+   *
+   * @param x the x-coordinate of the position, in world coordinates
+   * @param y the y-coordinate of the position, in world coordinates
+   * @return wind force applied to an object at the position
+   */
+  public Vector2 getForce(float x, float y) {
+    if (!isWindOn) {
+      assert windForceCache.x == 0 && windForceCache.y == 0;
+      return windForceCache;
+    }
+
+    // Distance from the wind source along the wind, as a ratio of the wind length
+    float proximityRatio = ((x - windSource.x) * windDirection.x
+        + (y - windSource.y) * windDirection.y) / windLength;
+    float position = MathUtils.clamp(proximityRatio, 0, 1) * FALLOFF_SAMPLES;
+    int index = Math.min((int) position, FALLOFF_SAMPLES - 1);
+    float strength = falloff[index] + (falloff[index + 1] - falloff[index]) * (position - index);
+
+    windForceCache.set(windDirection).scl(falloffScale * strength);
+    return windForceCache;
+  }
+
+  /**
+   * Draws the wind container
    */
   protected void draw(GameCanvas canvas, Vector2 drawScale) {
     if (!isWindOn) {
@@ -264,16 +394,6 @@ public class WindModel {
         (windSide == WindSide.LEFT ? -1 : 1) * windLength * drawScale.x,
         (windSide == WindSide.LEFT ? -1 : 1) * windBreadth * drawScale.y
     );
-
-    // Draw particles
-    if (windParticles != null) {
-      for (WindParticleModel windParticle : windParticles) {
-        windParticle.draw(
-            canvas,
-            drawScale
-        );
-      }
-    }
   }
 
   /**
@@ -292,112 +412,4 @@ public class WindModel {
     Exponential, // Exponential decay
     Default, // Simulate realistic wind physics
   }
-
-  /**
-   * Wrapper around wind particle fixture def that holds wind force behavior. Note that this is not
-   * concerned with when to apply the force and merely contains logic for what kind of wind force is
-   * applied.
-   */
-  public class WindParticleModel {
-
-    final private FixtureDef particleFixtureDef;
-    final private PolygonShape particleShape;
-    final private Color particleColor;
-    /**
-     * Separate wind type and texture parameter sas different particles can potentially have
-     * different behaviors
-     */
-    private WindType windType;
-    private TextureRegion particleTexture;
-    private float width, height;
-    /**
-     * The center of this particle; relative to containing wind source position
-     */
-    private float posX, posY;
-
-    public WindParticleModel(WindType windType, TextureRegion particleTexture, float width,
-        float height, float posX, float posY) {
-      this.windType = windType;
-      this.particleTexture = particleTexture;
-      this.width = width;
-      this.height = height;
-      this.posX = posX;
-      this.posY = posY;
-
-      particleColor = new Color((float) Math.random() * 0.5f, (float) Math.random() * 0.5f,
-          (float) Math.random(), 0.05f);
-
-      particleShape = new PolygonShape();
-      particleShape.setAsBox(
-          width / 2,
-          height / 2,
-          new Vector2(posX, posY),
-          windRotation
-      );
-
-      particleFixtureDef = new FixtureDef();
-      particleFixtureDef.isSensor = true;
-      particleFixtureDef.shape = particleShape;
-    }
-
-    /**
-     * Returns the wind force applied at a contact position
-     *
-     * @param (x,y) the point of contact in world coordinates, used for determining wind force
-     * @return wind force applied to the object at contact position
-     */
-    public Vector2 getForce(float x, float y) {
-      if (!isWindOn) {
-        assert windForceCache.x == 0 && windForceCache.y == 0;
-        return windForceCache;
-      }
-
-      // Use force cache to temporarily store
-      float normX = x - windSource.x;
-      float normY = y - windSource.y;
-      windForceCache.set(normX, normY);
-      // Distance from wind source
-      float norm = MathUtil.getMagnitude(windForceCache);
-      float proximityRatio = Math.min(norm / windLength, 1);
-
-      // Set the wind direction
-      windForceCache.set(
-          (float) Math.cos(windRotation),
-          (float) Math.sin(windRotation));
-
-      // Opposite force if left side
-      windForceCache.scl((windSide == WindSide.LEFT ? -1 : 1));
-
-      switch (windType) {
-        case Constant:
-          windForceCache.scl(windStrength);
-          break;
-        case Exponential:
-          // TODO: Currently defaults to 0.5, could possibly set this in Tiled?
-          float decayRate = 0.5f;
-          float decayScale = (float) Math.exp(-decayRate * proximityRatio);
-          windForceCache.scl(windStrength * decayScale);
-          break;
-        default:
-          // Natural wind physics
-          float dampingFactor = (float) Math.pow(1 - proximityRatio, 2);
-          windForceCache.scl(windStrength * windStrength * dampingFactor);
-          break;
-      }
-
-      return windForceCache;
-    }
-
-    protected FixtureDef getFixtureDef() {
-      return particleFixtureDef;
-    }
-
-    protected void draw(GameCanvas canvas, Vector2 drawScale) {
-      if (!isWindOn) {
-        return;
-      }
-
-      // TODO: Draw based on vertices of shape in the future (animation)
-    }
-  }
-}
\ No newline at end of file
+}
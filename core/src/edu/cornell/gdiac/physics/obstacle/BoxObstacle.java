@@ -87,6 +87,18 @@ public class BoxObstacle extends SimpleObstacle {
     resize(width, height);
   }
 
+  /**
+   * Resets this box to the state of a newly constructed box at the origin.
+   *
+   * <p>The dimensions are kept, as every user of a pooled box sets its size anyway.
+   */
+  @Override
+  public void reset() {
+    super.reset();
+    geometry = null;
+    debugColor = Color.YELLOW;
+  }
+
   /**
    * Returns the dimensions of this box
    *
@@ -216,7 +228,8 @@ public class BoxObstacle extends SimpleObstacle {
    */
   public void drawDebug(GameCanvas canvas) {
     if (debugColor != null) {
-      canvas.drawPhysics(shape, debugColor, getX(), getY(), getAngle(), drawScale.x, drawScale.y);
+      canvas.drawPhysics(shape, debugColor, getDrawX(), getDrawY(), getDrawAngle(),
+          drawScale.x, drawScale.y);
     }
   }
 }
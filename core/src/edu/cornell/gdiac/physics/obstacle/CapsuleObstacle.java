@@ -522,21 +522,23 @@ public class CapsuleObstacle extends SimpleObstacle {
       return;
     }
 
-    canvas.drawPhysics(shape, debugColor, getX(), getY(), getAngle(), drawScale.x, drawScale.y);
+    canvas.drawPhysics(shape, debugColor, getDrawX(), getDrawY(), getDrawAngle(),
+        drawScale.x, drawScale.y);
     if (cap1 != null) {
       // Need to manually rotate caps off axis
       float dx;
       float dy;
       if (isHorizontal(orient)) {
         float r = -center.x;
-        dx = (float) (r * Math.cos(Math.PI + getAngle()));
-        dy = (float) (r * Math.sin(Math.PI + getAngle()));
+        dx = (float) (r * Math.cos(Math.PI + getDrawAngle()));
+        dy = (float) (r * Math.sin(Math.PI + getDrawAngle()));
       } else {
         float r = center.y + center.height;
-        dx = (float) (r * Math.cos(Math.PI / 2.0f + getAngle()));
-        dy = (float) (r * Math.sin(Math.PI / 2.0f + getAngle()));
+        dx = (float) (r * Math.cos(Math.PI / 2.0f + getDrawAngle()));
+        dy = (float) (r * Math.sin(Math.PI / 2.0f + getDrawAngle()));
       }
-      canvas.drawPhysics(end1, debugColor, getX() + dx, getY() + dy, drawScale.x, drawScale.y);
+      canvas.drawPhysics(end1, debugColor, getDrawX() + dx, getDrawY() + dy,
+          drawScale.x, drawScale.y);
     }
     if (cap2 != null) {
       // Need to manually rotate caps off axis
@@ -544,14 +546,15 @@ public class CapsuleObstacle extends SimpleObstacle {
       float dy;
       if (isHorizontal(orient)) {
         float r = center.x + center.width;
-        dx = (float) (r * Math.cos(getAngle()));
-        dy = (float) (r * Math.sin(getAngle()));
+        dx = (float) (r * Math.cos(getDrawAngle()));
+        dy = (float) (r * Math.sin(getDrawAngle()));
       } else {
         float r = -center.y;
-        dx = (float) (r * Math.cos(-Math.PI / 2.0f + getAngle()));
-        dy = (float) (r * Math.sin(-Math.PI / 2.0f + getAngle()));
+        dx = (float) (r * Math.cos(-Math.PI / 2.0f + getDrawAngle()));
+        dy = (float) (r * Math.sin(-Math.PI / 2.0f + getDrawAngle()));
       }
-      canvas.drawPhysics(end2, debugColor, getX() + dx, getY() + dy, drawScale.x, drawScale.y);
+      canvas.drawPhysics(end2, debugColor, getDrawX() + dx, getDrawY() + dy,
+          drawScale.x, drawScale.y);
     }
   }
 
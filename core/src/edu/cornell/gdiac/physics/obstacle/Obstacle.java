@@ -18,14 +18,24 @@
 package edu.cornell.gdiac.physics.obstacle;
 
 import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.Body;
 import com.badlogic.gdx.physics.box2d.BodyDef;
 import com.badlogic.gdx.physics.box2d.BodyDef.BodyType;
+import com.badlogic.gdx.physics.box2d.ChainShape;
+import com.badlogic.gdx.physics.box2d.CircleShape;
+import com.badlogic.gdx.physics.box2d.EdgeShape;
 import com.badlogic.gdx.physics.box2d.Filter;
+import com.badlogic.gdx.physics.box2d.Fixture;
 import com.badlogic.gdx.physics.box2d.FixtureDef;
 import com.badlogic.gdx.physics.box2d.MassData;
+import com.badlogic.gdx.physics.box2d.PolygonShape;
+import com.badlogic.gdx.physics.box2d.Shape;
+import com.badlogic.gdx.physics.box2d.Transform;
 import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Pool;
 import edu.cornell.gdiac.main.GameCanvas;
 
 /**
@@ -39,7 +49,7 @@ import edu.cornell.gdiac.main.GameCanvas;
  * This class only exists to unify common functionality. In particular, it wraps the body and and
  * fixture information into a single interface.
  */
-public abstract class Obstacle {
+public abstract class Obstacle implements Pool.Poolable {
   /// Initialization structures to store body information
   /**
    * Stores the body information for this shape
@@ -87,6 +97,10 @@ public abstract class Obstacle {
    * A cache value for when the user wants to access the drawing scale
    */
   protected Vector2 scaleCache = new Vector2();
+  /**
+   * A cache value for computing the bounds of the fixtures
+   */
+  private final Vector2 boundsCache = new Vector2();
   /**
    * The color to show off the debug shape
    */
@@ -103,6 +117,34 @@ public abstract class Obstacle {
    * Whether the object has changed shape and needs a new fixture
    */
   private boolean isDirty;
+  /**
+   * The position of the body before the last physics step
+   */
+  private final Vector2 previousPosition = new Vector2();
+  /**
+   * The angle of the body before the last physics step
+   */
+  private float previousAngle;
+  /**
+   * The position to draw the body at, between the last two physics steps
+   */
+  private final Vector2 drawPosition = new Vector2();
+  /**
+   * The angle to draw the body at, between the last two physics steps
+   */
+  private float drawAngle;
+  /**
+   * Whether the body is drawn between physics steps (only bodies that move are)
+   */
+  private boolean interpolated;
+  /**
+   * The air resistance coefficient of this body, or NaN to use that of the level
+   */
+  private float dragCoefficient = Float.NaN;
+  /**
+   * The kind of this object, for routing its contacts (kept on reset, as it belongs to the class)
+   */
+  private int contactTag;
 
   /// BodyDef Methods
 
@@ -148,6 +190,52 @@ public abstract class Obstacle {
     debugColor = Color.WHITE;
   }
 
+  /**
+   * Resets this object to the state of a newly constructed object at the origin.
+   *
+   * <p>This lets a {@link Pool} reuse the object, along with its body and fixture definitions,
+   * instead of allocating a new one. The object must not have an active body. Subclasses that keep
+   * more state should override this method and call the super method.
+   */
+  public void reset() {
+    toRemove = false;
+    isDirty = false;
+    interpolated = false;
+    nametag = null;
+
+    bodyinfo.position.set(0, 0);
+    bodyinfo.angle = 0;
+    bodyinfo.linearVelocity.set(0, 0);
+    bodyinfo.angularVelocity = 0;
+    bodyinfo.linearDamping = 0;
+    bodyinfo.angularDamping = 0;
+    bodyinfo.awake = true;
+    bodyinfo.allowSleep = true;
+    bodyinfo.fixedRotation = false;
+    bodyinfo.bullet = false;
+    bodyinfo.active = true;
+    bodyinfo.gravityScale = 1.0f;
+    bodyinfo.type = BodyType.DynamicBody;
+
+    fixture.shape = null;
+    fixture.friction = 0.2f;
+    fixture.restitution = 0;
+    fixture.density = 0;
+    fixture.isSensor = false;
+    fixture.filter.categoryBits = 0x0001;
+    fixture.filter.maskBits = -1;
+    fixture.filter.groupIndex = 0;
+
+    masseffect = false;
+    massdata.mass = 0;
+    massdata.center.set(0, 0);
+    massdata.I = 0;
+
+    dragCoefficient = Float.NaN;
+    drawScale.set(1, 1);
+    debugColor = Color.WHITE;
+  }
+
   /**
    * Returns the body type for Box2D physics
    *
@@ -598,6 +686,48 @@ public abstract class Obstacle {
     bodyinfo.angularDamping = value;
   }
 
+  /**
+   * Returns the air resistance coefficient of this body, or NaN if it uses that of the level
+   *
+   * @return the air resistance coefficient of this body, or NaN
+   */
+  public float getDragCoefficient() {
+    return dragCoefficient;
+  }
+
+  /**
+   * Sets the air resistance coefficient of this body
+   *
+   * <p>Air resistance only applies to dynamic bodies. Set this to NaN to use the air resistance of
+   * the level.
+   *
+   * @param value the air resistance coefficient of this body, or NaN
+   */
+  public void setDragCoefficient(float value) {
+    dragCoefficient = value;
+  }
+
+  /**
+   * Returns the contact tag of this object
+   *
+   * <p>The tag is a small integer naming the kind of this object, used to route the contacts of
+   * its fixtures to the right handlers. It is 0 unless a subclass sets it.
+   *
+   * @return the contact tag of this object
+   */
+  public int getContactTag() {
+    return contactTag;
+  }
+
+  /**
+   * Sets the contact tag of this object
+   *
+   * @param value the contact tag of this object
+   */
+  public void setContactTag(int value) {
+    contactTag = value;
+  }
+
   /**
    * Copies the state from the given body to the body def.
    *
@@ -1000,6 +1130,129 @@ public abstract class Obstacle {
     nametag = value;
   }
 
+  /// Interpolation Methods
+
+  /**
+   * Records the transform of the body before a physics step.
+   *
+   * <p>The simulation runs in fixed steps that do not line up with the frames, so a frame is
+   * usually drawn part of the way between two steps (see {@link #interpolate}). Static bodies never
+   * move, and so are always drawn where they are.
+   */
+  public void saveTransform() {
+    interpolated = getBodyType() != BodyType.StaticBody;
+    if (interpolated) {
+      previousPosition.set(getX(), getY());
+      previousAngle = getAngle();
+    }
+  }
+
+  /**
+   * Works out where to draw the body, part of the way from its transform before the last physics
+   * step to its current transform.
+   *
+   * @param alpha how far into the next physics step the frame is, between 0 and 1
+   */
+  public void interpolate(float alpha) {
+    if (interpolated) {
+      drawPosition.set(previousPosition.x + (getX() - previousPosition.x) * alpha,
+          previousPosition.y + (getY() - previousPosition.y) * alpha);
+      drawAngle = previousAngle + (getAngle() - previousAngle) * alpha;
+    }
+  }
+
+  /**
+   * Returns the x-coordinate to draw this body at
+   *
+   * @return the x-coordinate to draw this body at
+   */
+  public float getDrawX() {
+    return interpolated ? drawPosition.x : getX();
+  }
+
+  /**
+   * Returns the y-coordinate to draw this body at
+   *
+   * @return the y-coordinate to draw this body at
+   */
+  public float getDrawY() {
+    return interpolated ? drawPosition.y : getY();
+  }
+
+  /**
+   * Returns the angle to draw this body at
+   *
+   * @return the angle to draw this body at
+   */
+  public float getDrawAngle() {
+    return interpolated ? drawAngle : getAngle();
+  }
+
+  /**
+   * Returns the smallest rectangle holding every fixture of this object, in world coordinates
+   *
+   * <p>If the object has no body, the rectangle is empty and at the position of the object.
+   *
+   * @param result the rectangle to store the bounds in
+   * @return the result rectangle, for chaining
+   */
+  public Rectangle getBounds(Rectangle result) {
+    Body body = getBody();
+    if (body == null || body.getFixtureList().size == 0) {
+      return result.set(getX(), getY(), 0, 0);
+    }
+    Transform transform = body.getTransform();
+    Array<Fixture> fixtures = body.getFixtureList();
+    float left = Float.MAX_VALUE, bottom = Float.MAX_VALUE;
+    float right = -Float.MAX_VALUE, top = -Float.MAX_VALUE;
+    for (int ii = 0; ii < fixtures.size; ii++) {
+      Shape shape = fixtures.get(ii).getShape();
+      int count = 0;
+      float radius = 0;
+      switch (shape.getType()) {
+        case Circle:
+          count = 1;
+          radius = shape.getRadius();
+          break;
+        case Edge:
+          count = 2;
+          break;
+        case Polygon:
+          count = ((PolygonShape) shape).getVertexCount();
+          break;
+        case Chain:
+          count = ((ChainShape) shape).getVertexCount();
+          break;
+      }
+      for (int jj = 0; jj < count; jj++) {
+        switch (shape.getType()) {
+          case Circle:
+            boundsCache.set(((CircleShape) shape).getPosition());
+            break;
+          case Edge:
+            if (jj == 0) {
+              ((EdgeShape) shape).getVertex1(boundsCache);
+            } else {
+              ((EdgeShape) shape).getVertex2(boundsCache);
+            }
+            break;
+          case Polygon:
+            ((PolygonShape) shape).getVertex(jj, boundsCache);
+            break;
+          case Chain:
+            ((ChainShape) shape).getVertex(jj, boundsCache);
+            break;
+        }
+        transform.mul(boundsCache);
+        left = Math.min(left, boundsCache.x - radius);
+        bottom = Math.min(bottom, boundsCache.y - radius);
+        right = Math.max(right, boundsCache.x + radius);
+        top = Math.max(top, boundsCache.y + radius);
+      }
+    }
+    return result.set(left, bottom, right - left, top - bottom);
+  }
+
   /// Abstract Methods
 
   /**
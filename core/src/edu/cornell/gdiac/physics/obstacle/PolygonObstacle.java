@@ -35,9 +35,11 @@ import edu.cornell.gdiac.main.GameCanvas;
 public class PolygonObstacle extends SimpleObstacle {
 
   /**
-   * An earclipping triangular to make sure we work with convex shapes
+   * An earclipping triangular to make sure we work with convex shapes. The triangulator reuses
+   * its buffers, so there is one per thread, for the levels built on different threads.
    */
-  protected static final EarClippingTriangulator TRIANGULATOR = new EarClippingTriangulator();
+  protected static final ThreadLocal<EarClippingTriangulator> TRIANGULATOR =
+      ThreadLocal.withInitial(EarClippingTriangulator::new);
 
   /**
    * Shape information for this physics object
@@ -220,7 +222,7 @@ public class PolygonObstacle extends SimpleObstacle {
    */
   protected void initShapes(float[] points) {
     // Triangulate
-    ShortArray array = TRIANGULATOR.computeTriangles(points);
+    ShortArray array = TRIANGULATOR.get().computeTriangles(points);
     trimColinear(points, array);
 
     tridx = new short[array.items.length];
@@ -397,7 +399,8 @@ public class PolygonObstacle extends SimpleObstacle {
   public void draw(GameCanvas canvas) {
     if (region != null) {
       canvas.draw(
-          region, Color.WHITE, 0, 0, getX() * drawScale.x, getY() * drawScale.y, getAngle(), 1, 1);
+          region, Color.WHITE, 0, 0, getDrawX() * drawScale.x, getDrawY() * drawScale.y,
+          getDrawAngle(), 1, 1);
     }
   }
 
@@ -412,7 +415,8 @@ public class PolygonObstacle extends SimpleObstacle {
   public void drawDebug(GameCanvas canvas) {
     if (debugColor != null) {
       for (PolygonShape tri : shapes) {
-        canvas.drawPhysics(tri, debugColor, getX(), getY(), getAngle(), drawScale.x, drawScale.y);
+        canvas.drawPhysics(tri, debugColor, getDrawX(), getDrawY(), getDrawAngle(),
+            drawScale.x, drawScale.y);
       }
     }
   }
@@ -74,6 +74,19 @@ public abstract class SimpleObstacle extends Obstacle {
     body = null;
   }
 
+  /**
+   * Resets this object to the state of a newly constructed object at the origin.
+   *
+   * <p>The object must not have an active body.
+   */
+  @Override
+  public void reset() {
+    super.reset();
+    body = null;
+    texture = null;
+    origin.set(0, 0);
+  }
+
   /**
    * Returns the body type for Box2D physics
    * <p>
@@ -802,8 +815,8 @@ public abstract class SimpleObstacle extends Obstacle {
    */
   public void draw(GameCanvas canvas) {
     if (texture != null) {
-      canvas.draw(texture, Color.WHITE, origin.x, origin.y, getX() * drawScale.x,
-          getY() * drawScale.x, getAngle(), 1, 1);
+      canvas.draw(texture, Color.WHITE, origin.x, origin.y, getDrawX() * drawScale.x,
+          getDrawY() * drawScale.x, getDrawAngle(), 1, 1);
     }
   }
 
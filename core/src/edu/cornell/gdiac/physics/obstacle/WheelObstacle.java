@@ -141,7 +141,7 @@ public class WheelObstacle extends SimpleObstacle {
    */
   public void drawDebug(GameCanvas canvas) {
     if (debugColor != null) {
-      canvas.drawPhysics(shape, debugColor, getX(), getY(), drawScale.x, drawScale.y);
+      canvas.drawPhysics(shape, debugColor, getDrawX(), getDrawY(), drawScale.x, drawScale.y);
     }
   }
 
@@ -0,0 +1,217 @@
+package edu.cornell.gdiac.util;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.BufferUtils;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.JsonValue.ValueType;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Class that reads levels in the precompiled binary level format.
+ *
+ * <p>Binary levels are compiled from the Tiled JSON exports by the tools project (see the
+ * compileLevels task). All values are big-endian. The layout is
+ *
+ * <pre>
+ * header      int magic, short version, short map width, short map height,
+ *             short tile width, short tile height
+ * strings     int count, then per string: short byte length, UTF-8 bytes
+ * properties  (map properties, see below)
+ * layers      short count, then per layer: byte kind, short name, properties, then
+ *               tile layer:   width * height shorts of tile data
+ *               object layer: short count, then per object: short name, short type,
+ *                             float x, float y, float width, float height, float rotation,
+ *                             int gid (0 if none), short polygon points, (float x, float y) per
+ *                             point, properties
+ * properties  short count, then per property: short name, byte type, value
+ *               bool: byte, int: int, float: float, string: short
+ * </pre>
+ *
+ * <p>Every "short name", "short type" and string value is an index into the string table.
+ */
+public class BinaryLevelReader {
+
+  /**
+   * The file extension of binary levels
+   */
+  public static final String EXTENSION = ".lvl";
+  /**
+   * The first four bytes of every binary level ("DOAL")
+   */
+  public static final int MAGIC = 0x444F414C;
+  /**
+   * The format version written by the level compiler
+   */
+  public static final short VERSION = 1;
+
+  /**
+   * Layer kinds
+   */
+  public static final byte LAYER_TILES = 0;
+  public static final byte LAYER_OBJECTS = 1;
+
+  /**
+   * Property types
+   */
+  public static final byte PROPERTY_BOOL = 0;
+  public static final byte PROPERTY_INT = 1;
+  public static final byte PROPERTY_FLOAT = 2;
+  public static final byte PROPERTY_STRING = 3;
+
+  /**
+   * Reads a binary level file.
+   *
+   * <p>The file is memory-mapped when the backend allows it. Otherwise (e.g. for classpath files)
+   * it is copied into a direct buffer.
+   *
+   * @param file the binary level file
+   * @return the level data
+   * @throws GdxRuntimeException if the file is not a binary level of a supported version
+   */
+  public static LevelData read(FileHandle file) {
+    ByteBuffer buffer;
+    try {
+      buffer = file.map();
+    } catch (GdxRuntimeException e) {
+      byte[] bytes = file.readBytes();
+      buffer = BufferUtils.newByteBuffer(bytes.length);
+      buffer.put(bytes);
+      buffer.flip();
+    }
+    buffer.order(ByteOrder.BIG_ENDIAN);
+    return read(buffer);
+  }
+
+  /**
+   * Reads a binary level from the current position of the given buffer.
+   *
+   * @param buffer the buffer to read from
+   * @return the level data
+   * @throws GdxRuntimeException if the buffer is not a binary level of a supported version
+   */
+  public static LevelData read(ByteBuffer buffer) {
+    if (buffer.getInt() != MAGIC) {
+      throw new GdxRuntimeException("Not a binary level file");
+    }
+    short version = buffer.getShort();
+    if (version != VERSION) {
+      throw new GdxRuntimeException("Unsupported binary level version " + version);
+    }
+
+    LevelData data = new LevelData();
+    data.width = buffer.getShort();
+    data.height = buffer.getShort();
+    data.tileWidth = buffer.getShort();
+    data.tileHeight = buffer.getShort();
+
+    String[] strings = new String[buffer.getInt()];
+    for (int ii = 0; ii < strings.length; ii++) {
+      byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+      buffer.get(bytes);
+      strings[ii] = new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    data.properties = readProperties(buffer, strings).child();
+    int layers = buffer.getShort();
+    for (int ii = 0; ii < layers; ii++) {
+      LevelData.Layer layer = new LevelData.Layer();
+      byte kind = buffer.get();
+      layer.name = readString(buffer, strings);
+      layer.properties = readProperties(buffer, strings).child();
+      if (kind == LAYER_TILES) {
+        int[] tiles = new int[data.width * data.height];
+        for (int jj = 0; jj < tiles.length; jj++) {
+          tiles[jj] = buffer.getShort() & 0xFFFF;
+        }
+        layer.tiles = tiles;
+      } else {
+        layer.objects = readObjects(buffer, strings).child();
+      }
+      data.layers.add(layer);
+    }
+    return data;
+  }
+
+  /**
+   * Reads a reference to the string table
+   */
+  private static String readString(ByteBuffer buffer, String[] strings) {
+    return strings[buffer.getShort() & 0xFFFF];
+  }
+
+  /**
+   * Reads an object list, rebuilding each object in the Tiled JSON layout
+   */
+  private static JsonValue readObjects(ByteBuffer buffer, String[] strings) {
+    JsonValue objects = new JsonValue(ValueType.array);
+    int count = buffer.getShort();
+    for (int ii = 0; ii < count; ii++) {
+      JsonValue object = new JsonValue(ValueType.object);
+      object.addChild("name", new JsonValue(readString(buffer, strings)));
+      object.addChild("type", new JsonValue(readString(buffer, strings)));
+      object.addChild("x", new JsonValue(buffer.getFloat()));
+      object.addChild("y", new JsonValue(buffer.getFloat()));
+      object.addChild("width", new JsonValue(buffer.getFloat()));
+      object.addChild("height", new JsonValue(buffer.getFloat()));
+      object.addChild("rotation", new JsonValue(buffer.getFloat()));
+      int gid = buffer.getInt();
+      if (gid != 0) {
+        object.addChild("gid", new JsonValue(gid));
+      }
+      int points = buffer.getShort();
+      if (points > 0) {
+        JsonValue polygon = new JsonValue(ValueType.array);
+        for (int jj = 0; jj < points; jj++) {
+          JsonValue point = new JsonValue(ValueType.object);
+          point.addChild("x", new JsonValue(buffer.getFloat()));
+          point.addChild("y", new JsonValue(buffer.getFloat()));
+          polygon.addChild(point);
+        }
+        object.addChild("polygon", polygon);
+      }
+      object.addChild("properties", readProperties(buffer, strings));
+      objects.addChild(object);
+    }
+    return objects;
+  }
+
+  /**
+   * Reads a property list, rebuilding it in the Tiled JSON layout (name, type, value)
+   */
+  private static JsonValue readProperties(ByteBuffer buffer, String[] strings) {
+    JsonValue properties = new JsonValue(ValueType.array);
+    int count = buffer.getShort();
+    for (int ii = 0; ii < count; ii++) {
+      JsonValue property = new JsonValue(ValueType.object);
+      property.addChild("name", new JsonValue(readString(buffer, strings)));
+      byte type = buffer.get();
+      JsonValue value;
+      switch (type) {
+        case PROPERTY_BOOL:
+          property.addChild("type", new JsonValue("bool"));
+          value = new JsonValue(buffer.get() != 0);
+          break;
+        case PROPERTY_INT:
+          property.addChild("type", new JsonValue("int"));
+          value = new JsonValue(buffer.getInt());
+          break;
+        case PROPERTY_FLOAT:
+          property.addChild("type", new JsonValue("float"));
+          value = new JsonValue(buffer.getFloat());
+          break;
+        case PROPERTY_STRING:
+          property.addChild("type", new JsonValue("string"));
+          value = new JsonValue(readString(buffer, strings));
+          break;
+        default:
+          throw new GdxRuntimeException("Unknown property type " + type);
+      }
+      property.addChild("value", value);
+      properties.addChild(property);
+    }
+    return properties;
+  }
+}
@@ -0,0 +1,140 @@
+package edu.cornell.gdiac.util;
+
+import com.badlogic.gdx.physics.box2d.Filter;
+import edu.cornell.gdiac.physics.obstacle.Obstacle;
+
+/**
+ * The collision categories of the game, and which of them collide with each other.
+ *
+ * <p>Each category is a Box2D category bit, and has a mask of the categories it collides with.
+ * Box2D only makes a contact between two fixtures if each one is in the mask of the other, so
+ * pairs that never interact (like wind and sensors, or debris and the player) are dropped in the
+ * broadphase, before any contact callback.
+ *
+ * <p>Terrain is the Box2D default category, and collides with everything, so that an obstacle
+ * without a category (or a pooled one that was reset) is terrain. Obstacles of other categories
+ * set theirs in their constructor, and a Tiled object can override its category with the
+ * "category" property and its mask with the "collides" property (a comma-separated list of
+ * category names).
+ */
+public enum CollisionCategory {
+  /**
+   * Platforms, tiles and anything else solid
+   */
+  TERRAIN,
+  /**
+   * The player
+   */
+  PLAYER,
+  /**
+   * The NPC
+   */
+  NPC,
+  /**
+   * The wind of a fan
+   */
+  WIND,
+  /**
+   * Pass-through platforms
+   */
+  PASS_THROUGH,
+  /**
+   * Sensors that only detect things (ground and pass-through sensors, the exit)
+   */
+  SENSOR,
+  /**
+   * The pieces of broken platforms
+   */
+  DEBRIS;
+
+  static {
+    TERRAIN.mask = -1;
+    collide(PLAYER, TERRAIN, NPC, WIND, PASS_THROUGH);
+    collide(NPC, TERRAIN, WIND, PASS_THROUGH, SENSOR);
+    collide(WIND, TERRAIN, DEBRIS);
+    collide(PASS_THROUGH, TERRAIN, SENSOR, DEBRIS);
+    collide(SENSOR, TERRAIN, SENSOR);
+    collide(DEBRIS, TERRAIN);
+  }
+
+  /**
+   * The categories this category collides with
+   */
+  private short mask;
+
+  /**
+   * Makes a category collide with the given categories (and them with it)
+   */
+  private static void collide(CollisionCategory category, CollisionCategory... others) {
+    for (CollisionCategory other : others) {
+      category.mask |= other.getBits();
+      other.mask |= category.getBits();
+    }
+  }
+
+  /**
+   * Returns the category bit of this category
+   *
+   * @return the category bit of this category
+   */
+  public short getBits() {
+    return (short) (1 << ordinal());
+  }
+
+  /**
+   * Returns the categories this category collides with, as a mask
+   *
+   * @return the categories this category collides with, as a mask
+   */
+  public short getMask() {
+    return mask;
+  }
+
+  /**
+   * Puts a fixture filter in this category, colliding with the categories it collides with
+   *
+   * @param filter the fixture filter
+   */
+  public void applyTo(Filter filter) {
+    filter.categoryBits = getBits();
+    filter.maskBits = mask;
+  }
+
+  /**
+   * Puts the fixtures of an obstacle in this category, colliding with the categories it collides
+   * with. Only affects fixtures created afterwards.
+   *
+   * @param obj the obstacle
+   */
+  public void applyTo(Obstacle obj) {
+    applyTo(obj.getFilterData());
+  }
+
+  /**
+   * Returns the category of the given name (in any case)
+   *
+   * @param name the category name, with words separated by underscores, spaces or dashes
+   * @return the category of the given name
+   * @throws IllegalArgumentException if there is no such category
+   */
+  public static CollisionCategory parse(String name) {
+    return valueOf(name.trim().toUpperCase().replace(' ', '_').replace('-', '_'));
+  }
+
+  /**
+   * Returns the mask of a comma-separated list of category names
+   *
+   * @param names the category names
+   * @return the mask of the categories
+   * @throws IllegalArgumentException if a name is not a category
+   */
+  public static short parseMask(String names) {
+    short mask = 0;
+    for (String name : names.split(",")) {
+      if (!name.trim().isEmpty()) {
+        mask |= parse(name).getBits();
+      }
+    }
+    return mask;
+  }
+}
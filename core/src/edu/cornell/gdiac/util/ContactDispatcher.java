@@ -0,0 +1,241 @@
+package edu.cornell.gdiac.util;
+
+import com.badlogic.gdx.physics.box2d.Contact;
+import com.badlogic.gdx.physics.box2d.ContactImpulse;
+import com.badlogic.gdx.physics.box2d.ContactListener;
+import com.badlogic.gdx.physics.box2d.Fixture;
+import com.badlogic.gdx.physics.box2d.Manifold;
+import edu.cornell.gdiac.physics.obstacle.Obstacle;
+
+/**
+ * A contact listener that routes every contact to the handlers registered for its kind.
+ *
+ * <p>Every fixture has a small integer tag saying what kind of thing it is: the tag of its user
+ * data if that is {@link Tagged}, and otherwise the tag of its obstacle (see
+ * {@link Obstacle#getContactTag}). Handlers are registered for a pair of tags and a phase of the
+ * contact, and kept in a table indexed by both tags, so each contact costs a single lookup however
+ * many handlers there are.
+ *
+ * <p>The two fixtures of a contact are passed to a handler in the order of the tags it was
+ * registered with. A handler registered for a tag with itself may get the fixtures in either
+ * order.
+ */
+public class ContactDispatcher implements ContactListener {
+
+  /**
+   * The phases of a contact
+   */
+  public enum Phase {
+    /**
+     * The fixtures began to touch
+     */
+    BEGIN,
+    /**
+     * The fixtures stopped touching
+     */
+    END,
+    /**
+     * The contact is about to be solved
+     */
+    PRE_SOLVE,
+    /**
+     * The contact was solved
+     */
+    POST_SOLVE
+  }
+
+  /**
+   * Fixture user data that carries its own contact tag
+   */
+  public interface Tagged {
+
+    /**
+     * Returns the contact tag of the fixture
+     *
+     * @return the contact tag of the fixture
+     */
+    int getContactTag();
+  }
+
+  /**
+   * Handles one phase of a contact between two kinds of fixtures
+   */
+  @FunctionalInterface
+  public interface Handler {
+
+    /**
+     * Handles a contact, with the fixtures in the order of the tags the handler was registered for
+     *
+     * @param contact  the contact
+     * @param fixture1 the fixture with the first tag
+     * @param obj1     the obstacle owning the first fixture
+     * @param fixture2 the fixture with the second tag
+     * @param obj2     the obstacle owning the second fixture
+     */
+    void handle(Contact contact, Fixture fixture1, Obstacle obj1, Fixture fixture2, Obstacle obj2);
+  }
+
+  /**
+   * The number of contact tags
+   */
+  private final int tagCount;
+  /**
+   * The handlers by phase, then by pair of tags (smallest tag first), or null if there are none
+   */
+  private final Handler[][][][] handlers;
+
+  /**
+   * Creates a dispatcher with no handlers
+   *
+   * @param tagCount the number of contact tags, which range from 0 to tagCount - 1
+   */
+  public ContactDispatcher(int tagCount) {
+    this.tagCount = tagCount;
+    handlers = new Handler[Phase.values().length][tagCount][tagCount][];
+  }
+
+  /**
+   * Registers a handler for contacts between two kinds of fixtures
+   *
+   * @param phase   the phase of the contact to handle
+   * @param tag1    the tag of the first fixture given to the handler
+   * @param tag2    the tag of the second fixture given to the handler
+   * @param handler the handler
+   */
+  public void register(Phase phase, int tag1, int tag2, Handler handler) {
+    if (tag1 > tag2) {
+      int swap = tag1;
+      tag1 = tag2;
+      tag2 = swap;
+      Handler unswapped = handler;
+      handler = (contact, fixture1, obj1, fixture2, obj2) ->
+          unswapped.handle(contact, fixture2, obj2, fixture1, obj1);
+    }
+    Handler[][] table = handlers[phase.ordinal()][tag1];
+    Handler[] list = table[tag2];
+    if (list == null) {
+      list = new Handler[1];
+    } else {
+      Handler[] longer = new Handler[list.length + 1];
+      System.arraycopy(list, 0, longer, 0, list.length);
+      list = longer;
+    }
+    list[list.length - 1] = handler;
+    table[tag2] = list;
+  }
+
+  /**
+   * Registers a handler for contacts between one kind of fixture and a number of others
+   *
+   * @param phase   the phase of the contact to handle
+   * @param tag     the tag of the first fixture given to the handler
+   * @param others  the tags of the second fixture given to the handler
+   * @param handler the handler
+   */
+  public void register(Phase phase, int tag, int[] others, Handler handler) {
+    for (int other : others) {
+      register(phase, tag, other, handler);
+    }
+  }
+
+  /**
+   * Registers a handler for contacts between one kind of fixture and any fixture
+   *
+   * @param phase   the phase of the contact to handle
+   * @param tag     the tag of the first fixture given to the handler
+   * @param handler the handler
+   */
+  public void registerAny(Phase phase, int tag, Handler handler) {
+    for (int other = 0; other < tagCount; other++) {
+      register(phase, tag, other, handler);
+    }
+  }
+
+  /**
+   * Returns the contact tag of a fixture
+   *
+   * @param fixture the fixture
+   * @param obj     the obstacle owning the fixture
+   * @return the contact tag of the fixture
+   */
+  public static int getContactTag(Fixture fixture, Obstacle obj) {
+    Object data = fixture.getUserData();
+    return data instanceof Tagged ? ((Tagged) data).getContactTag() : obj.getContactTag();
+  }
+
+  /**
+   * Routes a phase of a contact to its handlers
+   *
+   * @param phase   the phase of the contact
+   * @param contact the contact
+   */
+  protected void dispatch(Phase phase, Contact contact) {
+    Fixture fixture1 = contact.getFixtureA();
+    Fixture fixture2 = contact.getFixtureB();
+    Obstacle obj1 = (Obstacle) fixture1.getBody().getUserData();
+    Obstacle obj2 = (Obstacle) fixture2.getBody().getUserData();
+    int tag1 = getContactTag(fixture1, obj1);
+    int tag2 = getContactTag(fixture2, obj2);
+
+    Handler[] list;
+    if (tag1 <= tag2) {
+      list = handlers[phase.ordinal()][tag1][tag2];
+    } else {
+      list = handlers[phase.ordinal()][tag2][tag1];
+      Fixture swapFixture = fixture1;
+      fixture1 = fixture2;
+      fixture2 = swapFixture;
+      Obstacle swapObj = obj1;
+      obj1 = obj2;
+      obj2 = swapObj;
+    }
+    if (list == null) {
+      return;
+    }
+    for (Handler handler : list) {
+      handler.handle(contact, fixture1, obj1, fixture2, obj2);
+    }
+  }
+
+  /**
+   * Called when two fixtures begin to touch
+   *
+   * @param contact the contact between the fixtures
+   */
+  @Override
+  public void beginContact(Contact contact) {
+    dispatch(Phase.BEGIN, contact);
+  }
+
+  /**
+   * Called when two fixtures cease to touch
+   *
+   * @param contact the contact between the fixtures
+   */
+  @Override
+  public void endContact(Contact contact) {
+    dispatch(Phase.END, contact);
+  }
+
+  /**
+   * Called before the physics engine solves a contact
+   *
+   * @param contact     the contact about to be solved
+   * @param oldManifold the manifold of the contact before it is solved
+   */
+  @Override
+  public void preSolve(Contact contact, Manifold oldManifold) {
+    dispatch(Phase.PRE_SOLVE, contact);
+  }
+
+  /**
+   * Called after the physics engine has solved a contact
+   *
+   * @param contact the contact that was solved
+   * @param impulse the impulse generated by the physics engine to resolve the contact
+   */
+  @Override
+  public void postSolve(Contact contact, ContactImpulse impulse) {
+    dispatch(Phase.POST_SOLVE, contact);
+  }
+}
@@ -0,0 +1,104 @@
+package edu.cornell.gdiac.util;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.JsonValue;
+
+/**
+ * The contents of a Tiled level, independent of the file format it was read from.
+ *
+ * <p>Tile layers are kept as plain data arrays so that building a level (and rebuilding it on
+ * every reset) never has to walk a JSON tree of thousands of cells. Properties and objects are
+ * still JSON values in the Tiled layout (name/type/value property lists, objects with x, y,
+ * width, height, rotation, gid, polygon and properties), since the model classes initialize
+ * themselves from those.
+ *
+ * <p>A level can come from a Tiled JSON export ({@link #fromJson}) or from the precompiled binary
+ * format ({@link BinaryLevelReader}).
+ */
+public class LevelData {
+
+  /**
+   * A single layer of a level
+   */
+  public static class Layer {
+
+    /**
+     * The layer name
+     */
+    public String name;
+    /**
+     * The first layer property, or null if the layer has none
+     */
+    public JsonValue properties;
+    /**
+     * The row-major tile data, or null if this is not a tile layer
+     */
+    public int[] tiles;
+    /**
+     * The first object of the layer, or null if there are none
+     */
+    public JsonValue objects;
+  }
+
+  /**
+   * The number of tile columns
+   */
+  public int width;
+  /**
+   * The number of tile rows
+   */
+  public int height;
+  /**
+   * The width of a tile in pixels
+   */
+  public int tileWidth;
+  /**
+   * The height of a tile in pixels
+   */
+  public int tileHeight;
+  /**
+   * The first map property, or null if the map has none
+   */
+  public JsonValue properties;
+  /**
+   * The layers of the map, in Tiled order
+   */
+  public final Array<Layer> layers = new Array<>();
+
+  /**
+   * Creates the level data for a Tiled JSON export
+   *
+   * <p>The tile data of every layer is copied out of the JSON tree once, here.
+   *
+   * @param json the root of the Tiled JSON file
+   * @return the level data
+   */
+  public static LevelData fromJson(JsonValue json) {
+    LevelData data = new LevelData();
+    data.width = json.getInt("width");
+    data.height = json.getInt("height");
+    data.tileWidth = json.getInt("tilewidth");
+    data.tileHeight = json.getInt("tileheight");
+    data.properties = firstChild(json, "properties");
+
+    for (JsonValue entry = json.get("layers").child(); entry != null; entry = entry.next()) {
+      Layer layer = new Layer();
+      layer.name = entry.getString("name");
+      layer.properties = firstChild(entry, "properties");
+      if (entry.get("data") != null) {
+        layer.tiles = entry.get("data").asIntArray();
+      }
+      layer.objects = firstChild(entry, "objects");
+      data.layers.add(layer);
+    }
+    return data;
+  }
+
+  /**
+   * Returns the first child of the named entry, or null if there is no such entry
+   */
+  private static JsonValue firstChild(JsonValue json, String name) {
+    JsonValue entry = json.get(name);
+    return entry == null ? null : entry.child();
+  }
+}
@@ -176,9 +176,22 @@
     * @return whether the addition succeeeded
     */
    public boolean add(E e) {
+     return append(e) != null;
+   }
+
+   /**
+    * Adds an element to the end of the list and returns its entry
+    * <p>
+    * Keeping the entry allows the element to be removed later in O(1) time, with
+    * {@link Entry#remove}.
+    *
+    * @param e the element to add
+    * @return the entry of the element, or null if the addition failed
+    */
+   public Entry append(E e) {
      Entry entry = memory.obtain();
      if (entry == null) {
-       return false;
+       return null;
      }
      entry.value = e;
      entry.prev = tail;
@@ -189,7 +202,7 @@
      }
      tail = entry;
      size++;
-     return true;
+     return entry;
    }
 
    /**
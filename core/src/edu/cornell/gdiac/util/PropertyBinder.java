@@ -0,0 +1,256 @@
+package edu.cornell.gdiac.util;
+
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.JsonWriter.OutputType;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.ObjectSet;
+import edu.cornell.gdiac.assets.AssetDirectory;
+
+/**
+ * Applies a list of Tiled properties to an object.
+ *
+ * <p>A binder maps each property name it knows to a setter. It is built once per class (usually
+ * as a static field of the class it binds) and then applied to every object of that class, so
+ * applying properties is a single map lookup per property rather than a string switch. Properties
+ * without a setter are ignored.
+ *
+ * <p>A binder can start from the setters of a binder for a superclass, in which case it binds
+ * both the inherited properties and its own.
+ *
+ * <p>A property whose setter only works on an object that is still being built (because it is
+ * read once when the body is created, or because setting it twice compounds) is marked as
+ * {@link #fixed}. An object whose fixed properties changed must be built again rather than
+ * {@link #update updated}.
+ *
+ * @param <T> the class of objects this binder applies properties to
+ */
+public class PropertyBinder<T> {
+
+  /**
+   * Sets a property from its raw JSON value
+   */
+  public interface Setter<T> {
+
+    /**
+     * Sets the property on the given object
+     *
+     * @param target    the object to set the property on
+     * @param value     the property value
+     * @param directory the asset directory, for properties that name assets
+     */
+    void set(T target, JsonValue value, AssetDirectory directory);
+  }
+
+  /**
+   * Sets a float property
+   */
+  public interface FloatSetter<T> {
+
+    void set(T target, float value);
+  }
+
+  /**
+   * Sets an int property
+   */
+  public interface IntSetter<T> {
+
+    void set(T target, int value);
+  }
+
+  /**
+   * Sets a boolean property
+   */
+  public interface BooleanSetter<T> {
+
+    void set(T target, boolean value);
+  }
+
+  /**
+   * Sets a string property
+   */
+  public interface StringSetter<T> {
+
+    void set(T target, String value);
+  }
+
+  /**
+   * The setter of each bound property, by property name
+   */
+  private final ObjectMap<String, Setter<? super T>> setters;
+  /**
+   * The properties that can only be set on an object that is still being built
+   */
+  private final ObjectSet<String> fixed;
+
+  /**
+   * Creates a binder with no properties
+   */
+  public PropertyBinder() {
+    setters = new ObjectMap<>();
+    fixed = new ObjectSet<>();
+  }
+
+  /**
+   * Creates a binder with the properties of the given binder
+   *
+   * @param parent the binder of a superclass
+   */
+  public PropertyBinder(PropertyBinder<? super T> parent) {
+    setters = new ObjectMap<>(parent.setters.size);
+    for (ObjectMap.Entry<String, ? extends Setter<? super T>> entry : parent.setters) {
+      setters.put(entry.key, entry.value);
+    }
+    fixed = new ObjectSet<>(parent.fixed);
+  }
+
+  /**
+   * Binds a property, replacing any setter it already has
+   *
+   * @param name   the property name
+   * @param setter the property setter
+   * @return this binder, for chaining
+   */
+  public PropertyBinder<T> bind(String name, Setter<? super T> setter) {
+    setters.put(name, setter);
+    return this;
+  }
+
+  /**
+   * Binds a float property
+   *
+   * @param name   the property name
+   * @param setter the property setter
+   * @return this binder, for chaining
+   */
+  public PropertyBinder<T> bindFloat(String name, FloatSetter<? super T> setter) {
+    return bind(name, (target, value, directory) -> setter.set(target, value.asFloat()));
+  }
+
+  /**
+   * Binds an int property
+   *
+   * @param name   the property name
+   * @param setter the property setter
+   * @return this binder, for chaining
+   */
+  public PropertyBinder<T> bindInt(String name, IntSetter<? super T> setter) {
+    return bind(name, (target, value, directory) -> setter.set(target, value.asInt()));
+  }
+
+  /**
+   * Binds a boolean property
+   *
+   * @param name   the property name
+   * @param setter the property setter
+   * @return this binder, for chaining
+   */
+  public PropertyBinder<T> bindBoolean(String name, BooleanSetter<? super T> setter) {
+    return bind(name, (target, value, directory) -> setter.set(target, value.asBoolean()));
+  }
+
+  /**
+   * Binds a string property
+   *
+   * @param name   the property name
+   * @param setter the property setter
+   * @return this binder, for chaining
+   */
+  public PropertyBinder<T> bindString(String name, StringSetter<? super T> setter) {
+    return bind(name, (target, value, directory) -> setter.set(target, value.asString()));
+  }
+
+  /**
+   * Marks bound properties as only settable on an object that is still being built
+   *
+   * @param names the property names
+   * @return this binder, for chaining
+   */
+  public PropertyBinder<T> fixed(String... names) {
+    fixed.addAll(names);
+    return this;
+  }
+
+  /**
+   * Applies a Tiled property list to an object, in list order
+   *
+   * @param target     the object to set the properties on
+   * @param properties the first property of the list, or null if there are none
+   * @param directory  the asset directory, for properties that name assets (may be null if no
+   *                   bound property does)
+   */
+  public void apply(T target, JsonValue properties, AssetDirectory directory) {
+    for (; properties != null; properties = properties.next()) {
+      Setter<? super T> setter = setters.get(properties.getString("name"));
+      if (setter != null) {
+        setter.set(target, properties.get("value"), directory);
+      }
+    }
+  }
+
+  /**
+   * Returns true if an object can be updated from one version of its property list to another.
+   *
+   * <p>This is only the case if no bound property was removed (as it would have to be reset to
+   * its default) and no {@link #fixed} property was added or changed.
+   *
+   * @param previous the first property of the list the object was built with, or null
+   * @param current  the first property of the new list, or null
+   * @return true if the object can be updated in place
+   */
+  public boolean canUpdate(JsonValue previous, JsonValue current) {
+    for (JsonValue property = previous; property != null; property = property.next()) {
+      String name = property.getString("name");
+      if (setters.containsKey(name) && find(current, name) == null) {
+        return false;
+      }
+    }
+    for (JsonValue property = current; property != null; property = property.next()) {
+      String name = property.getString("name");
+      if (fixed.contains(name) && changed(property, find(previous, name))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Applies the properties that were added or changed in a Tiled property list, in list order
+   *
+   * <p>This should only be called if {@link #canUpdate} allows it.
+   *
+   * @param target    the object to set the properties on
+   * @param previous  the first property of the list the object was built with, or null
+   * @param current   the first property of the new list, or null
+   * @param directory the asset directory, for properties that name assets (may be null if no
+   *                  bound property does)
+   */
+  public void update(T target, JsonValue previous, JsonValue current, AssetDirectory directory) {
+    for (JsonValue property = current; property != null; property = property.next()) {
+      String name = property.getString("name");
+      Setter<? super T> setter = setters.get(name);
+      if (setter != null && changed(property, find(previous, name))) {
+        setter.set(target, property.get("value"), directory);
+      }
+    }
+  }
+
+  /**
+   * Returns the property of the given name in a property list, or null if there is none
+   */
+  private static JsonValue find(JsonValue properties, String name) {
+    for (; properties != null; properties = properties.next()) {
+      if (name.equals(properties.getString("name"))) {
+        return properties;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns true if a property has a different value than its previous version (or has none)
+   */
+  private static boolean changed(JsonValue property, JsonValue previous) {
+    return previous == null || !property.get("value").toJson(OutputType.minimal)
+        .equals(previous.get("value").toJson(OutputType.minimal));
+  }
+}
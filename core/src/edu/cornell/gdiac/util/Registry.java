@@ -0,0 +1,120 @@
+package edu.cornell.gdiac.util;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import java.util.Iterator;
+
+/**
+ * An unordered set of objects that is as cheap to iterate as an array.
+ *
+ * <p>The objects are kept in an array, along with the index of each object in it, so adding,
+ * removing and looking up an object all take constant time. Removing an object moves the last
+ * object into its place, so the order of the objects is not kept.
+ *
+ * <p>The objects are compared by identity, unless they override equals.
+ *
+ * @param <T> the type of the objects
+ */
+public class Registry<T> implements Iterable<T> {
+
+  /**
+   * The objects, in no particular order
+   */
+  private final Array<T> items;
+  /**
+   * The index of each object in the array
+   */
+  private final ObjectIntMap<T> indices;
+
+  /**
+   * Creates an empty registry
+   */
+  public Registry() {
+    items = new Array<>(false, 16);
+    indices = new ObjectIntMap<>();
+  }
+
+  /**
+   * Adds an object, unless it is already in this registry
+   *
+   * @param item the object to add
+   * @return true if the object was added
+   */
+  public boolean add(T item) {
+    if (indices.containsKey(item)) {
+      return false;
+    }
+    indices.put(item, items.size);
+    items.add(item);
+    return true;
+  }
+
+  /**
+   * Removes an object, if it is in this registry.
+   *
+   * <p>The last object takes the place of the removed one. When removing objects while looping
+   * over the registry by index, loop from the end.
+   *
+   * @param item the object to remove
+   * @return true if the object was removed
+   */
+  public boolean remove(T item) {
+    int index = indices.remove(item, -1);
+    if (index < 0) {
+      return false;
+    }
+    T last = items.pop();
+    if (index < items.size) {
+      items.set(index, last);
+      indices.put(last, index);
+    }
+    return true;
+  }
+
+  /**
+   * Returns true if the object is in this registry
+   *
+   * @param item the object
+   * @return true if the object is in this registry
+   */
+  public boolean contains(T item) {
+    return indices.containsKey(item);
+  }
+
+  /**
+   * Returns the object at the given index
+   *
+   * @param index the index, from 0 to size() - 1
+   * @return the object at the given index
+   */
+  public T get(int index) {
+    return items.get(index);
+  }
+
+  /**
+   * Returns the number of objects in this registry
+   *
+   * @return the number of objects in this registry
+   */
+  public int size() {
+    return items.size;
+  }
+
+  /**
+   * Removes every object from this registry
+   */
+  public void clear() {
+    items.clear();
+    indices.clear();
+  }
+
+  /**
+   * Returns an iterator over the objects. The registry must not be changed while iterating.
+   *
+   * @return an iterator over the objects
+   */
+  @Override
+  public Iterator<T> iterator() {
+    return items.iterator();
+  }
+}
@@ -0,0 +1,253 @@
+package edu.cornell.gdiac.util;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IdentityMap;
+import com.badlogic.gdx.utils.LongMap;
+import java.util.Comparator;
+
+/**
+ * A uniform grid of square cells over a set of rectangles, for finding the objects in an area.
+ * <p>Every object is listed in each cell its bounding rectangle overlaps, so finding the objects
+ * in an area only looks at the cells of that area, however many objects there are elsewhere. An
+ * object that moves must be put again, which only costs anything when it changes cells.
+ * <p>The objects found are returned in the order they were first put, so that they can be drawn
+ * in a stable order. The objects are compared by identity.
+ * @param <T> the type of the objects
+ */
+public class SpatialGrid<T> {
+
+  /**
+   * An object in the grid, along with its bounds
+   */
+  private static class Entry<E> {
+
+    /**
+     * The object
+     */
+    E item;
+    /**
+     * When the object was first put, to keep the objects in order
+     */
+    int order;
+    /**
+     * The bounding rectangle of the object
+     */
+    float left, bottom, right, top;
+    /**
+     * The range of cells the object is listed in (inclusive)
+     */
+    int x0, y0, x1, y1;
+    /**
+     * The last query that found this object, so that it is only found once
+     */
+    int query;
+  }
+
+  /**
+   * Orders the entries by when they were first put
+   */
+  private static final Comparator<Entry<?>> BY_ORDER = (a, b) -> Integer.compare(a.order, b.order);
+
+  /**
+   * The width and height of a cell
+   */
+  private final float cellSize;
+  /**
+   * The entries of each cell, by cell key
+   */
+  private final LongMap<Array<Entry<T>>> cells;
+  /**
+   * The entry of each object
+   */
+  private final IdentityMap<T, Entry<T>> entries;
+  /**
+   * The entries found by the current query
+   */
+  private final Array<Entry<T>> found;
+  /**
+   * The order given to the next object put
+   */
+  private int nextOrder;
+  /**
+   * The number of queries so far
+   */
+  private int queries;
+
+  /**
+   * Creates an empty grid with the given cell size
+   * @param cellSize the width and height of a cell
+   */
+  public SpatialGrid(float cellSize) {
+    this.cellSize = cellSize;
+    cells = new LongMap<>();
+    entries = new IdentityMap<>();
+    found = new Array<>(false, 64);
+  }
+
+  /**
+   * Adds an object with the given bounds, or moves it there if it is already in the grid
+   * @param item   the object
+   * @param bounds the bounding rectangle of the object
+   */
+  public void put(T item, Rectangle bounds) {
+    put(item, bounds.x, bounds.y, bounds.width, bounds.height);
+  }
+
+  /**
+   * Adds an object with the given bounds, or moves it there if it is already in the grid
+   * @param item   the object
+   * @param x      the left of the bounding rectangle
+   * @param y      the bottom of the bounding rectangle
+   * @param width  the width of the bounding rectangle
+   * @param height the height of the bounding rectangle
+   */
+  public void put(T item, float x, float y, float width, float height) {
+    int x0 = cell(x);
+    int y0 = cell(y);
+    int x1 = cell(x + width);
+    int y1 = cell(y + height);
+    Entry<T> entry = entries.get(item);
+    if (entry == null) {
+      entry = new Entry<>();
+      entry.item = item;
+      entry.order = nextOrder++;
+      entries.put(item, entry);
+      link(entry, x0, y0, x1, y1);
+    } else if (x0 != entry.x0 || y0 != entry.y0 || x1 != entry.x1 || y1 != entry.y1) {
+      unlink(entry);
+      link(entry, x0, y0, x1, y1);
+    }
+    entry.left = x;
+    entry.bottom = y;
+    entry.right = x + width;
+    entry.top = y + height;
+  }
+
+  /**
+   * Removes an object from the grid
+   * @param item the object to remove
+   * @return true if the object was in the grid
+   */
+  public boolean remove(T item) {
+    Entry<T> entry = entries.remove(item);
+    if (entry == null) {
+      return false;
+    }
+    unlink(entry);
+    return true;
+  }
+
+  /**
+   * Returns true if the object is in the grid
+   * @param item the object
+   * @return true if the object is in the grid
+   */
+  public boolean contains(T item) {
+    return entries.containsKey(item);
+  }
+
+  /**
+   * Returns the number of objects in the grid
+   * @return the number of objects in the grid
+   */
+  public int size() {
+    return entries.size;
+  }
+
+  /**
+   * Removes every object from the grid
+   */
+  public void clear() {
+    cells.clear();
+    entries.clear();
+    nextOrder = 0;
+  }
+
+  /**
+   * Adds the objects whose bounds overlap an area to an array, in the order they were first put
+   * @param area   the area to look in
+   * @param result the array to add the objects to
+   * @return the result array, for chaining
+   */
+  public Array<T> query(Rectangle area, Array<T> result) {
+    queries++;
+    float right = area.x + area.width;
+    float top = area.y + area.height;
+    int x0 = cell(area.x);
+    int y0 = cell(area.y);
+    int x1 = cell(right);
+    int y1 = cell(top);
+    for (int cy = y0; cy <= y1; cy++) {
+      for (int cx = x0; cx <= x1; cx++) {
+        Array<Entry<T>> cell = cells.get(key(cx, cy));
+        if (cell == null) {
+          continue;
+        }
+        for (int ii = 0; ii < cell.size; ii++) {
+          Entry<T> entry = cell.get(ii);
+          if (entry.query != queries && entry.left <= right && area.x <= entry.right
+              && entry.bottom <= top && area.y <= entry.top) {
+            entry.query = queries;
+            found.add(entry);
+          }
+        }
+      }
+    }
+    found.sort(BY_ORDER);
+    for (int ii = 0; ii < found.size; ii++) {
+      result.add(found.get(ii).item);
+    }
+    found.clear();
+    return result;
+  }
+
+  /**
+   * Lists an entry in every cell of the given range
+   */
+  private void link(Entry<T> entry, int x0, int y0, int x1, int y1) {
+    entry.x0 = x0;
+    entry.y0 = y0;
+    entry.x1 = x1;
+    entry.y1 = y1;
+    for (int cy = y0; cy <= y1; cy++) {
+      for (int cx = x0; cx <= x1; cx++) {
+        long key = key(cx, cy);
+        Array<Entry<T>> cell = cells.get(key);
+        if (cell == null) {
+          cell = new Array<>(false, 8);
+          cells.put(key, cell);
+        }
+        cell.add(entry);
+      }
+    }
+  }
+
+  /**
+   * Removes an entry from every cell it is listed in
+   */
+  private void unlink(Entry<T> entry) {
+    for (int cy = entry.y0; cy <= entry.y1; cy++) {
+      for (int cx = entry.x0; cx <= entry.x1; cx++) {
+        Array<Entry<T>> cell = cells.get(key(cx, cy));
+        if (cell != null) {
+          cell.removeValue(entry, true);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the cell coordinate of a position
+   */
+  private int cell(float position) {
+    return (int) Math.floor(position / cellSize);
+  }
+
+  /**
+   * Returns the key of a cell
+   */
+  private static long key(int x, int y) {
+    return ((long) x << 32) | (y & 0xffffffffL);
+  }
+}
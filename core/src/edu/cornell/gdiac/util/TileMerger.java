@@ -0,0 +1,87 @@
+package edu.cornell.gdiac.util;
+
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Class that provides utility functions for merging the cells of a Tiled tile layer into larger
+ * collision shapes.
+ *
+ * <p>Tiled stores a tile layer as a row-major data array where the first row is the top of the
+ * map and 0 marks an empty cell. All of the methods in this class use the same convention.
+ */
+public class TileMerger {
+
+  /**
+   * Number of ints used to describe a single rectangle
+   */
+  public static final int RECT_STRIDE = 4;
+
+  /**
+   * Greedily partitions the non-empty cells of a tile layer into maximal rectangles.
+   *
+   * <p>Cells are scanned from the top-left corner. Each uncovered cell starts a new rectangle,
+   * which is first grown as far to the right as possible and then grown downwards for as long as
+   * every cell of the next row is also free. Every non-empty cell ends up in exactly one
+   * rectangle.
+   *
+   * <p>The rectangles are packed into the returned array as (col, row, width, height) tuples,
+   * measured in cells. See {@link #RECT_STRIDE}.
+   *
+   * @param cols the number of columns of the data array
+   * @param rows the number of rows of the data array
+   * @param data the data array
+   * @return the packed rectangles covering every non-empty cell
+   */
+  public static IntArray mergeRectangles(int cols, int rows, int[] data) {
+    IntArray rects = new IntArray();
+    boolean[] covered = new boolean[data.length];
+
+    for (int row = 0; row < rows; row++) {
+      for (int col = 0; col < cols; col++) {
+        int start = row * cols + col;
+        if (data[start] == 0 || covered[start]) {
+          continue;
+        }
+
+        // Grow to the right
+        int width = 1;
+        while (col + width < cols && isFree(data, covered, start + width)) {
+          width++;
+        }
+
+        // Grow downwards while the whole span of the next row is free
+        int height = 1;
+        while (row + height < rows && isSpanFree(data, covered, start + height * cols, width)) {
+          height++;
+        }
+
+        for (int jj = 0; jj < height; jj++) {
+          for (int ii = 0; ii < width; ii++) {
+            covered[start + jj * cols + ii] = true;
+          }
+        }
+        rects.add(col, row, width, height);
+      }
+    }
+    return rects;
+  }
+
+  /**
+   * Returns true if the cell at the given index is non-empty and not yet part of a rectangle
+   */
+  private static boolean isFree(int[] data, boolean[] covered, int index) {
+    return data[index] != 0 && !covered[index];
+  }
+
+  /**
+   * Returns true if every cell in [index, index + width) is free
+   */
+  private static boolean isSpanFree(int[] data, boolean[] covered, int index, int width) {
+    for (int ii = 0; ii < width; ii++) {
+      if (!isFree(data, covered, index + ii)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,202 @@
+package edu.cornell.gdiac.util;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import java.util.Arrays;
+
+/**
+ * Class that provides utility functions for tracing the outlines of solid regions in a Tiled tile
+ * layer.
+ *
+ * <p>A region is a set of non-empty cells connected through their edges (tiles that only touch at
+ * a corner belong to different regions). Every region is bounded by one outer loop and one loop
+ * per hole. Loops are expressed in grid corner coordinates: corner (x, y) is the top-left corner
+ * of cell (x, y), so x ranges over [0, cols] and y over [0, rows], with y pointing down like the
+ * rows of the data array. Consecutive collinear edges are collapsed, so every loop vertex is a
+ * real corner of the outline.
+ */
+public class TileOutliner {
+
+  /**
+   * Edge directions, in clockwise order so that (dir + 1) % 4 is a right turn
+   */
+  private static final int EAST = 0;
+  private static final int SOUTH = 1;
+  private static final int WEST = 2;
+  private static final int NORTH = 3;
+  private static final int[] DX = {1, 0, -1, 0};
+  private static final int[] DY = {0, 1, 0, -1};
+  /**
+   * Order in which to try the outgoing edges of a corner: right, straight, then left
+   */
+  private static final int[] TURNS = {1, 0, 3};
+
+  /**
+   * Traces the outlines of every solid region in a tile layer.
+   *
+   * <p>The result has one entry per region, in the order the regions are first met when scanning
+   * the data array. Each region is a list of loops, and each loop is packed as (x, y) corner
+   * coordinates. If cells is not null, it receives the data indices of the cells of each region,
+   * in the same order as the result.
+   *
+   * @param cols  the number of columns of the data array
+   * @param rows  the number of rows of the data array
+   * @param data  the data array
+   * @param cells optional list to receive the cells of each region
+   * @return the outline loops of every region
+   */
+  public static Array<Array<IntArray>> traceRegions(int cols, int rows, int[] data,
+      Array<IntArray> cells) {
+    int[] labels = labelRegions(cols, rows, data, cells);
+    Array<Array<IntArray>> regions = new Array<>();
+
+    // Every solid cell contributes a clockwise edge along each side that faces empty space.
+    int corners = (cols + 1) * (rows + 1);
+    boolean[] exists = new boolean[corners * 4];
+    boolean[] used = new boolean[corners * 4];
+    for (int row = 0; row < rows; row++) {
+      for (int col = 0; col < cols; col++) {
+        if (data[row * cols + col] == 0) {
+          continue;
+        }
+        if (!isSolid(cols, rows, data, col, row - 1)) {
+          exists[edge(cols, col, row, EAST)] = true;
+        }
+        if (!isSolid(cols, rows, data, col + 1, row)) {
+          exists[edge(cols, col + 1, row, SOUTH)] = true;
+        }
+        if (!isSolid(cols, rows, data, col, row + 1)) {
+          exists[edge(cols, col + 1, row + 1, WEST)] = true;
+        }
+        if (!isSolid(cols, rows, data, col - 1, row)) {
+          exists[edge(cols, col, row + 1, NORTH)] = true;
+        }
+      }
+    }
+
+    for (int start = 0; start < exists.length; start++) {
+      if (!exists[start] || used[start]) {
+        continue;
+      }
+      IntArray loop = traceLoop(cols, exists, used, start);
+
+      // The cell to the right of the first edge tells us which region owns the loop
+      int x = (start / 4) % (cols + 1);
+      int y = (start / 4) / (cols + 1);
+      int label = labels[cellRightOf(cols, x, y, start % 4)];
+      while (regions.size <= label) {
+        regions.add(new Array<IntArray>());
+      }
+      regions.get(label).add(loop);
+    }
+    return regions;
+  }
+
+  /**
+   * Follows a single loop of edges, starting (and ending) at the given edge.
+   *
+   * <p>When a corner has two outgoing edges (two cells touching diagonally), we always prefer the
+   * rightmost turn. That keeps the solid side of the loop on the same cell, so the diagonal cells
+   * stay in separate loops.
+   */
+  private static IntArray traceLoop(int cols, boolean[] exists, boolean[] used, int start) {
+    IntArray loop = new IntArray();
+    int corner = start / 4;
+    int dir = start % 4;
+    int prevDir = -1;
+    while (true) {
+      used[corner * 4 + dir] = true;
+      if (dir != prevDir) {
+        loop.add(corner % (cols + 1), corner / (cols + 1));
+      }
+      prevDir = dir;
+      corner += DY[dir] * (cols + 1) + DX[dir];
+
+      int next = -1;
+      for (int turn : TURNS) {
+        int candidate = corner * 4 + (dir + turn) % 4;
+        if (exists[candidate]) {
+          next = candidate;
+          break;
+        }
+      }
+      if (next == start || next == -1) {
+        break;
+      }
+      dir = next % 4;
+    }
+
+    // The start corner is not a real corner if the loop closes heading the same way it started
+    if (prevDir == start % 4) {
+      loop.removeRange(0, 1);
+    }
+    return loop;
+  }
+
+  /**
+   * Labels each cell with the index of its region, or -1 if it is empty.
+   */
+  private static int[] labelRegions(int cols, int rows, int[] data, Array<IntArray> cells) {
+    int[] labels = new int[data.length];
+    Arrays.fill(labels, -1);
+    IntArray stack = new IntArray();
+    int count = 0;
+    for (int seed = 0; seed < data.length; seed++) {
+      if (data[seed] == 0 || labels[seed] != -1) {
+        continue;
+      }
+      IntArray members = new IntArray();
+      labels[seed] = count;
+      stack.add(seed);
+      while (stack.size > 0) {
+        int index = stack.pop();
+        members.add(index);
+        int col = index % cols;
+        int row = index / cols;
+        for (int dir = 0; dir < 4; dir++) {
+          int nc = col + DX[dir];
+          int nr = row + DY[dir];
+          if (isSolid(cols, rows, data, nc, nr) && labels[nr * cols + nc] == -1) {
+            labels[nr * cols + nc] = count;
+            stack.add(nr * cols + nc);
+          }
+        }
+      }
+      if (cells != null) {
+        cells.add(members);
+      }
+      count++;
+    }
+    return labels;
+  }
+
+  /**
+   * Returns the data index of the cell on the solid (right) side of an edge
+   */
+  private static int cellRightOf(int cols, int x, int y, int dir) {
+    switch (dir) {
+      case EAST:
+        return y * cols + x;
+      case SOUTH:
+        return y * cols + x - 1;
+      case WEST:
+        return (y - 1) * cols + x - 1;
+      default:
+        return (y - 1) * cols + x;
+    }
+  }
+
+  /**
+   * Returns the index of the edge leaving corner (x, y) in the given direction
+   */
+  private static int edge(int cols, int x, int y, int dir) {
+    return (y * (cols + 1) + x) * 4 + dir;
+  }
+
+  /**
+   * Returns true if (col, row) is inside the layer and non-empty
+   */
+  private static boolean isSolid(int cols, int rows, int[] data, int col, int row) {
+    return col >= 0 && row >= 0 && col < cols && row < rows && data[row * cols + col] != 0;
+  }
+}
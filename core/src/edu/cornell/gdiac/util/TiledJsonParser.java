@@ -1,31 +1,146 @@
 package edu.cornell.gdiac.util;
 
 import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Colors;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.BodyDef;
 import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.ObjectMap;
 import edu.cornell.gdiac.assets.AssetDirectory;
-import edu.cornell.gdiac.main.BouncePlatformModel;
-import edu.cornell.gdiac.main.BreakablePlatformModel;
-import edu.cornell.gdiac.main.FanModel;
-import edu.cornell.gdiac.main.NPCModel;
-import edu.cornell.gdiac.main.PlayerModel;
-import edu.cornell.gdiac.main.SlopeModel;
 import edu.cornell.gdiac.physics.obstacle.BoxObstacle;
 import edu.cornell.gdiac.physics.obstacle.CapsuleObstacle;
+import edu.cornell.gdiac.physics.obstacle.PolygonObstacle;
 import edu.cornell.gdiac.physics.obstacle.SimpleObstacle;
-import java.lang.reflect.Field;
 
 /**
  * Class that provides utility functions for parsing Tiled json and populating obstacles
  */
 public class TiledJsonParser {
 
-  private static Vector2 drawScale; // scale factor to convert to pixels : pixels / meter
-  private static int tiledHeight; // height of Tiled editor, used for mapping Tiled pixels to world (physics units)
-  private static String type; // Type of object being initialized
+  /**
+   * The named colors, by upper and lower case name. Built once, so that looking up a debug color
+   * no longer goes through reflection.
+   */
+  private static final ObjectMap<String, Color> COLORS = new ObjectMap<>();
+
+  static {
+    for (ObjectMap.Entry<String, Color> entry : Colors.getColors()) {
+      COLORS.put(entry.key, entry.value);
+      COLORS.put(entry.key.toLowerCase(), entry.value);
+    }
+  }
+
+  /**
+   * The properties shared by every Tiled object (physics, collision filtering, debug color and
+   * texture)
+   */
+  public static final PropertyBinder<SimpleObstacle> OBSTACLE_PROPERTIES =
+      new PropertyBinder<SimpleObstacle>()
+          .bindString("bodytype", (obstacle, value) -> obstacle.setBodyType(parseBodyType(value)))
+          .bindString("BodyType", (obstacle, value) -> obstacle.setBodyType(parseBodyType(value)))
+          .bindFloat("density", SimpleObstacle::setDensity)
+          .bindFloat("friction", SimpleObstacle::setFriction)
+          .bindFloat("restitution", SimpleObstacle::setRestitution)
+          .bindFloat("drag", SimpleObstacle::setDragCoefficient)
+          .bindString("category", TiledJsonParser::applyCategory)
+          .bindString("collides", TiledJsonParser::applyCollides)
+          .bindString("debugcolor", (obstacle, value) -> obstacle.setDebugColor(getColor(value)))
+          .bindInt("debugopacity", TiledJsonParser::applyDebugOpacity)
+          .bind("texture", TiledJsonParser::applyTexture)
+          .fixed("bodytype", "BodyType", "density", "category", "collides", "debugcolor",
+              "debugopacity");
+
+  /**
+   * The properties of a tile layer (physics, collision filtering and debug color)
+   */
+  public static final PropertyBinder<SimpleObstacle> TILE_PROPERTIES =
+      new PropertyBinder<SimpleObstacle>()
+          .bindFloat("density", SimpleObstacle::setDensity)
+          .bindFloat("friction", SimpleObstacle::setFriction)
+          .bindFloat("restitution", SimpleObstacle::setRestitution)
+          .bindString("category", TiledJsonParser::applyCategory)
+          .bindString("collides", TiledJsonParser::applyCollides)
+          .bindString("debugcolor", (obstacle, value) -> obstacle.setDebugColor(getColor(value)))
+          .bindInt("debugopacity", TiledJsonParser::applyDebugOpacity);
+
+  /**
+   * Returns a copy of the named color
+   *
+   * @param name the color name, as in {@link Colors} (either all upper or all lower case)
+   * @return a new copy of the color, or null if there is no such color
+   */
+  public static Color getColor(String name) {
+    Color color = COLORS.get(name);
+    if (color == null) {
+      color = COLORS.get(name.toUpperCase());
+    }
+    return color == null ? null : new Color(color);
+  }
+
+  /**
+   * Returns the body type named by a Tiled property ("static" or anything else for dynamic)
+   *
+   * @param name the body type name
+   * @return the body type
+   */
+  public static BodyDef.BodyType parseBodyType(String name) {
+    return name.equals("static") ? BodyDef.BodyType.StaticBody : BodyDef.BodyType.DynamicBody;
+  }
+
+  /**
+   * Scales the alpha of the debug color of an obstacle, if it has one
+   *
+   * @param obstacle the obstacle
+   * @param opacity  the opacity, from 0 to 255
+   */
+  private static void applyDebugOpacity(SimpleObstacle obstacle, int opacity) {
+    if (obstacle.getDebugColor() != null) {
+      obstacle.setDebugColor(obstacle.getDebugColor().mul(opacity / 255.0f));
+    }
+  }
+
+  /**
+   * Puts an obstacle in the named collision category, colliding with what that category collides
+   * with (see {@link CollisionCategory})
+   *
+   * @param obstacle the obstacle
+   * @param name     the category name
+   */
+  private static void applyCategory(SimpleObstacle obstacle, String name) {
+    CollisionCategory.parse(name).applyTo(obstacle);
+  }
+
+  /**
+   * Makes an obstacle collide with exactly the named collision categories, given as a
+   * comma-separated list (see {@link CollisionCategory})
+   *
+   * @param obstacle the obstacle
+   * @param names    the category names
+   */
+  private static void applyCollides(SimpleObstacle obstacle, String names) {
+    obstacle.getFilterData().maskBits = CollisionCategory.parseMask(names);
+  }
+
+  /**
+   * Sets the texture of an obstacle from its asset key
+   *
+   * <p>Polygons fill their shape by repeating the texture, which a region of an atlas cannot do, so
+   * they always get the whole texture. Other obstacles draw from the atlas once it is packed.
+   *
+   * @param obstacle  the obstacle
+   * @param value     the texture key
+   * @param directory the asset directory
+   */
+  private static void applyTexture(SimpleObstacle obstacle, JsonValue value,
+      AssetDirectory directory) {
+    String key = value.asString();
+    TextureRegion region = obstacle instanceof PolygonObstacle
+        ? new TextureRegion(directory.getEntry(key, Texture.class))
+        : new TextureRegion(directory.getEntry(key, TextureRegion.class));
+    obstacle.setTexture(region);
+  }
 
   /**
    * Parses json and initializes the obstacle's properties
@@ -38,23 +153,12 @@ public class TiledJsonParser {
       SimpleObstacle obstacle, AssetDirectory directory, JsonValue json) {
     // Technically, we should do error checking here.
     // A JSON field might accidentally be missing
-    obstacle.setBodyType(
-        json.get("bodytype").asString().equals("static")
-            ? BodyDef.BodyType.StaticBody
-            : BodyDef.BodyType.DynamicBody);
+    obstacle.setBodyType(parseBodyType(json.get("bodytype").asString()));
     obstacle.setDensity(json.get("density").asFloat());
     obstacle.setFriction(json.get("friction").asFloat());
     obstacle.setRestitution(json.get("restitution").asFloat());
 
-    // Reflection is best way to convert name to color
-    Color debugColor;
-    try {
-      String cname = json.get("debugcolor").asString().toUpperCase();
-      Field field = Class.forName("com.badlogic.gdx.graphics.Color").getField(cname);
-      debugColor = new Color((Color) field.get(null));
-    } catch (Exception e) {
-      debugColor = null; // Not defined
-    }
+    Color debugColor = getColor(json.get("debugcolor").asString());
     int opacity = json.get("debugopacity").asInt();
     debugColor.mul(opacity / 255.0f);
     obstacle.setDebugColor(debugColor);
@@ -66,133 +170,59 @@ public class TiledJsonParser {
   }
 
   /**
-   * @param obstacle  obstacle to initialize
-   * @param directory asset directory for use of assets
-   * @param json      json to use for initialization
+   * Sets the name, position and (optionally) size of an obstacle from a Tiled object.
+   *
+   * <p>Tiled positions objects by their top left corner in pixels, with y pointing down. The
+   * offset (in pixels) corrects for object types whose origin does not match that.
+   *
+   * @param obstacle    obstacle to place
+   * @param json        the Tiled object
+   * @param tiledHeight the height of the level in pixels
+   * @param offsetX     the x offset of the object type, in pixels
+   * @param offsetY     the y offset of the object type, in pixels
+   * @param sized       whether to set the obstacle dimension from the object size
    */
-  public static void initObjectFromJson(
-      SimpleObstacle obstacle, AssetDirectory directory, JsonValue json, Vector2 dScale,
-      int tHeight) {
-    // Set parser fields, obstacle name, and obstacle position
-    drawScale = dScale;
-    obstacle.setDrawScale(drawScale);
-    tiledHeight = tHeight;
-    type = json.getString("name");
-    obstacle.setName(type);
+  public static void placeObject(SimpleObstacle obstacle, JsonValue json, int tiledHeight,
+      float offsetX, float offsetY, boolean sized) {
+    Vector2 drawScale = obstacle.getDrawScale();
+    obstacle.setName(json.getString("name"));
     float x = json.getFloat("x");
     float y = json.getFloat("y");
-    setSimpleObstaclePosition(obstacle, x, y);
+    obstacle.setPosition((x + offsetX) * (1 / drawScale.x),
+        ((tiledHeight - y) + offsetY) * (1 / drawScale.y));
 
-    if (!type.equals("slope")) {
+    if (sized) {
       float width = json.getFloat("width") * (1 / drawScale.x);
       float height = json.getFloat("height") * (1 / drawScale.y);
       setSimpleObstacleDimension(obstacle, width, height);
     }
+  }
 
-    // Loop through common properties of all objects and set obstacle fields
-    JsonValue properties = json.get("properties").child();
-    while (properties != null) {
-      Color debugColor;
-      switch (properties.getString("name")) {
-        case "bodytype":
-        case "BodyType":
-          obstacle.setBodyType(
-              properties.get("value").asString().equals("static") ? BodyDef.BodyType.StaticBody
-                  : BodyDef.BodyType.DynamicBody);
-          break;
-        case "density":
-          obstacle.setDensity(properties.getFloat("value"));
-          break;
-        case "friction":
-          obstacle.setFriction(properties.getFloat("value"));
-          break;
-        case "restitution":
-          obstacle.setRestitution(properties.getFloat("value"));
-          break;
-        case "debugcolor":
-          try {
-            String cname = properties.getString("value").toUpperCase();
-            Field field = Class.forName(
-                "com.badlogic.gdx.graphics.Color").getField(cname);
-            debugColor = new Color((Color) field.get(null));
-          } catch (Exception e) {
-            debugColor = null;
-          }
-          obstacle.setDebugColor(debugColor);
-          break;
-        case "debugopacity":
-          int debugOpacity = properties.getInt("value");
-          obstacle.setDebugColor(obstacle.getDebugColor().mul(debugOpacity / 255.0f));
-          break;
-        case "texture":
-          String key = properties.getString("value");
-          TextureRegion texture = new TextureRegion(directory.getEntry(key, Texture.class));
-          obstacle.setTexture(texture);
-          break;
-        default:
-          break;
-      }
-
-      properties = properties.next();
-    }
-
-    // Call object specific method for object-specific properties
-    switch (json.getString("name")) {
-      case "player":
-        assert (obstacle instanceof PlayerModel);
-        PlayerModel player = (PlayerModel) obstacle;
-        player.initialize(directory, json);
-        break;
-      case "slope":
-        assert (obstacle instanceof SlopeModel);
-        SlopeModel slope = (SlopeModel) obstacle;
-        slope.initialize(json);
-        break;
-      case "bounce":
-        assert (obstacle instanceof BouncePlatformModel);
-        BouncePlatformModel bounce = (BouncePlatformModel) obstacle;
-        bounce.initialize(directory, json);
-        break;
-      case "breakable":
-        assert (obstacle instanceof BreakablePlatformModel);
-        BreakablePlatformModel breakable = (BreakablePlatformModel) obstacle;
-        breakable.initialize(directory, json);
-        break;
-      case "fan":
-        assert (obstacle instanceof FanModel);
-        FanModel fan = (FanModel) obstacle;
-        fan.initialize(directory, json);
-        break;
-      case "npc":
-        assert (obstacle instanceof NPCModel);
-        NPCModel npc = (NPCModel) obstacle;
-        npc.initialize(json);
-      default:
-        break;
-    }
+  /**
+   * Applies the physics and debug properties of a Tiled tile layer to an obstacle
+   *
+   * @param obstacle       obstacle to initialize
+   * @param tileProperties the first property of the tile layer, or null if there are none
+   */
+  public static void initFromTileProperties(SimpleObstacle obstacle, JsonValue tileProperties) {
+    TILE_PROPERTIES.apply(obstacle, tileProperties, null);
   }
 
-  public static void setSimpleObstaclePosition(SimpleObstacle obstacle, float x, float y) {
-    int offsetx = 0;
-    int offsety = 0;
-    if (type.equals("slope")) {
-      // For now offset all slopes by -8 in x and 8 in y
-      offsetx = -8;
-      offsety = 8;
-    } else if (type.equals("bounce")) {
-      // For now offset all bounce platforms in x and y direction by 16
-      // If x position is 0, only offset the y
-      // I don't know why bounce platforms are acting this way, we will need to fix in future
-      if (x > 0) {
-        offsetx = 16;
+  /**
+   * Returns the value of the Tiled property with the given name, if it exists
+   *
+   * @param properties the first property of a Tiled properties list, or null
+   * @param name       the name of the property
+   * @return the property value, or null if there is no such property
+   */
+  public static JsonValue getProperty(JsonValue properties, String name) {
+    while (properties != null) {
+      if (name.equals(properties.getString("name"))) {
+        return properties.get("value");
       }
-      offsety = 16;
-    } else if (type.equals("breakable")) {
-      offsety = 16;
+      properties = properties.next();
     }
-    x = (x + offsetx) * (1 / drawScale.x);
-    y = ((tiledHeight - y) + offsety) * (1 / drawScale.y);
-    obstacle.setPosition(x, y);
+    return null;
   }
 
   public static void setSimpleObstacleDimension(SimpleObstacle obstacle, float width,
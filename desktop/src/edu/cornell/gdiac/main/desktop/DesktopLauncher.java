@@ -29,6 +29,9 @@ public class DesktopLauncher {
    * <p>
    * This method simply exists to start a new LwjglApplication.  For desktop games, LibGDX is built
    * on top of LWJGL (this is not the case for Android).
+   * <p>
+   * Passing -pixel draws the level at the resolution of its art and scales it up to the window
+   * (see {@link edu.cornell.gdiac.main.GameCanvas#setPixelScaling}).
    *
    * @param arg Command line arguments
    */
@@ -39,8 +42,12 @@ public class DesktopLauncher {
     config.height = 600;
     config.fullscreen = false;
     config.resizable = false;
-    config.foregroundFPS = 60;
+    config.vSyncEnabled = true;
     config.backgroundFPS = 60;
-    new GDXApp(new GDXRoot(), config);
+    boolean pixelScaling = false;
+    for (String option : arg) {
+      pixelScaling |= option.equals("-pixel");
+    }
+    new GDXApp(new GDXRoot(pixelScaling), config);
   }
 }
\ No newline at end of file
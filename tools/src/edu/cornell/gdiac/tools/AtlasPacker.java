@@ -0,0 +1,229 @@
+package edu.cornell.gdiac.tools;
+
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import javax.imageio.ImageIO;
+
+/**
+ * Command line tool that packs the textures of the asset directory into texture atlases.
+ *
+ * <p>Usage: AtlasPacker &lt;assets directory&gt; &lt;asset directory JSON&gt;. Every entry of the
+ * "atlases" section of the asset directory that lists "textures" is packed: the images of those
+ * texture keys are packed into as few pages as possible and written, along with the libGDX atlas
+ * file, to the "file" of the entry. Each region is named after its texture key, so that
+ * {@code getEntry(key, TextureRegion.class)} finds it in the atlas.
+ *
+ * <p>Every image is surrounded by a copy of its edge pixels, so that filtering at the border of a
+ * region never picks up its neighbours.
+ */
+public class AtlasPacker {
+
+  /**
+   * The number of edge pixels copied around each image
+   */
+  private static final int PADDING = 2;
+  /**
+   * The largest width and height of an atlas page
+   */
+  private static final int MAX_PAGE_SIZE = 2048;
+
+  /**
+   * An image to pack, and where it was packed
+   */
+  private static class Region {
+
+    /**
+     * The texture key, which names the region
+     */
+    final String name;
+    /**
+     * The image of the texture
+     */
+    final BufferedImage image;
+    /**
+     * The page the image was packed into
+     */
+    int page;
+    /**
+     * The top left corner of the image in its page, inside the padding
+     */
+    int x, y;
+
+    Region(String name, BufferedImage image) {
+      this.name = name;
+      this.image = image;
+    }
+  }
+
+  /**
+   * Packs every atlas of the asset directory
+   *
+   * @param args the assets directory and the asset directory JSON
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      System.err.println("Usage: AtlasPacker <assets directory> <asset directory JSON>");
+      System.exit(1);
+    }
+    File assets = new File(args[0]);
+    JsonValue directory = new JsonReader().parse(new String(
+        Files.readAllBytes(new File(args[1]).toPath()), StandardCharsets.UTF_8));
+    JsonValue textures = directory.get("textures");
+    JsonValue atlases = directory.get("atlases");
+    if (atlases == null) {
+      return;
+    }
+
+    for (JsonValue atlas = atlases.child; atlas != null; atlas = atlas.next) {
+      if (!atlas.isObject() || !atlas.has("textures")) {
+        continue;
+      }
+      List<Region> regions = new ArrayList<>();
+      for (String key : atlas.get("textures").asStringArray()) {
+        JsonValue texture = textures == null ? null : textures.get(key);
+        if (texture == null) {
+          throw new IOException("Atlas " + atlas.name + " packs unknown texture " + key);
+        }
+        String file = texture.isString() ? texture.asString() : texture.getString("file");
+        BufferedImage image = ImageIO.read(new File(assets, file));
+        if (image == null) {
+          throw new IOException("Cannot read " + file);
+        }
+        regions.add(new Region(key, image));
+      }
+
+      File output = new File(assets, atlas.getString("file"));
+      int pages = new AtlasPacker().pack(regions, output);
+      System.out.println(atlas.name + " -> " + atlas.getString("file") + " (" + regions.size()
+          + " regions, " + pages + " pages)");
+    }
+  }
+
+  /**
+   * Packs the images into pages and writes the pages and the atlas file.
+   *
+   * <p>The images are placed tallest first on shelves, left to right, and a page is started when
+   * one is full. The shelves are about as wide as a square holding all the images, and each page
+   * is then trimmed to the smallest power of two that holds its images.
+   *
+   * @param regions the images to pack
+   * @param output  the atlas file, next to which the pages are written
+   * @return the number of pages
+   */
+  private int pack(List<Region> regions, File output) throws IOException {
+    List<Region> sorted = new ArrayList<>(regions);
+    sorted.sort((a, b) -> b.image.getHeight() - a.image.getHeight());
+
+    long area = 0;
+    int shelfWidth = 0;
+    for (Region region : sorted) {
+      int width = region.image.getWidth() + 2 * PADDING;
+      area += (long) width * (region.image.getHeight() + 2 * PADDING);
+      shelfWidth = Math.max(shelfWidth, width);
+    }
+    shelfWidth = Math.min(Math.max(shelfWidth, powerOfTwo((int) Math.ceil(Math.sqrt(area)))),
+        MAX_PAGE_SIZE);
+
+    List<int[]> extents = new ArrayList<>();
+    int page = 0, x = 0, y = 0, shelf = 0;
+    extents.add(new int[2]);
+    for (Region region : sorted) {
+      int width = region.image.getWidth() + 2 * PADDING;
+      int height = region.image.getHeight() + 2 * PADDING;
+      if (width > MAX_PAGE_SIZE || height > MAX_PAGE_SIZE) {
+        throw new IOException("Texture " + region.name + " is too large for an atlas page");
+      }
+      if (x + width > shelfWidth) {
+        x = 0;
+        y += shelf;
+        shelf = 0;
+      }
+      if (y + height > MAX_PAGE_SIZE) {
+        page++;
+        x = 0;
+        y = 0;
+        extents.add(new int[2]);
+      }
+      region.page = page;
+      region.x = x + PADDING;
+      region.y = y + PADDING;
+      x += width;
+      shelf = Math.max(shelf, height);
+      int[] extent = extents.get(page);
+      extent[0] = Math.max(extent[0], x);
+      extent[1] = Math.max(extent[1], y + height);
+    }
+
+    File folder = output.getAbsoluteFile().getParentFile();
+    if (!folder.isDirectory() && !folder.mkdirs()) {
+      throw new IOException("Cannot create " + folder);
+    }
+    String base = output.getName().replaceFirst("\\.[^.]*$", "");
+    try (PrintWriter atlas = new PrintWriter(output, "UTF-8")) {
+      for (int ii = 0; ii < extents.size(); ii++) {
+        int width = powerOfTwo(extents.get(ii)[0]);
+        int height = powerOfTwo(extents.get(ii)[1]);
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        String name = base + (ii == 0 ? "" : ii + 1) + ".png";
+
+        atlas.println();
+        atlas.println(name);
+        atlas.println("size:" + width + "," + height);
+        atlas.println("format:RGBA8888");
+        atlas.println("filter:Linear,Linear");
+        atlas.println("repeat:none");
+        // Regions are written in the order of the directory, which is easier to read
+        for (Region region : regions) {
+          if (region.page == ii) {
+            draw(region, image);
+            atlas.println(region.name);
+            atlas.println("bounds:" + region.x + "," + region.y + ","
+                + region.image.getWidth() + "," + region.image.getHeight());
+          }
+        }
+        if (!ImageIO.write(image, "png", new File(folder, name))) {
+          throw new IOException("Cannot write " + name);
+        }
+      }
+    }
+    return extents.size();
+  }
+
+  /**
+   * Draws a region into its page, surrounded by a copy of its edge pixels
+   *
+   * @param region the packed region
+   * @param page   the image of its page
+   */
+  private void draw(Region region, BufferedImage page) {
+    BufferedImage image = region.image;
+    int width = image.getWidth();
+    int height = image.getHeight();
+    for (int dy = -PADDING; dy < height + PADDING; dy++) {
+      int sy = Math.min(Math.max(dy, 0), height - 1);
+      for (int dx = -PADDING; dx < width + PADDING; dx++) {
+        int sx = Math.min(Math.max(dx, 0), width - 1);
+        page.setRGB(region.x + dx, region.y + dy, image.getRGB(sx, sy));
+      }
+    }
+  }
+
+  /**
+   * Returns the smallest power of two no smaller than the given value
+   */
+  private static int powerOfTwo(int value) {
+    int power = 1;
+    while (power < value) {
+      power <<= 1;
+    }
+    return power;
+  }
+}
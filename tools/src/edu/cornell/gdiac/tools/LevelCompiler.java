@@ -0,0 +1,228 @@
+package edu.cornell.gdiac.tools;
+
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import edu.cornell.gdiac.util.BinaryLevelReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Command line tool that compiles Tiled JSON levels into the binary level format.
+ *
+ * <p>Usage: LevelCompiler &lt;input directory&gt; &lt;output directory&gt;. Every file named
+ * level*.json in the input directory is compiled into a file of the same name with the
+ * {@link BinaryLevelReader#EXTENSION} extension in the output directory. See
+ * {@link BinaryLevelReader} for the layout.
+ */
+public class LevelCompiler {
+
+  /**
+   * The string table of the level being compiled, with the index of each string
+   */
+  private final ObjectIntMap<String> stringIndex = new ObjectIntMap<>();
+  /**
+   * The strings of the level being compiled, in index order
+   */
+  private final ByteArrayOutputStream stringBytes = new ByteArrayOutputStream();
+  /**
+   * The body of the level being compiled (everything after the string table)
+   */
+  private final ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+  private final DataOutputStream body = new DataOutputStream(bodyBytes);
+
+  /**
+   * Compiles every level in the input directory
+   *
+   * @param args the input and output directories
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      System.err.println("Usage: LevelCompiler <input directory> <output directory>");
+      System.exit(1);
+    }
+    File input = new File(args[0]);
+    File output = new File(args[1]);
+    File[] files = input.listFiles((dir, name) -> name.matches("level.*\\.json"));
+    if (files == null) {
+      throw new IOException("Cannot list " + input);
+    }
+    if (!output.isDirectory() && !output.mkdirs()) {
+      throw new IOException("Cannot create " + output);
+    }
+
+    JsonReader reader = new JsonReader();
+    for (File file : files) {
+      String name = file.getName();
+      name = name.substring(0, name.length() - ".json".length()) + BinaryLevelReader.EXTENSION;
+      JsonValue json = reader.parse(new String(Files.readAllBytes(file.toPath()),
+          StandardCharsets.UTF_8));
+      byte[] bytes = new LevelCompiler().compile(json, file.getName());
+      Files.write(new File(output, name).toPath(), bytes);
+      System.out.println(file.getName() + " -> " + name + " (" + bytes.length + " bytes)");
+    }
+  }
+
+  /**
+   * Compiles a single Tiled JSON level.
+   *
+   * @param json the root of the Tiled JSON file
+   * @param name the name of the level, for error messages
+   * @return the binary level
+   */
+  public byte[] compile(JsonValue json, String name) throws IOException {
+    int width = json.getInt("width");
+    int height = json.getInt("height");
+    writeProperties(json.get("properties"));
+
+    JsonValue layers = json.get("layers");
+    writeCount(layers.size, name + " layers");
+    for (JsonValue layer = layers.child(); layer != null; layer = layer.next()) {
+      String layerName = name + " layer " + layer.getString("name");
+      JsonValue data = layer.get("data");
+      JsonValue objects = layer.get("objects");
+      if (data != null) {
+        body.writeByte(BinaryLevelReader.LAYER_TILES);
+      } else if (objects != null) {
+        body.writeByte(BinaryLevelReader.LAYER_OBJECTS);
+      } else {
+        throw new IOException(layerName + " is neither a tile nor an object layer");
+      }
+      writeString(layer.getString("name"));
+      writeProperties(layer.get("properties"));
+
+      if (data != null) {
+        int[] tiles = data.asIntArray();
+        if (tiles.length != width * height) {
+          throw new IOException(layerName + " does not match the map size");
+        }
+        for (int tile : tiles) {
+          if (tile < 0 || tile > 0xFFFF) {
+            throw new IOException(layerName + " has tile id " + tile
+                + " (flipped tiles are not supported)");
+          }
+          body.writeShort(tile);
+        }
+      } else {
+        writeCount(objects.size, layerName + " objects");
+        for (JsonValue object = objects.child(); object != null; object = object.next()) {
+          writeObject(object, layerName);
+        }
+      }
+    }
+
+    ByteArrayOutputStream result = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(result);
+    out.writeInt(BinaryLevelReader.MAGIC);
+    out.writeShort(BinaryLevelReader.VERSION);
+    out.writeShort(width);
+    out.writeShort(height);
+    out.writeShort(json.getInt("tilewidth"));
+    out.writeShort(json.getInt("tileheight"));
+    out.writeInt(stringIndex.size);
+    stringBytes.writeTo(out);
+    bodyBytes.writeTo(out);
+    out.flush();
+    return result.toByteArray();
+  }
+
+  /**
+   * Writes a single object record
+   */
+  private void writeObject(JsonValue object, String layerName) throws IOException {
+    writeString(object.getString("name", ""));
+    writeString(object.getString("type", ""));
+    body.writeFloat(object.getFloat("x", 0));
+    body.writeFloat(object.getFloat("y", 0));
+    body.writeFloat(object.getFloat("width", 0));
+    body.writeFloat(object.getFloat("height", 0));
+    body.writeFloat(object.getFloat("rotation", 0));
+    body.writeInt(object.getInt("gid", 0));
+
+    JsonValue polygon = object.get("polygon");
+    if (polygon == null) {
+      body.writeShort(0);
+    } else {
+      writeCount(polygon.size, layerName + " polygon");
+      for (JsonValue point = polygon.child(); point != null; point = point.next()) {
+        body.writeFloat(point.getFloat("x"));
+        body.writeFloat(point.getFloat("y"));
+      }
+    }
+    writeProperties(object.get("properties"));
+  }
+
+  /**
+   * Writes a property list, which may be missing
+   */
+  private void writeProperties(JsonValue properties) throws IOException {
+    if (properties == null) {
+      body.writeShort(0);
+      return;
+    }
+    writeCount(properties.size, "property list");
+    for (JsonValue property = properties.child(); property != null; property = property.next()) {
+      String propertyName = property.getString("name");
+      writeString(propertyName);
+      switch (property.getString("type", "string")) {
+        case "bool":
+          body.writeByte(BinaryLevelReader.PROPERTY_BOOL);
+          body.writeByte(property.getBoolean("value") ? 1 : 0);
+          break;
+        case "int":
+          body.writeByte(BinaryLevelReader.PROPERTY_INT);
+          body.writeInt(property.getInt("value"));
+          break;
+        case "float":
+          body.writeByte(BinaryLevelReader.PROPERTY_FLOAT);
+          body.writeFloat(property.getFloat("value"));
+          break;
+        case "string":
+        case "color":
+        case "file":
+          body.writeByte(BinaryLevelReader.PROPERTY_STRING);
+          writeString(property.getString("value"));
+          break;
+        default:
+          throw new IOException("Property " + propertyName + " has unsupported type "
+              + property.getString("type"));
+      }
+    }
+  }
+
+  /**
+   * Writes a reference to the string table, adding the string if it is new
+   */
+  private void writeString(String value) throws IOException {
+    int index = stringIndex.get(value, -1);
+    if (index == -1) {
+      index = stringIndex.size;
+      if (index > 0xFFFF) {
+        throw new IOException("Too many distinct strings");
+      }
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      if (bytes.length > 0xFFFF) {
+        throw new IOException("String too long: " + value.substring(0, 32) + "...");
+      }
+      stringIndex.put(value, index);
+      stringBytes.write(bytes.length >> 8);
+      stringBytes.write(bytes.length);
+      stringBytes.write(bytes);
+    }
+    body.writeShort(index);
+  }
+
+  /**
+   * Writes an element count, which must fit in a signed short
+   */
+  private void writeCount(int count, String what) throws IOException {
+    if (count > Short.MAX_VALUE) {
+      throw new IOException("Too many entries in " + what);
+    }
+    body.writeShort(count);
+  }
+}